@@ -21,6 +21,7 @@ import java.util.function.Function;
 import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.impl.base.event.EventFactoryImpl;
+import net.fabricmc.fabric.impl.base.event.EventInvokerGenerator;
 
 /**
  * Helper for creating {@link Event} classes.
@@ -76,6 +77,27 @@ public final class EventFactory {
 		});
 	}
 
+	/**
+	 * Create an "array-backed" Event instance for an event whose invoker only calls every listener in order,
+	 * with the same arguments, and does nothing else.
+	 * This behaves like {@linkplain #createArrayBacked(Class, Object, Function) the overload with a custom empty invoker}.
+	 *
+	 * <p>If the listener method returns {@code void} and the {@code fabric.event.generateInvokers}
+	 * system property is set, the invoker for two or more listeners may be generated at runtime
+	 * instead of using the factory. The generated invoker calls every listener in order.
+	 * Only use this if {@code invokerFactory} has no other behavior, such as catching exceptions or
+	 * stopping early, as it may be bypassed.
+	 *
+	 * @param type           The listener class type.
+	 * @param emptyInvoker   The custom empty invoker.
+	 * @param invokerFactory The invoker factory, combining multiple listeners into one instance by calling each of them in order.
+	 * @param <T>            The listener type.
+	 * @return The Event instance.
+	 */
+	public static <T> Event<T> createDelegating(Class<T> type, T emptyInvoker, Function<T[], T> invokerFactory) {
+		return EventFactoryImpl.createDelegating(type, emptyInvoker, invokerFactory, EventInvokerGenerator.ENABLED);
+	}
+
 	/**
 	 * Create an array-backed event with a list of default phases that get invoked in order.
 	 * Exposing the identifiers of the default phases as {@code public static final} constants is encouraged.
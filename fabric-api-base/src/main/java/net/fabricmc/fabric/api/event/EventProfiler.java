@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.api.event;
+
+import java.util.List;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.impl.base.event.EventProfilerImpl;
+
+/**
+ * Access to the timings of the listeners of array-backed events.
+ *
+ * <p>Profiling is disabled by default, and can be enabled by setting the {@code fabric.event.profile} system property.
+ * When enabled, every listener registered to an event created by {@link EventFactory} is wrapped
+ * to record how long each of its invocations takes. Listeners registered before profiling could be enabled,
+ * or while it is disabled, are not profiled. When disabled, events are not affected at all.
+ *
+ * <p>Note that wrapped listeners are not the instances that were registered,
+ * which is why this is only meant to be used for debugging.
+ */
+@ApiStatus.Experimental
+public final class EventProfiler {
+	private EventProfiler() {
+	}
+
+	/**
+	 * @return {@code true} if listeners are being profiled
+	 */
+	public static boolean isEnabled() {
+		return EventProfilerImpl.ENABLED;
+	}
+
+	/**
+	 * Returns a snapshot of the timings of every profiled listener, sorted by decreasing total time.
+	 * The list is empty if profiling is disabled.
+	 */
+	public static List<ListenerProfile> getProfiles() {
+		return EventProfilerImpl.getProfiles();
+	}
+
+	/**
+	 * Resets the timings of every profiled listener.
+	 */
+	public static void reset() {
+		EventProfilerImpl.reset();
+	}
+
+	/**
+	 * A snapshot of the timings of a single listener.
+	 *
+	 * <p>Durations are also recorded in a histogram with power of two buckets:
+	 * bucket {@code i} counts the invocations that took between {@code 2^i} (inclusive) and {@code 2^(i+1)} (exclusive)
+	 * nanoseconds, with bucket {@code 0} also counting invocations that took 0 nanoseconds.
+	 *
+	 * @param listenerType the listener type of the event
+	 * @param phase the phase the listener was registered to
+	 * @param modId the id of the mod owning the listener class, or {@code "unknown"} if it could not be determined
+	 * @param listenerName the name of the listener class
+	 * @param invocations the number of times the listener was invoked
+	 * @param totalNanos the total time spent in the listener, in nanoseconds
+	 * @param maxNanos the longest time spent in a single invocation of the listener, in nanoseconds
+	 * @param histogram the histogram of invocation durations
+	 */
+	public record ListenerProfile(Class<?> listenerType, Identifier phase, String modId, String listenerName,
+			long invocations, long totalNanos, long maxNanos, long[] histogram) {
+		/**
+		 * @return the average time spent in an invocation of the listener, in nanoseconds
+		 */
+		public double meanNanos() {
+			return invocations == 0 ? 0 : (double) totalNanos / invocations;
+		}
+
+		/**
+		 * Returns an upper bound of the given percentile of invocation durations, based on the histogram.
+		 *
+		 * @param percentile the percentile, between 0 and 1
+		 * @return the upper bound of the histogram bucket containing the percentile, in nanoseconds
+		 */
+		public long percentileNanos(double percentile) {
+			long target = (long) Math.ceil(invocations * percentile);
+			long seen = 0;
+
+			for (int i = 0; i < histogram.length; i++) {
+				seen += histogram[i];
+
+				if (seen >= target && seen > 0) {
+					return Math.min(maxNanos, (2L << i) - 1);
+				}
+			}
+
+			return maxNanos;
+		}
+	}
+}
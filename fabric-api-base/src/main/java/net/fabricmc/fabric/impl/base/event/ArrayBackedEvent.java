@@ -64,6 +64,10 @@ class ArrayBackedEvent<T> extends Event<T> {
 		Objects.requireNonNull(phaseIdentifier, "Tried to register a listener for a null phase!");
 		Objects.requireNonNull(listener, "Tried to register a null listener!");
 
+		if (EventProfilerImpl.ENABLED) {
+			listener = EventProfilerImpl.wrap(handlers.getClass().getComponentType(), phaseIdentifier, listener);
+		}
+
 		synchronized (lock) {
 			getOrCreatePhase(phaseIdentifier, true).addListener(listener);
 			rebuildInvoker(handlers.length + 1);
@@ -49,6 +49,32 @@ public final class EventFactoryImpl {
 		return event;
 	}
 
+	/**
+	 * @param generateInvokers whether to generate the invokers of two or more listeners when possible,
+	 *                         instead of using the invoker factory
+	 */
+	public static <T> Event<T> createDelegating(Class<T> type, T emptyInvoker, Function<T[], T> invokerFactory, boolean generateInvokers) {
+		Method generatedMethod = generateInvokers ? EventInvokerGenerator.findDelegatingMethod(type) : null;
+
+		return createArrayBacked(type, listeners -> {
+			if (listeners.length == 0) {
+				return emptyInvoker;
+			} else if (listeners.length == 1) {
+				return listeners[0];
+			} else {
+				if (generatedMethod != null) {
+					T invoker = EventInvokerGenerator.generate(type, generatedMethod, listeners);
+
+					if (invoker != null) {
+						return invoker;
+					}
+				}
+
+				return invokerFactory.apply(listeners);
+			}
+		});
+	}
+
 	public static void ensureContainsDefault(Identifier[] defaultPhases) {
 		for (Identifier id : defaultPhases) {
 			if (id.equals(Event.DEFAULT_PHASE)) {
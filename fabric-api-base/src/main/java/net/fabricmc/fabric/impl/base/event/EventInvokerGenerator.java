@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.base.event;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates invokers for events whose invoker only delegates to every listener in order.
+ *
+ * <p>Each invoker stores every listener in a separate field and calls them one after the other.
+ * Every call site of an invoker only ever sees a single listener class, so the JIT can inline the listeners
+ * instead of going through a megamorphic call site in a loop over the listener array. The hidden class of
+ * the invokers is defined once per listener type and listener count, and shared by all the invokers.
+ *
+ * <p>This is opt-in through the {@code fabric.event.generateInvokers} system property, and is only used for events
+ * created with {@link net.fabricmc.fabric.api.event.EventFactory#createDelegating(Class, Object, java.util.function.Function)}
+ * whose listener method returns {@code void}, as the semantics of such invokers are fully known.
+ */
+public final class EventInvokerGenerator {
+	private static final Logger LOGGER = LoggerFactory.getLogger("fabric-api-base");
+	public static final boolean ENABLED = Boolean.getBoolean("fabric.event.generateInvokers");
+	/**
+	 * Above this many listeners, the generated method would get too large for the JIT to bother compiling it.
+	 */
+	public static final int MAX_LISTENERS = 256;
+	/**
+	 * Constructors of the generated classes, per listener type and listener count.
+	 */
+	private static final ClassValue<Map<Integer, Optional<MethodHandle>>> CONSTRUCTORS = new ClassValue<>() {
+		@Override
+		protected Map<Integer, Optional<MethodHandle>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+	private static final String CLASS_NAME = Type.getInternalName(EventInvokerGenerator.class).replace("EventInvokerGenerator", "GeneratedInvoker");
+
+	private EventInvokerGenerator() {
+	}
+
+	/**
+	 * Returns the single abstract method of a listener type if invokers can be generated for it, or {@code null} otherwise.
+	 */
+	@Nullable
+	public static Method findDelegatingMethod(Class<?> type) {
+		if (!type.isInterface() || !Modifier.isPublic(type.getModifiers())) {
+			return null;
+		}
+
+		Method abstractMethod = null;
+
+		for (Method m : type.getMethods()) {
+			if (Modifier.isAbstract(m.getModifiers())) {
+				if (abstractMethod != null) {
+					return null;
+				}
+
+				abstractMethod = m;
+			}
+		}
+
+		if (abstractMethod == null || abstractMethod.getReturnType() != void.class) {
+			return null;
+		}
+
+		// The hidden class must be able to resolve the listener type by name.
+		return isResolvable(type) ? abstractMethod : null;
+	}
+
+	/**
+	 * Returns whether a class generated in this package can refer to the given class by name.
+	 */
+	static boolean isResolvable(Class<?> type) {
+		try {
+			return Class.forName(type.getName(), false, EventInvokerGenerator.class.getClassLoader()) == type;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Generates an invoker calling all the listeners in order.
+	 *
+	 * @return the invoker, or {@code null} if it could not be generated
+	 */
+	@Nullable
+	public static <T> T generate(Class<? super T> type, Method method, T[] listeners) {
+		if (listeners.length > MAX_LISTENERS) {
+			return null;
+		}
+
+		Optional<MethodHandle> constructor = CONSTRUCTORS.get(type).computeIfAbsent(listeners.length, count -> defineClass(type, method, count));
+
+		if (constructor.isEmpty()) {
+			return null;
+		}
+
+		try {
+			@SuppressWarnings("unchecked")
+			T invoker = (T) (Object) constructor.get().invokeExact((Object[]) listeners);
+			return invoker;
+		} catch (Throwable t) {
+			LOGGER.warn("Failed to create event invoker for {}, falling back to the invoker factory.", type.getName(), t);
+			return null;
+		}
+	}
+
+	/**
+	 * @return the constructor of the generated class taking the listener array, or empty if it could not be generated
+	 */
+	private static Optional<MethodHandle> defineClass(Class<?> type, Method method, int listenerCount) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(generateClass(type, method, listenerCount), true);
+			return Optional.of(lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Object[].class))
+					.asType(MethodType.methodType(Object.class, Object[].class)));
+		} catch (Throwable t) {
+			LOGGER.warn("Failed to generate event invoker for {}, falling back to the invoker factory.", type.getName(), t);
+			return Optional.empty();
+		}
+	}
+
+	private static byte[] generateClass(Class<?> type, Method method, int listenerCount) {
+		String typeName = Type.getInternalName(type);
+		String typeDesc = Type.getDescriptor(type);
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, CLASS_NAME, null, "java/lang/Object", new String[]{typeName});
+
+		for (int i = 0; i < listenerCount; i++) {
+			cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "listener" + i, typeDesc, null, null).visitEnd();
+		}
+
+		// Constructor: copy each listener of the array to its own field.
+		MethodVisitor ctor = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "([Ljava/lang/Object;)V", null, null);
+		ctor.visitCode();
+		ctor.visitVarInsn(Opcodes.ALOAD, 0);
+		ctor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+
+		for (int i = 0; i < listenerCount; i++) {
+			ctor.visitVarInsn(Opcodes.ALOAD, 0);
+			ctor.visitVarInsn(Opcodes.ALOAD, 1);
+			ctor.visitLdcInsn(i);
+			ctor.visitInsn(Opcodes.AALOAD);
+			ctor.visitTypeInsn(Opcodes.CHECKCAST, typeName);
+			ctor.visitFieldInsn(Opcodes.PUTFIELD, CLASS_NAME, "listener" + i, typeDesc);
+		}
+
+		ctor.visitInsn(Opcodes.RETURN);
+		ctor.visitMaxs(0, 0);
+		ctor.visitEnd();
+
+		// Listener method: unrolled calls to every listener.
+		String methodDesc = Type.getMethodDescriptor(method);
+		Type[] argumentTypes = Type.getArgumentTypes(method);
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, method.getName(), methodDesc, null, null);
+		mv.visitCode();
+
+		for (int i = 0; i < listenerCount; i++) {
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			mv.visitFieldInsn(Opcodes.GETFIELD, CLASS_NAME, "listener" + i, typeDesc);
+			int slot = 1;
+
+			for (Type argumentType : argumentTypes) {
+				mv.visitVarInsn(argumentType.getOpcode(Opcodes.ILOAD), slot);
+				slot += argumentType.getSize();
+			}
+
+			mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, typeName, method.getName(), methodDesc, true);
+		}
+
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.base.event;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.api.event.EventProfiler;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+
+public final class EventProfilerImpl {
+	public static final boolean ENABLED = Boolean.getBoolean("fabric.event.profile");
+	private static final int HISTOGRAM_BUCKETS = 48;
+	private static final List<ListenerTimer> TIMERS = new CopyOnWriteArrayList<>();
+	private static final Map<String, String> OWNING_MODS = new ConcurrentHashMap<>();
+
+	private EventProfilerImpl() {
+	}
+
+	/**
+	 * Wraps a listener so that its invocations are timed, see {@link TimedListenerGenerator}.
+	 * Only public functional listener interfaces can be wrapped, other listeners are returned as is.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T wrap(Class<?> listenerType, Identifier phase, T listener) {
+		ListenerTimer timer = new ListenerTimer(listenerType, phase, getOwningMod(listener.getClass()), listener.getClass().getName());
+		Object timedListener = TimedListenerGenerator.wrap(listenerType, listener, timer);
+
+		if (timedListener == null) {
+			return listener;
+		}
+
+		TIMERS.add(timer);
+		return (T) timedListener;
+	}
+
+	public static List<EventProfiler.ListenerProfile> getProfiles() {
+		List<EventProfiler.ListenerProfile> profiles = new ArrayList<>(TIMERS.size());
+
+		for (ListenerTimer timer : TIMERS) {
+			profiles.add(timer.snapshot());
+		}
+
+		profiles.sort(Comparator.comparingLong(EventProfiler.ListenerProfile::totalNanos).reversed());
+		return profiles;
+	}
+
+	public static void reset() {
+		for (ListenerTimer timer : TIMERS) {
+			timer.reset();
+		}
+	}
+
+	private static String getOwningMod(Class<?> listenerClass) {
+		String className = listenerClass.getName();
+		// Lambdas and other hidden classes are not backed by a class file, use their host class instead.
+		int lambdaIndex = className.indexOf("$$Lambda");
+		int hiddenIndex = className.indexOf('/');
+
+		if (lambdaIndex >= 0) {
+			className = className.substring(0, lambdaIndex);
+		} else if (hiddenIndex >= 0) {
+			className = className.substring(0, hiddenIndex);
+		}
+
+		String classFile = className.replace('.', '/') + ".class";
+
+		return OWNING_MODS.computeIfAbsent(classFile, file -> {
+			for (ModContainer mod : FabricLoader.getInstance().getAllMods()) {
+				if (mod.findPath(file).isPresent()) {
+					return mod.getMetadata().getId();
+				}
+			}
+
+			return "unknown";
+		});
+	}
+
+	static final class ListenerTimer {
+		private final Class<?> listenerType;
+		private final Identifier phase;
+		private final String modId;
+		private final String listenerName;
+		private final LongAdder invocations = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+		private ListenerTimer(Class<?> listenerType, Identifier phase, String modId, String listenerName) {
+			this.listenerType = listenerType;
+			this.phase = phase;
+			this.modId = modId;
+			this.listenerName = listenerName;
+		}
+
+		void record(long nanos) {
+			invocations.increment();
+			totalNanos.add(nanos);
+			histogram.incrementAndGet(Math.min(HISTOGRAM_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos | 1)));
+
+			if (nanos > maxNanos.get()) {
+				maxNanos.accumulateAndGet(nanos, Math::max);
+			}
+		}
+
+		private void reset() {
+			invocations.reset();
+			totalNanos.reset();
+			maxNanos.set(0);
+
+			for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+				histogram.set(i, 0);
+			}
+		}
+
+		private EventProfiler.ListenerProfile snapshot() {
+			long[] buckets = new long[HISTOGRAM_BUCKETS];
+
+			for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+				buckets[i] = histogram.get(i);
+			}
+
+			return new EventProfiler.ListenerProfile(listenerType, phase, modId, listenerName, invocations.sum(), totalNanos.sum(), maxNanos.get(), buckets);
+		}
+	}
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.base.event;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates the wrappers timing the invocations of a listener for {@link EventProfilerImpl}.
+ *
+ * <p>The wrapper of a listener class implements the same public interfaces as the listener, and calls the listener
+ * directly. Only the call of the listener method is timed, the other interface methods are only delegated.
+ * The hidden class of the wrappers is defined once per listener class and listener type.
+ */
+final class TimedListenerGenerator {
+	private static final Logger LOGGER = LoggerFactory.getLogger("fabric-api-base");
+	private static final String CLASS_NAME = Type.getInternalName(TimedListenerGenerator.class).replace("TimedListenerGenerator", "TimedListener");
+	private static final String TIMER_NAME = Type.getInternalName(EventProfilerImpl.ListenerTimer.class);
+	private static final String TIMER_DESC = Type.getDescriptor(EventProfilerImpl.ListenerTimer.class);
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object.class, EventProfilerImpl.ListenerTimer.class);
+	/**
+	 * Constructors of the generated classes, per listener class and listener type.
+	 */
+	private static final ClassValue<Map<Class<?>, Optional<MethodHandle>>> CONSTRUCTORS = new ClassValue<>() {
+		@Override
+		protected Map<Class<?>, Optional<MethodHandle>> computeValue(Class<?> listenerClass) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private TimedListenerGenerator() {
+	}
+
+	/**
+	 * @return the timed listener, or {@code null} if it could not be generated
+	 */
+	@Nullable
+	static Object wrap(Class<?> listenerType, Object listener, EventProfilerImpl.ListenerTimer timer) {
+		Optional<MethodHandle> constructor = CONSTRUCTORS.get(listener.getClass()).computeIfAbsent(listenerType, type -> defineClass(type, listener.getClass()));
+
+		if (constructor.isEmpty()) {
+			return null;
+		}
+
+		try {
+			return (Object) constructor.get().invokeExact(listener, timer);
+		} catch (Throwable t) {
+			LOGGER.warn("Failed to create timed listener for {}, it will not be profiled.", listener.getClass().getName(), t);
+			return null;
+		}
+	}
+
+	private static Optional<MethodHandle> defineClass(Class<?> listenerType, Class<?> listenerClass) {
+		Method timedMethod = findTimedMethod(listenerType);
+
+		if (timedMethod == null) {
+			return Optional.empty();
+		}
+
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(generateClass(listenerType, timedMethod, getInterfaces(listenerType, listenerClass)), true);
+			return Optional.of(lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Object.class, EventProfilerImpl.ListenerTimer.class))
+					.asType(CONSTRUCTOR_TYPE));
+		} catch (Throwable t) {
+			LOGGER.warn("Failed to generate timed listener for {}, it will not be profiled.", listenerClass.getName(), t);
+			return Optional.empty();
+		}
+	}
+
+	@Nullable
+	private static Method findTimedMethod(Class<?> listenerType) {
+		if (!isImplementable(listenerType)) {
+			return null;
+		}
+
+		Method abstractMethod = null;
+
+		for (Method m : listenerType.getMethods()) {
+			if (Modifier.isAbstract(m.getModifiers())) {
+				if (abstractMethod != null) {
+					return null;
+				}
+
+				abstractMethod = m;
+			}
+		}
+
+		return abstractMethod;
+	}
+
+	/**
+	 * @return the listener type, followed by the other interfaces of the listener class that can be implemented
+	 */
+	private static List<Class<?>> getInterfaces(Class<?> listenerType, Class<?> listenerClass) {
+		Set<Class<?>> interfaces = new LinkedHashSet<>();
+		interfaces.add(listenerType);
+
+		for (Class<?> c = listenerClass; c != null; c = c.getSuperclass()) {
+			for (Class<?> itf : c.getInterfaces()) {
+				if (isImplementable(itf)) {
+					interfaces.add(itf);
+				}
+			}
+		}
+
+		return new ArrayList<>(interfaces);
+	}
+
+	/**
+	 * Returns whether the generated class can implement the interface, and call all its methods.
+	 */
+	private static boolean isImplementable(Class<?> type) {
+		if (!type.isInterface() || !Modifier.isPublic(type.getModifiers()) || !EventInvokerGenerator.isResolvable(type)) {
+			return false;
+		}
+
+		for (Method m : type.getMethods()) {
+			if (!Modifier.isStatic(m.getModifiers()) && !EventInvokerGenerator.isResolvable(m.getDeclaringClass())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static byte[] generateClass(Class<?> listenerType, Method timedMethod, List<Class<?>> interfaces) {
+		String[] interfaceNames = interfaces.stream().map(Type::getInternalName).toArray(String[]::new);
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES) {
+			@Override
+			protected String getCommonSuperClass(String type1, String type2) {
+				// Only reached for the listener arguments, which are never merged with other types.
+				return "java/lang/Object";
+			}
+		};
+		cw.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, CLASS_NAME, null, "java/lang/Object", interfaceNames);
+		cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "listener", "Ljava/lang/Object;", null, null).visitEnd();
+		cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "timer", TIMER_DESC, null, null).visitEnd();
+
+		MethodVisitor ctor = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(Ljava/lang/Object;" + TIMER_DESC + ")V", null, null);
+		ctor.visitCode();
+		ctor.visitVarInsn(Opcodes.ALOAD, 0);
+		ctor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		ctor.visitVarInsn(Opcodes.ALOAD, 0);
+		ctor.visitVarInsn(Opcodes.ALOAD, 1);
+		ctor.visitFieldInsn(Opcodes.PUTFIELD, CLASS_NAME, "listener", "Ljava/lang/Object;");
+		ctor.visitVarInsn(Opcodes.ALOAD, 0);
+		ctor.visitVarInsn(Opcodes.ALOAD, 2);
+		ctor.visitFieldInsn(Opcodes.PUTFIELD, CLASS_NAME, "timer", TIMER_DESC);
+		ctor.visitInsn(Opcodes.RETURN);
+		ctor.visitMaxs(0, 0);
+		ctor.visitEnd();
+
+		String timedKey = timedMethod.getName() + Type.getMethodDescriptor(timedMethod);
+		Set<String> generated = new HashSet<>();
+		generated.add(timedKey);
+		generateTimedMethod(cw, listenerType, timedMethod);
+
+		for (Class<?> itf : interfaces) {
+			for (Method m : itf.getMethods()) {
+				if (!Modifier.isStatic(m.getModifiers()) && generated.add(m.getName() + Type.getMethodDescriptor(m))) {
+					generateDelegatingMethod(cw, m);
+				}
+			}
+		}
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void generateTimedMethod(ClassWriter cw, Class<?> listenerType, Method method) {
+		String methodDesc = Type.getMethodDescriptor(method);
+		Type returnType = Type.getReturnType(method);
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, method.getName(), methodDesc, null, null);
+		int startSlot = getArgumentSlots(method) + 1;
+		int resultSlot = startSlot + 2;
+		int exceptionSlot = resultSlot + Math.max(returnType.getSize(), 1);
+		Label tryStart = new Label();
+		Label tryEnd = new Label();
+		Label handler = new Label();
+		mv.visitCode();
+		mv.visitTryCatchBlock(tryStart, tryEnd, handler, null);
+
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/System", "nanoTime", "()J", false);
+		mv.visitVarInsn(Opcodes.LSTORE, startSlot);
+		mv.visitLabel(tryStart);
+		invokeListener(mv, listenerType, method);
+
+		if (returnType.getSort() != Type.VOID) {
+			mv.visitVarInsn(returnType.getOpcode(Opcodes.ISTORE), resultSlot);
+		}
+
+		mv.visitLabel(tryEnd);
+		recordTime(mv, startSlot);
+
+		if (returnType.getSort() != Type.VOID) {
+			mv.visitVarInsn(returnType.getOpcode(Opcodes.ILOAD), resultSlot);
+		}
+
+		mv.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+
+		// Also record the time of listeners throwing an exception.
+		mv.visitLabel(handler);
+		mv.visitVarInsn(Opcodes.ASTORE, exceptionSlot);
+		recordTime(mv, startSlot);
+		mv.visitVarInsn(Opcodes.ALOAD, exceptionSlot);
+		mv.visitInsn(Opcodes.ATHROW);
+
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private static void generateDelegatingMethod(ClassWriter cw, Method method) {
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, method.getName(), Type.getMethodDescriptor(method), null, null);
+		mv.visitCode();
+		invokeListener(mv, method.getDeclaringClass(), method);
+		mv.visitInsn(Type.getReturnType(method).getOpcode(Opcodes.IRETURN));
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private static void invokeListener(MethodVisitor mv, Class<?> owner, Method method) {
+		String ownerName = Type.getInternalName(owner);
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitFieldInsn(Opcodes.GETFIELD, CLASS_NAME, "listener", "Ljava/lang/Object;");
+		mv.visitTypeInsn(Opcodes.CHECKCAST, ownerName);
+		int slot = 1;
+
+		for (Type argumentType : Type.getArgumentTypes(method)) {
+			mv.visitVarInsn(argumentType.getOpcode(Opcodes.ILOAD), slot);
+			slot += argumentType.getSize();
+		}
+
+		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, ownerName, method.getName(), Type.getMethodDescriptor(method), true);
+	}
+
+	private static void recordTime(MethodVisitor mv, int startSlot) {
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitFieldInsn(Opcodes.GETFIELD, CLASS_NAME, "timer", TIMER_DESC);
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/System", "nanoTime", "()J", false);
+		mv.visitVarInsn(Opcodes.LLOAD, startSlot);
+		mv.visitInsn(Opcodes.LSUB);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, TIMER_NAME, "record", "(J)V", false);
+	}
+
+	private static int getArgumentSlots(Method method) {
+		int slots = 0;
+
+		for (Type argumentType : Type.getArgumentTypes(method)) {
+			slots += argumentType.getSize();
+		}
+
+		return slots;
+	}
+}
@@ -16,6 +16,7 @@
 
 package net.fabricmc.fabric.test.base;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -29,6 +30,8 @@ import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.api.event.Event;
 import net.fabricmc.fabric.api.event.EventFactory;
+import net.fabricmc.fabric.impl.base.event.EventFactoryImpl;
+import net.fabricmc.fabric.impl.base.event.EventInvokerGenerator;
 import net.fabricmc.fabric.impl.base.toposort.NodeSorting;
 
 public class EventTests {
@@ -45,6 +48,7 @@ public class EventTests {
 		testDeterministicOrdering();
 		testTwoCycles();
 		NodeSorting.ENABLE_CYCLE_WARNING = true;
+		testGeneratedInvokers();
 
 		long time2 = System.currentTimeMillis();
 		LOGGER.info("Event unit tests succeeded in {} milliseconds.", time2 - time1);
@@ -263,6 +267,88 @@ public class EventTests {
 		});
 	}
 
+	/**
+	 * Test that generated invokers call every listener in order with the right arguments.
+	 */
+	private static void testGeneratedInvokers() {
+		Method method = EventInvokerGenerator.findDelegatingMethod(GeneratedTest.class);
+
+		if (method == null) {
+			throw new AssertionError("Failed to find the delegating method of GeneratedTest");
+		}
+
+		for (int listenerCount : new int[]{0, 1, 4, 64}) {
+			GeneratedTest[] listeners = new GeneratedTest[listenerCount];
+
+			for (int i = 0; i < listenerCount; ++i) {
+				final int order = i;
+				listeners[i] = (value, text) -> {
+					assertEquals(order, currentListener);
+					assertEquals(42L, value);
+					assertEquals("test", text);
+					++currentListener;
+				};
+			}
+
+			GeneratedTest invoker = EventInvokerGenerator.generate(GeneratedTest.class, method, listeners);
+
+			if (invoker == null) {
+				throw new AssertionError("Failed to generate an invoker for " + listenerCount + " listeners");
+			}
+
+			invoker.onTest(42L, "test");
+			assertEquals(listenerCount, currentListener);
+			currentListener = 0;
+		}
+
+		// Through events: the invoker is only generated for delegating events that opted in.
+		GeneratedTest emptyInvoker = (value, text) -> { };
+		boolean[] factoryUsed = new boolean[1];
+		Function<GeneratedTest[], GeneratedTest> factory = listeners -> {
+			factoryUsed[0] = true;
+			return (value, text) -> {
+				for (GeneratedTest listener : listeners) {
+					listener.onTest(value, text);
+				}
+			};
+		};
+
+		Event<GeneratedTest> generatedEvent = EventFactoryImpl.createDelegating(GeneratedTest.class, emptyInvoker, factory, true);
+		assertEquals(emptyInvoker, generatedEvent.invoker());
+		registerOrderedListeners(generatedEvent, 4);
+		assertEquals(true, generatedEvent.invoker().getClass().isHidden());
+		assertEquals(false, factoryUsed[0]);
+		generatedEvent.invoker().onTest(42L, "test");
+		assertEquals(4, currentListener);
+		currentListener = 0;
+
+		// The generated class is shared by all invokers with the same listener type and count.
+		Event<GeneratedTest> otherEvent = EventFactoryImpl.createDelegating(GeneratedTest.class, emptyInvoker, factory, true);
+		registerOrderedListeners(otherEvent, 4);
+		assertEquals(generatedEvent.invoker().getClass(), otherEvent.invoker().getClass());
+
+		// Events created with the overload taking an empty invoker always use their invoker factory.
+		Event<GeneratedTest> factoryEvent = EventFactory.createArrayBacked(GeneratedTest.class, emptyInvoker, factory);
+		registerOrderedListeners(factoryEvent, 4);
+		assertEquals(true, factoryUsed[0]);
+		assertEquals(false, factoryEvent.invoker().getClass().isHidden());
+		factoryEvent.invoker().onTest(42L, "test");
+		assertEquals(4, currentListener);
+		currentListener = 0;
+	}
+
+	private static void registerOrderedListeners(Event<GeneratedTest> event, int listenerCount) {
+		for (int i = 0; i < listenerCount; ++i) {
+			final int order = i;
+			event.register((value, text) -> {
+				assertEquals(order, currentListener);
+				assertEquals(42L, value);
+				assertEquals("test", text);
+				++currentListener;
+			});
+		}
+	}
+
 	@SuppressWarnings("SuspiciousListRemoveInLoop")
 	private static <T> void testAllPermutations(List<T> selected, List<T> toSelect, Consumer<List<T>> action) {
 		if (toSelect.size() == 0) {
@@ -283,6 +369,11 @@ public class EventTests {
 		void onTest();
 	}
 
+	@FunctionalInterface
+	public interface GeneratedTest {
+		void onTest(long value, String text);
+	}
+
 	private static void assertEquals(Object expected, Object actual) {
 		if (!Objects.equals(expected, actual)) {
 			throw new AssertionError(String.format("assertEquals failed%nexpected: %s%n but was: %s", expected, actual));
@@ -18,11 +18,16 @@ package net.fabricmc.fabric.impl.lookup;
 
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.impl.lookup.block.WorldBlockApiCache;
 import net.fabricmc.fabric.impl.lookup.entity.EntityApiLookupImpl;
 
 public class ApiLookupImpl implements ModInitializer {
 	@Override
 	public void onInitialize() {
 		ServerLifecycleEvents.SERVER_STARTED.register(EntityApiLookupImpl::checkSelfImplementingTypes);
+
+		if (WorldBlockApiCache.ENABLED) {
+			ServerLifecycleEvents.SERVER_STOPPED.register(WorldBlockApiCache::logStatistics);
+		}
 	}
 }
@@ -29,6 +29,7 @@ import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.block.entity.BlockEntityType;
 import net.minecraft.registry.Registries;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
@@ -67,6 +68,10 @@ public final class BlockApiLookupImpl<A, C> implements BlockApiLookup<A, C> {
 		Objects.requireNonNull(pos, "BlockPos may not be null.");
 		// Providers have the final say whether a null context is allowed.
 
+		if (blockEntity == null && WorldBlockApiCache.ENABLED && world instanceof ServerWorld serverWorld && serverWorld.getServer().isOnThread()) {
+			return ((ServerWorldCache) serverWorld).fabric_getWorldApiCache().get(this, pos).find(state, context);
+		}
+
 		// Get the block state and the block entity
 		if (blockEntity == null) {
 			if (state == null) {
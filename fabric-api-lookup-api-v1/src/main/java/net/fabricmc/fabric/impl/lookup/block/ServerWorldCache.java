@@ -25,4 +25,6 @@ public interface ServerWorldCache {
 	void fabric_registerCache(BlockPos pos, BlockApiCacheImpl<?, ?> cache);
 
 	void fabric_invalidateCache(BlockPos pos);
+
+	WorldBlockApiCache fabric_getWorldApiCache();
 }
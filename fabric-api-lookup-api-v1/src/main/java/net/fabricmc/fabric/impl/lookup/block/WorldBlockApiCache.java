@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.lookup.block;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Keeps the {@link BlockApiCacheImpl} of the most recently queried positions of a world, for every lookup,
+ * so that repeated {@link BlockApiLookupImpl#find} calls at the same position reuse the cached block entity and provider.
+ *
+ * <p>Only the block entity and the provider are cached, not the API instance itself:
+ * it can depend on the context and on the state of the block entity.
+ * The caches are invalidated by block entity loads and unloads, and the provider is looked up again when the block state changes,
+ * exactly like caches created with {@link net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache#create}.
+ *
+ * <p>Disabled by default, and can be enabled by setting the {@code fabric.lookup.worldCache} system property.
+ * Only queries made on the server thread are cached.
+ */
+public final class WorldBlockApiCache {
+	private static final Logger LOGGER = LoggerFactory.getLogger("fabric-api-lookup-api-v1/block");
+	public static final boolean ENABLED = Boolean.getBoolean("fabric.lookup.worldCache");
+	private static final int MAX_ENTRIES = Integer.getInteger("fabric.lookup.worldCache.maxEntries", 4096);
+	private static final LongAdder HITS = new LongAdder();
+	private static final LongAdder MISSES = new LongAdder();
+
+	private final ServerWorld world;
+	private final Map<BlockApiLookupImpl<?, ?>, Long2ObjectLinkedOpenHashMap<BlockApiCacheImpl<?, ?>>> caches = new Reference2ObjectOpenHashMap<>();
+
+	public WorldBlockApiCache(ServerWorld world) {
+		this.world = world;
+	}
+
+	@SuppressWarnings("unchecked")
+	<A, C> BlockApiCacheImpl<A, C> get(BlockApiLookupImpl<A, C> lookup, BlockPos pos) {
+		Long2ObjectLinkedOpenHashMap<BlockApiCacheImpl<?, ?>> lookupCaches = caches.computeIfAbsent(lookup, l -> new Long2ObjectLinkedOpenHashMap<>());
+		long key = pos.asLong();
+		BlockApiCacheImpl<A, C> cache = (BlockApiCacheImpl<A, C>) lookupCaches.getAndMoveToLast(key);
+
+		if (cache != null) {
+			HITS.increment();
+			return cache;
+		}
+
+		MISSES.increment();
+		cache = new BlockApiCacheImpl<>(lookup, world, pos);
+		lookupCaches.putAndMoveToLast(key, cache);
+
+		if (lookupCaches.size() > MAX_ENTRIES) {
+			// Evicted caches are cleaned up from the invalidation listeners once they are garbage collected.
+			lookupCaches.removeFirst();
+		}
+
+		return cache;
+	}
+
+	public static long getHits() {
+		return HITS.sum();
+	}
+
+	public static long getMisses() {
+		return MISSES.sum();
+	}
+
+	/**
+	 * @return the ratio of queries that reused a cached position, between 0 and 1
+	 */
+	public static double getHitRate() {
+		long hits = getHits();
+		long total = hits + getMisses();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	public static void logStatistics(MinecraftServer server) {
+		LOGGER.info("Block API lookup world cache: {} hits, {} misses ({}% hit rate)", getHits(), getMisses(), String.format(Locale.ROOT, "%.1f", getHitRate() * 100));
+		HITS.reset();
+		MISSES.reset();
+	}
+}
@@ -30,6 +30,7 @@ import net.minecraft.util.math.BlockPos;
 
 import net.fabricmc.fabric.impl.lookup.block.BlockApiCacheImpl;
 import net.fabricmc.fabric.impl.lookup.block.ServerWorldCache;
+import net.fabricmc.fabric.impl.lookup.block.WorldBlockApiCache;
 
 @Mixin(ServerWorld.class)
 abstract class ServerWorldMixin implements ServerWorldCache {
@@ -40,6 +41,8 @@ abstract class ServerWorldMixin implements ServerWorldCache {
 	 */
 	@Unique
 	private int apiLookupAccessesWithoutCleanup = 0;
+	@Unique
+	private WorldBlockApiCache worldApiCache = null;
 
 	@Override
 	public void fabric_registerCache(BlockPos pos, BlockApiCacheImpl<?, ?> cache) {
@@ -81,4 +84,13 @@ abstract class ServerWorldMixin implements ServerWorldCache {
 			apiLookupAccessesWithoutCleanup = 0;
 		}
 	}
+
+	@Override
+	public WorldBlockApiCache fabric_getWorldApiCache() {
+		if (worldApiCache == null) {
+			worldApiCache = new WorldBlockApiCache((ServerWorld) (Object) this);
+		}
+
+		return worldApiCache;
+	}
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.lookup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiLookup;
+import net.fabricmc.fabric.impl.lookup.block.BlockApiCacheImpl;
+import net.fabricmc.fabric.impl.lookup.block.ServerWorldCache;
+import net.fabricmc.fabric.impl.lookup.block.WorldBlockApiCache;
+
+public class WorldBlockApiCacheTest {
+	private static final BlockPos POS = new BlockPos(1, 2, 3);
+	private static final AtomicInteger PROVIDER_CALLS = new AtomicInteger();
+	private static BlockApiLookup<String, Void> lookup;
+
+	private ServerWorld world;
+	private MinecraftServer server;
+	private List<BlockApiCacheImpl<?, ?>> registeredCaches;
+
+	@BeforeAll
+	static void beforeAll() {
+		// Must be set before the world cache is initialized.
+		System.setProperty("fabric.lookup.worldCache", "true");
+		SharedConstants.createGameVersion();
+		Bootstrap.initialize();
+
+		lookup = BlockApiLookup.get(Identifier.of("fabric", "world_cache_test"), String.class, Void.class);
+		lookup.registerForBlocks((world, pos, state, blockEntity, context) -> {
+			PROVIDER_CALLS.incrementAndGet();
+			return blockEntity != null ? "block_entity" : "stone";
+		}, Blocks.STONE);
+		lookup.registerForBlocks((world, pos, state, blockEntity, context) -> "dirt", Blocks.DIRT);
+	}
+
+	@BeforeEach
+	void setUp() {
+		PROVIDER_CALLS.set(0);
+		registeredCaches = new ArrayList<>();
+
+		server = mock(MinecraftServer.class);
+		when(server.isOnThread()).thenReturn(true);
+
+		world = mock(ServerWorld.class);
+		when(world.getServer()).thenReturn(server);
+		when(world.getBlockState(POS)).thenReturn(Blocks.STONE.getDefaultState());
+		when(((ServerWorldCache) world).fabric_getWorldApiCache()).thenReturn(new WorldBlockApiCache(world));
+
+		// Stand-in for the invalidation bookkeeping of the ServerWorld mixin.
+		doAnswer(invocation -> registeredCaches.add(invocation.getArgument(1))).when((ServerWorldCache) world).fabric_registerCache(any(), any());
+		doAnswer(invocation -> {
+			registeredCaches.stream().filter(cache -> cache.getPos().equals(invocation.getArgument(0))).forEach(BlockApiCacheImpl::invalidate);
+			return null;
+		}).when((ServerWorldCache) world).fabric_invalidateCache(any());
+	}
+
+	@Test
+	void repeatedQueriesReuseCache() {
+		long hits = WorldBlockApiCache.getHits();
+		long misses = WorldBlockApiCache.getMisses();
+
+		assertEquals("stone", lookup.find(world, POS, null, null, null));
+		assertEquals("stone", lookup.find(world, POS, null, null, null));
+
+		// The block entity is cached, but the provider is queried every time.
+		verify(world, times(1)).getBlockEntity(POS);
+		assertEquals(2, PROVIDER_CALLS.get());
+		assertEquals(1, registeredCaches.size());
+		assertEquals(hits + 1, WorldBlockApiCache.getHits());
+		assertEquals(misses + 1, WorldBlockApiCache.getMisses());
+	}
+
+	@Test
+	void blockEntityLoadInvalidatesCache() {
+		assertEquals("stone", lookup.find(world, POS, null, null, null));
+
+		BlockEntity blockEntity = mock(BlockEntity.class);
+		when(blockEntity.getPos()).thenReturn(POS);
+		when(blockEntity.getCachedState()).thenReturn(Blocks.STONE.getDefaultState());
+		when(world.getBlockEntity(POS)).thenReturn(blockEntity);
+		ServerBlockEntityEvents.BLOCK_ENTITY_LOAD.invoker().onLoad(blockEntity, world);
+
+		assertEquals("block_entity", lookup.find(world, POS, null, null, null));
+		verify(world, times(2)).getBlockEntity(POS);
+	}
+
+	@Test
+	void changedStateQueriesProviderAgain() {
+		assertEquals("stone", lookup.find(world, POS, Blocks.STONE.getDefaultState(), null, null));
+		assertEquals("dirt", lookup.find(world, POS, Blocks.DIRT.getDefaultState(), null, null));
+		assertEquals(1, registeredCaches.size());
+	}
+
+	@Test
+	void queriesOffServerThreadAreNotCached() {
+		when(server.isOnThread()).thenReturn(false);
+
+		assertEquals("stone", lookup.find(world, POS, null, null, null));
+		verify((ServerWorldCache) world, never()).fabric_getWorldApiCache();
+	}
+}
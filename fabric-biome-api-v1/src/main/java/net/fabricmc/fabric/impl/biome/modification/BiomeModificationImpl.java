@@ -19,15 +19,20 @@ package net.fabricmc.fabric.impl.biome.modification;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Suppliers;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import org.jetbrains.annotations.TestOnly;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,9 +42,13 @@ import net.minecraft.registry.Registry;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.RegistryKeys;
 import net.minecraft.registry.SimpleRegistry;
+import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.registry.entry.RegistryEntryInfo;
 import net.minecraft.util.Identifier;
 import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.GenerationSettings;
+import net.minecraft.world.dimension.DimensionOptions;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
 import net.minecraft.world.gen.feature.util.PlacedFeatureIndexer;
 
 import net.fabricmc.fabric.api.biome.v1.BiomeModificationContext;
@@ -48,6 +57,9 @@ import net.fabricmc.fabric.api.biome.v1.ModificationPhase;
 
 public class BiomeModificationImpl {
 	private static final Logger LOGGER = LoggerFactory.getLogger(BiomeModificationImpl.class);
+	// Modifiers may be applied to different biomes at the same time, which requires them to be thread safe.
+	private static final boolean PARALLEL = Boolean.getBoolean("fabric.biome.parallelModification");
+	private static final int SLOWEST_MODIFIERS_LOGGED = 10;
 
 	private static final Comparator<ModifierRecord> MODIFIER_ORDER_COMPARATOR = Comparator.<ModifierRecord>comparingInt(r -> r.phase.ordinal()).thenComparingInt(r -> r.order).thenComparing(r -> r.id);
 
@@ -124,66 +136,127 @@ public class BiomeModificationImpl {
 				.toList();
 
 		List<ModifierRecord> sortedModifiers = getSortedModifiers();
+		Map<RegistryKey<DimensionOptions>, Set<Biome>> dimensionBiomes = BiomeSelectionContextImpl.indexDimensionBiomes(impl);
+
+		for (ModifierRecord modifier : sortedModifiers) {
+			modifier.resetTimings();
+		}
+
+		// Each biome is modified by its own context, modifiers are still applied in order within a biome.
+		List<BiomeResult> results = (PARALLEL ? keys.parallelStream() : keys.stream())
+				.map(key -> modifyBiome(impl, key, biomes.getValueOrThrow(key), sortedModifiers, dimensionBiomes))
+				.toList();
 
 		int biomesChanged = 0;
-		int biomesProcessed = 0;
 		int modifiersApplied = 0;
+		Set<Biome> featuresChanged = new ReferenceOpenHashSet<>();
+
+		for (BiomeResult result : results) {
+			if (result.modifiersApplied() == 0) {
+				continue;
+			}
+
+			biomesChanged++;
+			modifiersApplied += result.modifiersApplied();
+
+			if (result.rebuildFeatures()) {
+				featuresChanged.add(biomes.getValueOrThrow(result.key()));
+			}
 
-		for (RegistryKey<Biome> key : keys) {
-			Biome biome = biomes.getValueOrThrow(key);
+			if (biomes instanceof SimpleRegistry<Biome> registry) {
+				RegistryEntryInfo info = registry.keyToEntryInfo.get(result.key());
+				RegistryEntryInfo newInfo = new RegistryEntryInfo(Optional.empty(), info.lifecycle());
+				registry.keyToEntryInfo.put(result.key(), newInfo);
+			}
+		}
 
-			biomesProcessed++;
+		if (!featuresChanged.isEmpty()) {
+			rebuildFeatureIndexes(impl, featuresChanged);
+		}
 
-			// Make a copy of the biome to allow selection contexts to see it unmodified,
-			// But do so only once it's known anything wants to modify the biome at all
-			BiomeSelectionContext context = new BiomeSelectionContextImpl(impl, key, biome);
-			BiomeModificationContextImpl modificationContext = null;
+		if (!keys.isEmpty()) {
+			LOGGER.info("Applied {} biome modifications to {} of {} new biomes in {}{}", modifiersApplied, biomesChanged,
+					keys.size(), sw, PARALLEL ? " (parallel)" : "");
+			logSlowestModifiers(sortedModifiers);
+		}
+	}
 
-			for (ModifierRecord modifier : sortedModifiers) {
-				if (modifier.selector.test(context)) {
-					LOGGER.trace("Applying modifier {} to {}", modifier, key.getValue());
+	private static BiomeResult modifyBiome(DynamicRegistryManager impl, RegistryKey<Biome> key, Biome biome, List<ModifierRecord> sortedModifiers, Map<RegistryKey<DimensionOptions>, Set<Biome>> dimensionBiomes) {
+		// Make a copy of the biome to allow selection contexts to see it unmodified,
+		// But do so only once it's known anything wants to modify the biome at all
+		BiomeSelectionContext context = new BiomeSelectionContextImpl(impl, key, biome, dimensionBiomes);
+		BiomeModificationContextImpl modificationContext = null;
+		int modifiersApplied = 0;
 
-					// Create the copy only if at least one modifier applies, since it's pretty costly
-					if (modificationContext == null) {
-						biomesChanged++;
-						modificationContext = new BiomeModificationContextImpl(impl, biome);
-					}
+		for (ModifierRecord modifier : sortedModifiers) {
+			long start = System.nanoTime();
 
-					modifier.apply(context, modificationContext);
-					modifiersApplied++;
-				}
-			}
+			if (modifier.selector.test(context)) {
+				LOGGER.trace("Applying modifier {} to {}", modifier, key.getValue());
 
-			// Re-freeze and apply certain cleanup actions
-			if (modificationContext != null) {
-				modificationContext.freeze();
-
-				if (modificationContext.shouldRebuildFeatures()) {
-					impl.getOrThrow(RegistryKeys.DIMENSION).stream().forEach(dimensionOptions -> {
-						dimensionOptions.chunkGenerator().indexedFeaturesListSupplier = Suppliers.memoize(
-							() -> PlacedFeatureIndexer.collectIndexedFeatures(
-									List.copyOf(dimensionOptions.chunkGenerator().getBiomeSource().getBiomes()),
-									biomeEntry -> dimensionOptions.chunkGenerator().getGenerationSettings(biomeEntry).getFeatures(),
-									true
-							)
-						);
-					});
+				// Create the copy only if at least one modifier applies, since it's pretty costly
+				if (modificationContext == null) {
+					modificationContext = new BiomeModificationContextImpl(impl, biome);
 				}
 
-				if (biomes instanceof SimpleRegistry<Biome> registry) {
-					RegistryEntryInfo info = registry.keyToEntryInfo.get(key);
-					RegistryEntryInfo newInfo = new RegistryEntryInfo(Optional.empty(), info.lifecycle());
-					registry.keyToEntryInfo.put(key, newInfo);
-				}
+				modifier.apply(context, modificationContext);
+				modifiersApplied++;
 			}
+
+			modifier.nanos.add(System.nanoTime() - start);
+		}
+
+		// Re-freeze and apply certain cleanup actions
+		if (modificationContext != null) {
+			modificationContext.freeze();
+			return new BiomeResult(key, modifiersApplied, modificationContext.shouldRebuildFeatures());
 		}
 
-		if (biomesProcessed > 0) {
-			LOGGER.info("Applied {} biome modifications to {} of {} new biomes in {}", modifiersApplied, biomesChanged,
-					biomesProcessed, sw);
+		return new BiomeResult(key, 0, false);
+	}
+
+	/**
+	 * Replaces the feature index of the dimensions that can generate a biome whose features changed.
+	 * The index orders features across all biomes of a dimension, so it can't be updated for a single biome,
+	 * but dimensions generating the same biomes share the same index instead of each building their own.
+	 */
+	private static void rebuildFeatureIndexes(DynamicRegistryManager impl, Set<Biome> featuresChanged) {
+		// Keyed by the generation settings of each biome of a dimension, in order.
+		Map<List<GenerationSettings>, List<PlacedFeatureIndexer.IndexedFeatures>> indexes = new ConcurrentHashMap<>();
+
+		impl.getOrThrow(RegistryKeys.DIMENSION).stream().forEach(dimensionOptions -> {
+			ChunkGenerator chunkGenerator = dimensionOptions.chunkGenerator();
+
+			if (chunkGenerator.getBiomeSource().getBiomes().stream().noneMatch(entry -> featuresChanged.contains(entry.value()))) {
+				return;
+			}
+
+			chunkGenerator.indexedFeaturesListSupplier = Suppliers.memoize(() -> {
+				List<RegistryEntry<Biome>> biomes = List.copyOf(chunkGenerator.getBiomeSource().getBiomes());
+				List<GenerationSettings> generationSettings = biomes.stream().map(chunkGenerator::getGenerationSettings).toList();
+
+				return indexes.computeIfAbsent(generationSettings, key -> PlacedFeatureIndexer.collectIndexedFeatures(
+						biomes,
+						biomeEntry -> chunkGenerator.getGenerationSettings(biomeEntry).getFeatures(),
+						true
+				));
+			});
+		});
+	}
+
+	private static void logSlowestModifiers(List<ModifierRecord> modifiers) {
+		if (!LOGGER.isDebugEnabled()) {
+			return;
 		}
+
+		modifiers.stream()
+				.sorted(Comparator.comparingLong((ModifierRecord r) -> r.nanos.sum()).reversed())
+				.limit(SLOWEST_MODIFIERS_LOGGED)
+				.forEach(r -> LOGGER.debug("Biome modifier {} ({}) took {} ms", r.id, r.phase, String.format(Locale.ROOT, "%.2f", r.nanos.sum() / 1e6)));
 	}
 
+	private record BiomeResult(RegistryKey<Biome> key, int modifiersApplied, boolean rebuildFeatures) { }
+
 	private static class ModifierRecord {
 		private final ModificationPhase phase;
 
@@ -195,6 +268,9 @@ public class BiomeModificationImpl {
 
 		private final Consumer<BiomeModificationContext> modifier;
 
+		// Time spent selecting and applying this modifier during the last modification of the biomes
+		private final LongAdder nanos = new LongAdder();
+
 		// Whenever this is modified, the modifiers need to be resorted
 		private int order;
 
@@ -234,5 +310,9 @@ public class BiomeModificationImpl {
 		public void setOrder(int order) {
 			this.order = order;
 		}
+
+		void resetTimings() {
+			nanos.reset();
+		}
 	}
 }
@@ -16,7 +16,12 @@
 
 package net.fabricmc.fabric.impl.biome.modification;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
 import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.registry.Registry;
@@ -37,12 +42,39 @@ public class BiomeSelectionContextImpl implements BiomeSelectionContext {
 	private final RegistryKey<Biome> key;
 	private final Biome biome;
 	private final RegistryEntry<Biome> entry;
+	private final Map<RegistryKey<DimensionOptions>, Set<Biome>> dimensionBiomes;
 
-	public BiomeSelectionContextImpl(DynamicRegistryManager dynamicRegistries, RegistryKey<Biome> key, Biome biome) {
+	/**
+	 * @param dimensionBiomes the biomes each dimension can generate, as returned by {@link #indexDimensionBiomes}
+	 */
+	public BiomeSelectionContextImpl(DynamicRegistryManager dynamicRegistries, RegistryKey<Biome> key, Biome biome, Map<RegistryKey<DimensionOptions>, Set<Biome>> dimensionBiomes) {
 		this.dynamicRegistries = dynamicRegistries;
 		this.key = key;
 		this.biome = biome;
 		this.entry = dynamicRegistries.getOrThrow(RegistryKeys.BIOME).getOrThrow(this.key);
+		this.dimensionBiomes = dimensionBiomes;
+	}
+
+	/**
+	 * Collects the biomes that can generate in each dimension, so that {@link #canGenerateIn} does not have to
+	 * go through every biome of the dimension for each biome being selected.
+	 */
+	public static Map<RegistryKey<DimensionOptions>, Set<Biome>> indexDimensionBiomes(DynamicRegistryManager dynamicRegistries) {
+		Registry<DimensionOptions> dimensions = dynamicRegistries.getOrThrow(RegistryKeys.DIMENSION);
+		Map<RegistryKey<DimensionOptions>, Set<Biome>> index = new HashMap<>();
+
+		for (Map.Entry<RegistryKey<DimensionOptions>, DimensionOptions> dimension : dimensions.getEntrySet()) {
+			// Biomes are compared by identity, like the biome source does.
+			Set<Biome> biomes = new ReferenceOpenHashSet<>();
+
+			for (RegistryEntry<Biome> biomeEntry : dimension.getValue().chunkGenerator().getBiomeSource().getBiomes()) {
+				biomes.add(biomeEntry.value());
+			}
+
+			index.put(dimension.getKey(), biomes);
+		}
+
+		return index;
 	}
 
 	@Override
@@ -91,18 +123,12 @@ public class BiomeSelectionContextImpl implements BiomeSelectionContext {
 
 	@Override
 	public boolean canGenerateIn(RegistryKey<DimensionOptions> dimensionKey) {
-		DimensionOptions dimension = dynamicRegistries.getOrThrow(RegistryKeys.DIMENSION).get(dimensionKey);
-
-		if (dimension == null) {
-			return false;
-		}
-
-		return dimension.chunkGenerator().getBiomeSource().getBiomes().stream().anyMatch(entry -> entry.value() == biome);
+		Set<Biome> biomes = dimensionBiomes.get(dimensionKey);
+		return biomes != null && biomes.contains(biome);
 	}
 
 	@Override
 	public boolean hasTag(TagKey<Biome> tag) {
-		Registry<Biome> biomeRegistry = dynamicRegistries.getOrThrow(RegistryKeys.BIOME);
-		return biomeRegistry.getOrThrow(getBiomeKey()).isIn(tag);
+		return entry.isIn(tag);
 	}
 }
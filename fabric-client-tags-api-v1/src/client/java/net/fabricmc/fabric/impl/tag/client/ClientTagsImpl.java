@@ -16,12 +16,11 @@
 
 package net.fabricmc.fabric.impl.tag.client;
 
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.registry.Registries;
@@ -30,52 +29,24 @@ import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.registry.tag.TagKey;
 
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+
 public class ClientTagsImpl {
 	private static final Map<TagKey<?>, ClientTagsLoader.LoadedTag> LOCAL_TAG_HIERARCHY = new ConcurrentHashMap<>();
-
-	public static <T> boolean isInWithLocalFallback(TagKey<T> tagKey, RegistryEntry<T> registryEntry) {
-		return isInWithLocalFallback(tagKey, registryEntry, new HashSet<>());
+	private static final Map<TagKey<?>, FlattenedLocalTag> FLATTENED_LOCAL_TAGS = new ConcurrentHashMap<>();
+	/**
+	 * Incremented whenever tags are loaded, as the synced tags may have changed without the registry instance changing.
+	 */
+	private static final AtomicInteger TAG_GENERATION = new AtomicInteger();
+
+	static {
+		CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> TAG_GENERATION.incrementAndGet());
 	}
 
-	@SuppressWarnings("unchecked")
-	private static <T> boolean isInWithLocalFallback(TagKey<T> tagKey, RegistryEntry<T> registryEntry, Set<TagKey<T>> checked) {
-		if (checked.contains(tagKey)) {
-			return false;
-		}
-
-		checked.add(tagKey);
-
-		// Check if the tag exists in the dynamic registry first
-		Optional<? extends Registry<T>> maybeRegistry = ClientTagsImpl.getRegistry(tagKey);
-
-		if (maybeRegistry.isPresent()) {
-			// Check the synced tag exists and use that
-			if (maybeRegistry.get().getOptional(tagKey).isPresent()) {
-				return registryEntry.isIn(tagKey);
-			}
-		}
-
-		if (registryEntry.getKey().isEmpty()) {
-			// No key?
-			return false;
-		}
-
-		// Recursively search the entries contained with the tag
-		ClientTagsLoader.LoadedTag wt = ClientTagsImpl.getOrCreatePartiallySyncedTag(tagKey);
-
-		if (wt.immediateChildIds().contains(registryEntry.getKey().get().getValue())) {
-			return true;
-		}
-
-		for (TagKey<?> key : wt.immediateChildTags()) {
-			if (isInWithLocalFallback((TagKey<T>) key, registryEntry, checked)) {
-				return true;
-			}
-
-			checked.add((TagKey<T>) key);
-		}
-
-		return false;
+	public static <T> boolean isInWithLocalFallback(TagKey<T> tagKey, RegistryEntry<T> registryEntry) {
+		// Check if the tag exists in the dynamic registry first, then the flattened local tags
+		Registry<T> registry = ClientTagsImpl.getRegistry(tagKey).orElse(null);
+		return FLATTENED_LOCAL_TAGS.computeIfAbsent(tagKey, FlattenedLocalTag::create).contains(registry, registryEntry, TAG_GENERATION.get());
 	}
 
 	@SuppressWarnings("unchecked")
@@ -18,12 +18,19 @@ package net.fabricmc.fabric.impl.tag.client;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
@@ -52,7 +59,7 @@ public class ClientTagsLoader {
 	 */
 	public static LoadedTag loadTag(TagKey<?> tagKey) {
 		var tags = new HashSet<TagEntry>();
-		HashSet<Path> tagFiles = getTagFiles(tagKey.registryRef(), tagKey.id());
+		List<Path> tagFiles = getTagFiles(tagKey.registryRef(), tagKey.id());
 
 		for (Path tagPath : tagFiles) {
 			try (BufferedReader tagReader = Files.newBufferedReader(tagPath)) {
@@ -110,28 +117,62 @@ public class ClientTagsLoader {
 	 * @param identifier  the Identifier of the tag
 	 * @return the paths to all tag json files within the available mods
 	 */
-	private static HashSet<Path> getTagFiles(RegistryKey<? extends Registry<?>> registryKey, Identifier identifier) {
+	private static List<Path> getTagFiles(RegistryKey<? extends Registry<?>> registryKey, Identifier identifier) {
 		return getTagFiles(RegistryKeys.getTagPath(registryKey), identifier);
 	}
 
 	/**
 	 * @return the paths to all tag json files within the available mods
 	 */
-	private static HashSet<Path> getTagFiles(String tagType, Identifier identifier) {
+	private static List<Path> getTagFiles(String tagType, Identifier identifier) {
 		String tagFile = "data/%s/%s/%s.json".formatted(identifier.getNamespace(), tagType, identifier.getPath());
-		return getResourcePaths(tagFile);
+		return TagFileIndex.INDEX.getOrDefault(tagFile, List.of());
 	}
 
 	/**
-	 * @return all paths from the available mods that match the given internal path
+	 * The tag files of all the available mods, by internal path, indexed once on first use
+	 * instead of looking up every tag in every mod.
 	 */
-	private static HashSet<Path> getResourcePaths(String path) {
-		HashSet<Path> out = new HashSet<>();
+	private static final class TagFileIndex {
+		private static final Map<String, List<Path>> INDEX = createIndex();
 
-		for (ModContainer mod : FabricLoader.getInstance().getAllMods()) {
-			mod.findPath(path).ifPresent(out::add);
+		private static Map<String, List<Path>> createIndex() {
+			Map<String, List<Path>> index = new HashMap<>();
+
+			for (ModContainer mod : FabricLoader.getInstance().getAllMods()) {
+				// Like ModContainer#findPath, only the first root path containing a file is used.
+				Map<String, Path> modFiles = new HashMap<>();
+
+				for (Path rootPath : mod.getRootPaths()) {
+					indexTagFiles(rootPath, modFiles);
+				}
+
+				modFiles.forEach((path, file) -> index.computeIfAbsent(path, p -> new ArrayList<>(1)).add(file));
+			}
+
+			return index;
 		}
 
-		return out;
+		private static void indexTagFiles(Path rootPath, Map<String, Path> modFiles) {
+			Path dataPath = rootPath.resolve("data");
+
+			if (!Files.isDirectory(dataPath)) {
+				return;
+			}
+
+			try (Stream<Path> namespaces = Files.list(dataPath)) {
+				for (Path tagsPath : namespaces.map(namespace -> namespace.resolve("tags")).filter(Files::isDirectory).toList()) {
+					try (Stream<Path> files = Files.walk(tagsPath)) {
+						files.filter(file -> file.getFileName().toString().endsWith(".json") && Files.isRegularFile(file)).forEach(file -> {
+							StringJoiner joiner = new StringJoiner("/");
+							rootPath.relativize(file).forEach(name -> joiner.add(name.toString()));
+							modFiles.putIfAbsent(joiner.toString(), file);
+						});
+					}
+				}
+			} catch (IOException | UncheckedIOException e) {
+				LOGGER.error("Error indexing tags in " + rootPath, e);
+			}
+		}
 	}
 }
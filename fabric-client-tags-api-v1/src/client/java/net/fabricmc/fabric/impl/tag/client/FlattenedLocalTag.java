@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.tag.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.Identifier;
+
+/**
+ * A local tag flattened with all the tags it contains, to check membership without walking the tag hierarchy.
+ *
+ * <p>Synced tags take precedence over local ones at any depth of the hierarchy, so the flattened entries depend on
+ * which of the contained tags are synced. They are resolved for the current registry, and only resolved again when
+ * the registry changes or tags are loaded. Entries are stored as {@link RegistryKey}s, which are interned.
+ */
+final class FlattenedLocalTag {
+	/** This tag, followed by all the tags it contains directly or indirectly. */
+	private final TagKey<?>[] tags;
+	private final int[][] childTags;
+	private final Set<RegistryKey<?>>[] childEntries;
+	@Nullable
+	private volatile Resolution resolution;
+
+	private FlattenedLocalTag(TagKey<?>[] tags, int[][] childTags, Set<RegistryKey<?>>[] childEntries) {
+		this.tags = tags;
+		this.childTags = childTags;
+		this.childEntries = childEntries;
+	}
+
+	@SuppressWarnings("unchecked")
+	static FlattenedLocalTag create(TagKey<?> tagKey) {
+		final List<TagKey<?>> tags = new ArrayList<>();
+		final List<int[]> childTags = new ArrayList<>();
+		final List<Set<RegistryKey<?>>> childEntries = new ArrayList<>();
+		final Object2IntMap<TagKey<?>> indices = new Object2IntOpenHashMap<>();
+		indices.defaultReturnValue(-1);
+		tags.add(tagKey);
+		indices.put(tagKey, 0);
+
+		for (int i = 0; i < tags.size(); i++) {
+			final TagKey<?> tag = tags.get(i);
+			final ClientTagsLoader.LoadedTag loadedTag = ClientTagsImpl.getOrCreatePartiallySyncedTag(tag);
+			final IntArrayList children = new IntArrayList();
+			final Set<RegistryKey<?>> entries = new ReferenceOpenHashSet<>();
+
+			for (TagKey<?> child : loadedTag.immediateChildTags()) {
+				int index = indices.getInt(child);
+
+				if (index == -1) {
+					index = tags.size();
+					tags.add(child);
+					indices.put(child, index);
+				}
+
+				children.add(index);
+			}
+
+			for (Identifier id : loadedTag.immediateChildIds()) {
+				entries.add(RegistryKey.of(tag.registryRef(), id));
+			}
+
+			childTags.add(children.toIntArray());
+			childEntries.add(entries);
+		}
+
+		return new FlattenedLocalTag(tags.toArray(TagKey<?>[]::new), childTags.toArray(int[][]::new), childEntries.toArray(Set[]::new));
+	}
+
+	@SuppressWarnings("unchecked")
+	<T> boolean contains(@Nullable Registry<T> registry, RegistryEntry<T> entry, int tagGeneration) {
+		final Resolution resolution = resolve(registry, tagGeneration);
+		final RegistryKey<T> key = entry.getKey().orElse(null);
+
+		// Entries without a key can only be checked with the synced tags.
+		if (key != null && resolution.entries.contains(key)) {
+			return true;
+		}
+
+		for (TagKey<?> syncedTag : resolution.syncedTags) {
+			if (entry.isIn((TagKey<T>) syncedTag)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private Resolution resolve(@Nullable Registry<?> registry, int tagGeneration) {
+		Resolution resolution = this.resolution;
+
+		if (resolution == null || resolution.registry != registry || resolution.tagGeneration != tagGeneration) {
+			resolution = createResolution(registry, tagGeneration);
+			this.resolution = resolution;
+		}
+
+		return resolution;
+	}
+
+	/**
+	 * Walks the tags through the local ones, collecting their entries and the synced tags they contain.
+	 */
+	private Resolution createResolution(@Nullable Registry<?> registry, int tagGeneration) {
+		final Set<RegistryKey<?>> entries = new ReferenceOpenHashSet<>();
+		final List<TagKey<?>> syncedTags = new ArrayList<>();
+		final boolean[] visited = new boolean[tags.length];
+		final IntArrayList stack = IntArrayList.of(0);
+		visited[0] = true;
+
+		while (!stack.isEmpty()) {
+			final int index = stack.popInt();
+
+			if (isSynced(registry, tags[index])) {
+				syncedTags.add(tags[index]);
+				continue;
+			}
+
+			entries.addAll(childEntries[index]);
+
+			for (int child : childTags[index]) {
+				if (!visited[child]) {
+					visited[child] = true;
+					stack.push(child);
+				}
+			}
+		}
+
+		return new Resolution(registry, tagGeneration, entries, syncedTags.toArray(TagKey<?>[]::new));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static boolean isSynced(@Nullable Registry<?> registry, TagKey<?> tag) {
+		return registry != null && ((Registry<Object>) registry).getOptional((TagKey<Object>) tag).isPresent();
+	}
+
+	private record Resolution(@Nullable Registry<?> registry, int tagGeneration, Set<RegistryKey<?>> entries, TagKey<?>[] syncedTags) { }
+}
@@ -19,8 +19,12 @@ package net.fabricmc.fabric.test.tag.client.v1;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.tag.BlockTags;
 import net.minecraft.registry.tag.TagKey;
 import net.minecraft.util.Identifier;
 import net.minecraft.world.biome.BiomeKeys;
@@ -40,6 +44,12 @@ import net.fabricmc.loader.api.ModContainer;
 public class ClientTagTest implements ClientModInitializer {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ClientTagTest.class);
 	private static final String MODID = "fabric-clients-tags-api-v1-testmod";
+	// Contains local_middle, which contains the synced minecraft:sword_efficient. Both local tags reference a missing
+	// block, so the server fails to load them and only the client has them.
+	private static final TagKey<Block> LOCAL_ROOT = TagKey.of(RegistryKeys.BLOCK, Identifier.of(MODID, "local_root"));
+	private static final TagKey<Block> LOCAL_MIDDLE = TagKey.of(RegistryKeys.BLOCK, Identifier.of(MODID, "local_middle"));
+
+	private boolean checkedSyncedTags = false;
 
 	@Override
 	public void onInitializeClient() {
@@ -72,10 +82,49 @@ public class ClientTagTest implements ClientModInitializer {
 				throw new AssertionError("Expected not to find dirt in fabric:sword_efficient, but it was found!");
 			}
 
+			// No tags are synced yet, the local minecraft:sword_efficient does not contain dirt.
+			if (ClientTags.isInWithLocalFallback(LOCAL_ROOT, Blocks.DIRT)) {
+				throw new AssertionError("Expected not to find dirt in the local root tag, but it was found!");
+			}
+
+			if (!ClientTags.isInWithLocalFallback(LOCAL_ROOT, Blocks.BAMBOO)) {
+				throw new AssertionError("Expected to find bamboo in the local root tag, but it was not found!");
+			}
+
 			// Success!
 			LOGGER.info("The tests for client tags passed!");
 		});
 
+		// The builtin test2 pack adds dirt to minecraft:sword_efficient on the server, but not in the local tag files.
+		// The static block registry is the same before and after the tags are synced, so this checks that resolving
+		// the flattened local tags again once tags are loaded picks the synced tag two levels down.
+		ClientTickEvents.END_WORLD_TICK.register(world -> {
+			if (checkedSyncedTags) {
+				return;
+			}
+
+			checkedSyncedTags = true;
+			Registry<Block> registry = world.getRegistryManager().getOrThrow(RegistryKeys.BLOCK);
+
+			if (registry.getOptional(LOCAL_ROOT).isPresent() || registry.getOptional(LOCAL_MIDDLE).isPresent()) {
+				throw new AssertionError("Expected the local tags not to be synced, but they were!");
+			}
+
+			if (!Blocks.DIRT.getDefaultState().isIn(BlockTags.SWORD_EFFICIENT)) {
+				throw new AssertionError("Expected to find dirt in the synced minecraft:sword_efficient, but it was not found!");
+			}
+
+			if (!ClientTags.isInWithLocalFallback(LOCAL_ROOT, Blocks.DIRT)) {
+				throw new AssertionError("Expected the synced minecraft:sword_efficient to take precedence in the local root tag, but dirt was not found!");
+			}
+
+			if (!ClientTags.isInWithLocalFallback(LOCAL_ROOT, Blocks.BAMBOO)) {
+				throw new AssertionError("Expected to find bamboo in the local root tag after syncing, but it was not found!");
+			}
+
+			LOGGER.info("The tests for synced client tags passed!");
+		});
+
 		if (true) return;
 
 		// This should be tested on a server with the datapack from the builtin resourcepack.
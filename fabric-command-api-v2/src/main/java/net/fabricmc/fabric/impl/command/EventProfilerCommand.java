@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.command;
+
+import static net.minecraft.server.command.CommandManager.argument;
+import static net.minecraft.server.command.CommandManager.literal;
+
+import java.util.List;
+import java.util.Locale;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+import net.fabricmc.fabric.api.event.EventProfiler;
+
+/**
+ * The {@code /fabric profile events} command, only registered when {@linkplain EventProfiler#isEnabled() event profiling} is enabled.
+ */
+public final class EventProfilerCommand {
+	private static final int DEFAULT_COUNT = 10;
+
+	private EventProfilerCommand() {
+	}
+
+	public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+		dispatcher.register(literal("fabric")
+				.requires(source -> source.hasPermissionLevel(4))
+				.then(literal("profile")
+						.then(literal("events")
+								.executes(context -> printProfiles(context.getSource(), DEFAULT_COUNT))
+								.then(argument("count", IntegerArgumentType.integer(1))
+										.executes(context -> printProfiles(context.getSource(), IntegerArgumentType.getInteger(context, "count"))))
+								.then(literal("reset")
+										.executes(context -> {
+											EventProfiler.reset();
+											context.getSource().sendFeedback(() -> Text.literal("Reset event listener timings"), true);
+											return 1;
+										})))));
+	}
+
+	private static int printProfiles(ServerCommandSource source, int count) {
+		List<EventProfiler.ListenerProfile> profiles = EventProfiler.getProfiles();
+		source.sendFeedback(() -> Text.literal("Top %d of %d event listeners by total time:".formatted(Math.min(count, profiles.size()), profiles.size())), false);
+
+		for (int i = 0; i < Math.min(count, profiles.size()); i++) {
+			EventProfiler.ListenerProfile profile = profiles.get(i);
+			String line = String.format(Locale.ROOT, "[%s] %s (%s): %d calls, %.2f ms total, %.2f us mean, %.2f us p99, %.2f us max",
+					profile.modId(), profile.listenerType().getSimpleName(), profile.phase(), profile.invocations(),
+					profile.totalNanos() / 1e6, profile.meanNanos() / 1e3, profile.percentileNanos(0.99) / 1e3, profile.maxNanos() / 1e3);
+			source.sendFeedback(() -> Text.literal(line), false);
+		}
+
+		return profiles.size();
+	}
+}
@@ -29,6 +29,8 @@ import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
 
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.EventProfiler;
+import net.fabricmc.fabric.impl.command.EventProfilerCommand;
 
 @Mixin(CommandManager.class)
 public abstract class CommandManagerMixin {
@@ -46,5 +48,9 @@ public abstract class CommandManagerMixin {
 	@Inject(at = @At(value = "INVOKE", target = "Lcom/mojang/brigadier/CommandDispatcher;setConsumer(Lcom/mojang/brigadier/ResultConsumer;)V", remap = false), method = "<init>")
 	private void fabric_addCommands(CommandManager.RegistrationEnvironment environment, CommandRegistryAccess registryAccess, CallbackInfo ci) {
 		CommandRegistrationCallback.EVENT.invoker().register(this.dispatcher, registryAccess, environment);
+
+		if (EventProfiler.isEnabled()) {
+			EventProfilerCommand.register(this.dispatcher);
+		}
 	}
 }
@@ -16,7 +16,9 @@
 
 package net.fabricmc.fabric.impl.attachment;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Supplier;
@@ -34,6 +36,10 @@ import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
 public final class AttachmentRegistryImpl {
 	private static final Logger LOGGER = LoggerFactory.getLogger("fabric-data-attachment-api-v1");
 	private static final Map<Identifier, AttachmentType<?>> attachmentRegistry = new HashMap<>();
+	/**
+	 * Every attachment type that was built, indexed by {@link AttachmentTypeImpl#index()}.
+	 */
+	private static final List<AttachmentType<?>> attachmentsByIndex = new ArrayList<>();
 
 	public static <A> void register(Identifier id, AttachmentType<A> attachmentType) {
 		AttachmentType<?> existing = attachmentRegistry.put(id, attachmentType);
@@ -48,6 +54,23 @@ public final class AttachmentRegistryImpl {
 		return attachmentRegistry.get(id);
 	}
 
+	/**
+	 * Returns the attachment type with the given dense index, used to iterate {@link AttachmentStorage}.
+	 */
+	public static AttachmentType<?> getByIndex(int index) {
+		synchronized (attachmentsByIndex) {
+			return attachmentsByIndex.get(index);
+		}
+	}
+
+	private static <A> AttachmentTypeImpl<A> create(Identifier id, @Nullable Supplier<A> initializer, @Nullable Codec<A> persistenceCodec, boolean copyOnDeath) {
+		synchronized (attachmentsByIndex) {
+			var attachment = new AttachmentTypeImpl<>(id, initializer, persistenceCodec, copyOnDeath, attachmentsByIndex.size());
+			attachmentsByIndex.add(attachment);
+			return attachment;
+		}
+	}
+
 	public static <A> AttachmentRegistry.Builder<A> builder() {
 		return new BuilderImpl<>();
 	}
@@ -83,7 +106,7 @@ public final class AttachmentRegistryImpl {
 
 		@Override
 		public AttachmentType<A> buildAndRegister(Identifier id) {
-			var attachment = new AttachmentTypeImpl<>(id, defaultInitializer, persistenceCodec, copyOnDeath);
+			var attachment = create(id, defaultInitializer, persistenceCodec, copyOnDeath);
 			register(id, attachment);
 			return attachment;
 		}
@@ -16,7 +16,6 @@
 
 package net.fabricmc.fabric.impl.attachment;
 
-import java.util.IdentityHashMap;
 import java.util.Map;
 
 import com.mojang.serialization.Codec;
@@ -38,7 +37,7 @@ public class AttachmentSerializingImpl {
 	private static final Logger LOGGER = LoggerFactory.getLogger("fabric-data-attachment-api-v1");
 
 	@SuppressWarnings("unchecked")
-	public static void serializeAttachmentData(NbtCompound nbt, RegistryWrapper.WrapperLookup wrapperLookup, @Nullable IdentityHashMap<AttachmentType<?>, ?> attachments) {
+	public static void serializeAttachmentData(NbtCompound nbt, RegistryWrapper.WrapperLookup wrapperLookup, @Nullable Map<AttachmentType<?>, ?> attachments) {
 		if (attachments == null || attachments.isEmpty()) {
 			return;
 		}
@@ -50,6 +49,14 @@ public class AttachmentSerializingImpl {
 			Codec<Object> codec = (Codec<Object>) type.persistenceCodec();
 
 			if (codec != null) {
+				NbtElement undecoded = attachments instanceof AttachmentStorage storage ? storage.getUndecoded(type) : null;
+
+				if (undecoded != null) {
+					// Never read since it was loaded, write it back as is.
+					compound.put(type.identifier().toString(), undecoded.copy());
+					continue;
+				}
+
 				RegistryOps<NbtElement> registryOps = wrapperLookup.getOps(NbtOps.INSTANCE);
 				codec.encodeStart(registryOps, entry.getValue())
 						.ifError(partial -> {
@@ -64,9 +71,9 @@ public class AttachmentSerializingImpl {
 	}
 
 	@Nullable
-	public static IdentityHashMap<AttachmentType<?>, Object> deserializeAttachmentData(NbtCompound nbt, RegistryWrapper.WrapperLookup wrapperLookup) {
+	public static AttachmentStorage deserializeAttachmentData(NbtCompound nbt, RegistryWrapper.WrapperLookup wrapperLookup) {
 		if (nbt.contains(AttachmentTarget.NBT_ATTACHMENT_KEY, NbtElement.COMPOUND_TYPE)) {
-			var attachments = new IdentityHashMap<AttachmentType<?>, Object>();
+			var attachments = new AttachmentStorage();
 			NbtCompound compound = nbt.getCompound(AttachmentTarget.NBT_ATTACHMENT_KEY);
 
 			for (String key : compound.getKeys()) {
@@ -77,18 +84,9 @@ public class AttachmentSerializingImpl {
 					continue;
 				}
 
-				Codec<?> codec = type.persistenceCodec();
-
-				if (codec != null) {
-					RegistryOps<NbtElement> registryOps = wrapperLookup.getOps(NbtOps.INSTANCE);
-					codec.parse(registryOps, compound.get(key))
-							.ifError(partial -> {
-								LOGGER.warn("Couldn't deserialize attachment " + type.identifier() + ", skipping. Error:");
-								LOGGER.warn(partial.message());
-							})
-							.ifSuccess(
-									deserialized -> attachments.put(type, deserialized)
-							);
+				if (type.persistenceCodec() != null) {
+					// Decoded on first access, see AttachmentStorage.
+					attachments.putUndecoded(type, compound.get(key), wrapperLookup);
 				}
 			}
 
@@ -102,7 +100,25 @@ public class AttachmentSerializingImpl {
 		return null;
 	}
 
-	public static boolean hasPersistentAttachments(@Nullable IdentityHashMap<AttachmentType<?>, ?> map) {
+	@Nullable
+	static Object decodeAttachment(AttachmentType<?> type, NbtElement nbt, RegistryWrapper.WrapperLookup wrapperLookup) {
+		Codec<?> codec = type.persistenceCodec();
+
+		if (codec == null) {
+			return null;
+		}
+
+		RegistryOps<NbtElement> registryOps = wrapperLookup.getOps(NbtOps.INSTANCE);
+		return codec.parse(registryOps, nbt)
+				.ifError(partial -> {
+					LOGGER.warn("Couldn't deserialize attachment " + type.identifier() + ", skipping. Error:");
+					LOGGER.warn(partial.message());
+				})
+				.result()
+				.orElse(null);
+	}
+
+	public static boolean hasPersistentAttachments(@Nullable Map<AttachmentType<?>, ?> map) {
 		if (map == null) {
 			return false;
 		}
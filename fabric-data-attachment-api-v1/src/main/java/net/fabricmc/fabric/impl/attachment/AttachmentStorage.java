@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.attachment;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.registry.RegistryWrapper;
+
+import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
+
+/**
+ * The attachments of a single target, stored in an array indexed by {@link AttachmentTypeImpl#index()}.
+ *
+ * <p>Looking up an attachment is a single array access, and the array only grows up to the highest index
+ * attached to the target, which is much smaller than an {@link java.util.IdentityHashMap} for the few attachments
+ * a target usually has. Null values are not permitted, a null slot means that the type is not attached.
+ *
+ * <p>Persistent attachments loaded from NBT are only decoded when they are first accessed. Until then, the slot holds
+ * the raw NBT, which is written back as is when the target is saved.
+ */
+public final class AttachmentStorage extends AbstractMap<AttachmentType<?>, Object> {
+	private static final Object[] EMPTY = new Object[0];
+	private static final int GROWTH_STEP = 4;
+
+	private Object[] values = EMPTY;
+	private int size = 0;
+	private int modCount = 0;
+	@Nullable
+	private Set<Entry<AttachmentType<?>, Object>> entrySet = null;
+
+	private static int indexOf(Object key) {
+		return key instanceof AttachmentTypeImpl<?> type ? type.index() : -1;
+	}
+
+	@Override
+	@Nullable
+	public Object get(Object key) {
+		int index = indexOf(key);
+		return index >= 0 && index < values.length ? decode(index) : null;
+	}
+
+	/**
+	 * Stores the raw NBT of a persistent attachment, to be decoded on first access.
+	 */
+	public void putUndecoded(AttachmentType<?> type, NbtElement nbt, RegistryWrapper.WrapperLookup wrapperLookup) {
+		int index = ((AttachmentTypeImpl<?>) type).index();
+		ensureCapacity(index);
+
+		// Any previous value is replaced without being decoded.
+		if (values[index] == null) {
+			size++;
+			modCount++;
+		}
+
+		values[index] = new Undecoded(nbt, wrapperLookup);
+	}
+
+	/**
+	 * Transfers an attachment that was not accessed yet to another target, keeping it undecoded.
+	 *
+	 * @return {@code true} if the attachment was transferred, {@code false} if it was already decoded or is not attached
+	 */
+	boolean transferUndecoded(AttachmentType<?> type, AttachmentTargetImpl target) {
+		int index = indexOf(type);
+
+		if (index >= 0 && index < values.length && values[index] instanceof Undecoded undecoded) {
+			target.fabric_setAttachedUndecoded(type, undecoded.nbt().copy(), undecoded.wrapperLookup());
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return the raw NBT of the attachment if it was loaded and was not accessed since, {@code null} otherwise
+	 */
+	@Nullable
+	NbtElement getUndecoded(AttachmentType<?> type) {
+		int index = indexOf(type);
+		return index >= 0 && index < values.length && values[index] instanceof Undecoded undecoded ? undecoded.nbt() : null;
+	}
+
+	@Nullable
+	private Object decode(int index) {
+		Object value = values[index];
+
+		if (value instanceof Undecoded undecoded) {
+			value = AttachmentSerializingImpl.decodeAttachment(AttachmentRegistryImpl.getByIndex(index), undecoded.nbt(), undecoded.wrapperLookup());
+			values[index] = value;
+
+			if (value == null) {
+				// Invalid data is dropped, like it used to be when it was decoded on load.
+				size--;
+			}
+		}
+
+		return value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	@Nullable
+	public Object put(AttachmentType<?> key, Object value) {
+		Objects.requireNonNull(value, "value cannot be null");
+		int index = ((AttachmentTypeImpl<?>) key).index();
+		ensureCapacity(index);
+		Object previous = decode(index);
+		values[index] = value;
+
+		if (previous == null) {
+			size++;
+			modCount++;
+		}
+
+		return previous;
+	}
+
+	private void ensureCapacity(int index) {
+		if (index >= values.length) {
+			// Round up to limit the number of copies when several types are attached in a row.
+			values = Arrays.copyOf(values, (index / GROWTH_STEP + 1) * GROWTH_STEP);
+		}
+	}
+
+	@Override
+	@Nullable
+	public Object remove(Object key) {
+		int index = indexOf(key);
+
+		if (index < 0 || index >= values.length || values[index] == null) {
+			return null;
+		}
+
+		Object previous = decode(index);
+
+		if (previous == null) {
+			return null;
+		}
+
+		values[index] = null;
+		size--;
+		modCount++;
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		values = EMPTY;
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public Set<Entry<AttachmentType<?>, Object>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+		}
+
+		return entrySet;
+	}
+
+	private final class EntrySet extends AbstractSet<Entry<AttachmentType<?>, Object>> {
+		@Override
+		public Iterator<Entry<AttachmentType<?>, Object>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	private final class EntryIterator implements Iterator<Entry<AttachmentType<?>, Object>> {
+		private final int expectedModCount = modCount;
+		private int next = findNext(0);
+
+		private int findNext(int from) {
+			Object[] values = AttachmentStorage.this.values;
+
+			for (int i = from; i < values.length; i++) {
+				if (values[i] != null) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next >= 0;
+		}
+
+		@Override
+		public Entry<AttachmentType<?>, Object> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			if (next < 0) {
+				throw new NoSuchElementException();
+			}
+
+			int index = next;
+			next = findNext(index + 1);
+			return new StorageEntry(index);
+		}
+	}
+
+	/**
+	 * Entries only decode their value when it is requested, so that saving does not decode untouched attachments.
+	 */
+	private final class StorageEntry implements Entry<AttachmentType<?>, Object> {
+		private final int index;
+
+		private StorageEntry(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public AttachmentType<?> getKey() {
+			return AttachmentRegistryImpl.getByIndex(index);
+		}
+
+		@Override
+		@Nullable
+		public Object getValue() {
+			return index < values.length ? decode(index) : null;
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Entry<?, ?> entry && getKey().equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return getKey().hashCode() ^ Objects.hashCode(getValue());
+		}
+	}
+
+	private record Undecoded(NbtElement nbt, RegistryWrapper.WrapperLookup wrapperLookup) { }
+}
@@ -21,6 +21,7 @@ import java.util.Map;
 import org.jetbrains.annotations.Nullable;
 
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
 import net.minecraft.registry.RegistryWrapper;
 
 import net.fabricmc.fabric.api.attachment.v1.AttachmentTarget;
@@ -44,7 +45,12 @@ public interface AttachmentTargetImpl extends AttachmentTarget {
 		for (Map.Entry<AttachmentType<?>, ?> entry : attachments.entrySet()) {
 			AttachmentType<Object> type = (AttachmentType<Object>) entry.getKey();
 
-			if (!isDeath || type.copyOnDeath()) {
+			if (isDeath && !type.copyOnDeath()) {
+				continue;
+			}
+
+			// Attachments that were not accessed yet are transferred without decoding them.
+			if (!(attachments instanceof AttachmentStorage storage) || !storage.transferUndecoded(type, (AttachmentTargetImpl) target)) {
 				target.setAttached(type, entry.getValue());
 			}
 		}
@@ -55,6 +61,13 @@ public interface AttachmentTargetImpl extends AttachmentTarget {
 		throw new UnsupportedOperationException("Implemented via mixin");
 	}
 
+	/**
+	 * Attaches the raw NBT of a persistent attachment, to be decoded on first access.
+	 */
+	default void fabric_setAttachedUndecoded(AttachmentType<?> type, NbtElement nbt, RegistryWrapper.WrapperLookup wrapperLookup) {
+		throw new UnsupportedOperationException("Implemented via mixin");
+	}
+
 	default void fabric_writeAttachmentsToNbt(NbtCompound nbt, RegistryWrapper.WrapperLookup wrapperLookup) {
 		throw new UnsupportedOperationException("Implemented via mixin");
 	}
@@ -25,9 +25,14 @@ import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
 
+/**
+ * @param index a dense index unique to this attachment type, assigned by {@link AttachmentRegistryImpl}
+ *              and used to look up attachments in {@link AttachmentStorage}
+ */
 public record AttachmentTypeImpl<A>(
 		Identifier identifier,
 		@Nullable Supplier<A> initializer,
 		@Nullable Codec<A> persistenceCodec,
-		boolean copyOnDeath
+		boolean copyOnDeath,
+		int index
 ) implements AttachmentType<A> { }
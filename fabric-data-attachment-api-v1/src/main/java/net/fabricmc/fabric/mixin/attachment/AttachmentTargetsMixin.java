@@ -16,7 +16,6 @@
 
 package net.fabricmc.fabric.mixin.attachment;
 
-import java.util.IdentityHashMap;
 import java.util.Map;
 
 import org.jetbrains.annotations.Nullable;
@@ -25,6 +24,7 @@ import org.spongepowered.asm.mixin.Mixin;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.entity.Entity;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
 import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
@@ -33,12 +33,13 @@ import net.minecraft.world.chunk.ChunkStatus;
 import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
 import net.fabricmc.fabric.impl.attachment.AttachmentEntrypoint;
 import net.fabricmc.fabric.impl.attachment.AttachmentSerializingImpl;
+import net.fabricmc.fabric.impl.attachment.AttachmentStorage;
 import net.fabricmc.fabric.impl.attachment.AttachmentTargetImpl;
 
 @Mixin({BlockEntity.class, Entity.class, World.class, Chunk.class})
 abstract class AttachmentTargetsMixin implements AttachmentTargetImpl {
 	@Nullable
-	private IdentityHashMap<AttachmentType<?>, Object> fabric_dataAttachments = null;
+	private AttachmentStorage fabric_dataAttachments = null;
 
 	@SuppressWarnings("unchecked")
 	@Override
@@ -51,18 +52,7 @@ abstract class AttachmentTargetsMixin implements AttachmentTargetImpl {
 	@Override
 	@Nullable
 	public <T> T setAttached(AttachmentType<T> type, @Nullable T value) {
-		// Extremely inelegant, but the only alternative is separating out these two mixins and duplicating code
-		Object thisObject = this;
-
-		if (thisObject instanceof BlockEntity) {
-			((BlockEntity) thisObject).markDirty();
-		} else if (thisObject instanceof Chunk) {
-			((Chunk) thisObject).markNeedsSaving();
-
-			if (type.isPersistent() && ((Chunk) thisObject).getStatus().equals(ChunkStatus.EMPTY)) {
-				AttachmentEntrypoint.LOGGER.warn("Attaching persistent attachment {} to chunk with chunk status EMPTY. Attachment might be discarded.", type.identifier());
-			}
-		}
+		fabric_markAttachmentChanged(type);
 
 		if (value == null) {
 			if (fabric_dataAttachments == null) {
@@ -78,13 +68,39 @@ abstract class AttachmentTargetsMixin implements AttachmentTargetImpl {
 			return removed;
 		} else {
 			if (fabric_dataAttachments == null) {
-				fabric_dataAttachments = new IdentityHashMap<>();
+				fabric_dataAttachments = new AttachmentStorage();
 			}
 
 			return (T) fabric_dataAttachments.put(type, value);
 		}
 	}
 
+	@Override
+	public void fabric_setAttachedUndecoded(AttachmentType<?> type, NbtElement nbt, RegistryWrapper.WrapperLookup wrapperLookup) {
+		fabric_markAttachmentChanged(type);
+
+		if (fabric_dataAttachments == null) {
+			fabric_dataAttachments = new AttachmentStorage();
+		}
+
+		fabric_dataAttachments.putUndecoded(type, nbt, wrapperLookup);
+	}
+
+	private void fabric_markAttachmentChanged(AttachmentType<?> type) {
+		// Extremely inelegant, but the only alternative is separating out these two mixins and duplicating code
+		Object thisObject = this;
+
+		if (thisObject instanceof BlockEntity) {
+			((BlockEntity) thisObject).markDirty();
+		} else if (thisObject instanceof Chunk) {
+			((Chunk) thisObject).markNeedsSaving();
+
+			if (type.isPersistent() && ((Chunk) thisObject).getStatus().equals(ChunkStatus.EMPTY)) {
+				AttachmentEntrypoint.LOGGER.warn("Attaching persistent attachment {} to chunk with chunk status EMPTY. Attachment might be discarded.", type.identifier());
+			}
+		}
+	}
+
 	@Override
 	public boolean hasAttached(AttachmentType<?> type) {
 		return fabric_dataAttachments != null && fabric_dataAttachments.containsKey(type);
@@ -61,6 +61,7 @@ import net.fabricmc.fabric.api.attachment.v1.AttachmentTarget;
 import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
 import net.fabricmc.fabric.impl.attachment.AttachmentPersistentState;
 import net.fabricmc.fabric.impl.attachment.AttachmentSerializingImpl;
+import net.fabricmc.fabric.impl.attachment.AttachmentStorage;
 import net.fabricmc.fabric.impl.attachment.AttachmentTargetImpl;
 
 public class CommonAttachmentTests {
@@ -132,13 +133,32 @@ public class CommonAttachmentTests {
 		assertFalse(target.hasAttached(defaulted));
 	}
 
+	@Test
+	void testStorage() {
+		AttachmentType<String> first = AttachmentRegistry.create(Identifier.of(MOD_ID, "storage_first"));
+		AttachmentType<String> second = AttachmentRegistry.create(Identifier.of(MOD_ID, "storage_second"));
+		var storage = new AttachmentStorage();
+
+		assertNull(storage.put(second, "b"));
+		assertNull(storage.put(first, "a"));
+		assertEquals("b", storage.put(second, "c"));
+		assertEquals(2, storage.size());
+		assertEquals(Map.of(first, "a", second, "c"), Map.copyOf(storage));
+
+		assertEquals("a", storage.remove(first));
+		assertNull(storage.remove(first));
+		assertFalse(storage.containsKey(first));
+		assertEquals("c", storage.get(second));
+		assertEquals(1, storage.size());
+	}
+
 	@Test
 	void testStaticReadWrite() {
 		AttachmentType<Double> dummy = AttachmentRegistry.createPersistent(
 				Identifier.of(MOD_ID, "dummy"),
 				Codec.DOUBLE
 		);
-		var map = new IdentityHashMap<AttachmentType<?>, Object>();
+		Map<AttachmentType<?>, Object> map = new IdentityHashMap<>();
 		map.put(dummy, 0.5d);
 		var fakeSave = new NbtCompound();
 
@@ -155,6 +175,26 @@ public class CommonAttachmentTests {
 		assertEquals(0.5d, entry.getValue());
 	}
 
+	@Test
+	void testLazyDeserialization() {
+		var nbt = new NbtCompound();
+		var attachmentNbt = new NbtCompound();
+		// Not an integer, can only fail once decoded
+		attachmentNbt.putString(PERSISTENT.identifier().toString(), "invalid");
+		nbt.put(AttachmentTarget.NBT_ATTACHMENT_KEY, attachmentNbt);
+
+		Map<AttachmentType<?>, Object> map = AttachmentSerializingImpl.deserializeAttachmentData(nbt, mockDRM());
+		assertNotNull(map);
+		var fakeSave = new NbtCompound();
+		AttachmentSerializingImpl.serializeAttachmentData(fakeSave, mockDRM(), map);
+		// Untouched attachments are written back without being decoded
+		assertEquals(nbt, fakeSave);
+
+		// Invalid data is only dropped once accessed
+		assertFalse(map.containsKey(PERSISTENT));
+		assertTrue(map.isEmpty());
+	}
+
 	@Test
 	void deserializeNull() {
 		var nbt = new NbtCompound();
@@ -198,6 +238,46 @@ public class CommonAttachmentTests {
 		assertTrue(nonRespawnTarget.hasAttached(notCopiedOnRespawn));
 	}
 
+	@Test
+	void testLazyTransfer() {
+		AttachmentType<Integer> copiedOnRespawn = AttachmentRegistry.<Integer>builder()
+				.persistent(Codec.INT)
+				.copyOnDeath()
+				.buildAndRegister(Identifier.of(MOD_ID, "lazy_copied_on_respawn"));
+		var nbt = new NbtCompound();
+		var attachmentNbt = new NbtCompound();
+		// Not an integer, so decoding it would drop it
+		attachmentNbt.putString(PERSISTENT.identifier().toString(), "invalid");
+		attachmentNbt.putInt(copiedOnRespawn.identifier().toString(), 3);
+		nbt.put(AttachmentTarget.NBT_ATTACHMENT_KEY, attachmentNbt);
+
+		Entity original = mock(Entity.class, CALLS_REAL_METHODS);
+		((AttachmentTargetImpl) original).fabric_readAttachmentsFromNbt(nbt, mockDRM());
+		Entity target = mock(Entity.class, CALLS_REAL_METHODS);
+		AttachmentTargetImpl.transfer(original, target, false);
+
+		// Neither attachment was decoded, so both are written back as is
+		var originalSave = new NbtCompound();
+		var targetSave = new NbtCompound();
+		((AttachmentTargetImpl) original).fabric_writeAttachmentsToNbt(originalSave, mockDRM());
+		((AttachmentTargetImpl) target).fabric_writeAttachmentsToNbt(targetSave, mockDRM());
+		assertEquals(nbt, originalSave);
+		assertEquals(nbt, targetSave);
+
+		// Each target decodes its own copy when accessed
+		assertEquals(3, target.getAttached(copiedOnRespawn));
+		assertFalse(target.hasAttached(PERSISTENT));
+		originalSave = new NbtCompound();
+		((AttachmentTargetImpl) original).fabric_writeAttachmentsToNbt(originalSave, mockDRM());
+		assertEquals(nbt, originalSave);
+
+		Entity respawnTarget = mock(Entity.class, CALLS_REAL_METHODS);
+		AttachmentTargetImpl.transfer(original, respawnTarget, true);
+		assertEquals(3, respawnTarget.getAttached(copiedOnRespawn));
+		assertFalse(respawnTarget.hasAttached(PERSISTENT));
+		assertEquals(3, original.getAttached(copiedOnRespawn));
+	}
+
 	@Test
 	void testEntityPersistence() {
 		DynamicRegistryManager drm = mockDRM();
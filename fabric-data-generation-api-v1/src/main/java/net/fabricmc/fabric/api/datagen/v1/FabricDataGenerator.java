@@ -16,6 +16,7 @@
 
 package net.fabricmc.fabric.api.datagen.v1;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
@@ -31,6 +32,7 @@ import net.minecraft.registry.RegistryBuilder;
 import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.util.Identifier;
 
+import net.fabricmc.fabric.impl.datagen.FabricDataGenRunner;
 import net.fabricmc.loader.api.ModContainer;
 
 /**
@@ -112,6 +114,15 @@ public final class FabricDataGenerator extends DataGenerator {
 		return registriesFuture;
 	}
 
+	/**
+	 * Runs the providers of this data generator, see {@link FabricDataGenRunner}.
+	 */
+	@Override
+	@ApiStatus.Internal
+	public void run() throws IOException {
+		FabricDataGenRunner.run(this, this.output.getPath(), this.providerNames, this.runningProviders);
+	}
+
 	/**
 	 * @deprecated Please use {@link FabricDataGenerator#createPack()}
 	 */
@@ -19,7 +19,6 @@ package net.fabricmc.fabric.api.datagen.v1.provider;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Function;
 import java.util.stream.Stream;
 
 import org.jetbrains.annotations.Nullable;
@@ -50,6 +49,8 @@ import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.api.datagen.v1.FabricDataGenerator;
 import net.fabricmc.fabric.api.datagen.v1.FabricDataOutput;
+import net.fabricmc.fabric.impl.datagen.FabricDataGenHelper;
+import net.fabricmc.fabric.impl.datagen.FabricDataGenRunner;
 import net.fabricmc.fabric.impl.datagen.ForcedTagEntry;
 
 /**
@@ -149,7 +150,7 @@ public abstract class FabricTagProvider<T> extends TagProvider<T> {
 	 */
 	public abstract static class ItemTagProvider extends FabricTagProvider<Item> {
 		@Nullable
-		private final Function<TagKey<Block>, TagBuilder> blockTagBuilderProvider;
+		private final BlockTagProvider blockTagProvider;
 
 		/**
 		 * Construct an {@link ItemTagProvider} tag provider <b>with</b> an associated {@link BlockTagProvider} tag provider.
@@ -159,7 +160,7 @@ public abstract class FabricTagProvider<T> extends TagProvider<T> {
 		public ItemTagProvider(FabricDataOutput output, CompletableFuture<RegistryWrapper.WrapperLookup> completableFuture, @Nullable FabricTagProvider.BlockTagProvider blockTagProvider) {
 			super(output, RegistryKeys.ITEM, completableFuture);
 
-			this.blockTagBuilderProvider = blockTagProvider == null ? null : blockTagProvider::getTagBuilder;
+			this.blockTagProvider = blockTagProvider;
 		}
 
 		/**
@@ -180,9 +181,24 @@ public abstract class FabricTagProvider<T> extends TagProvider<T> {
 		 * @param itemTag  The item tag to copy to.
 		 */
 		public void copy(TagKey<Block> blockTag, TagKey<Item> itemTag) {
-			TagBuilder blockTagBuilder = Objects.requireNonNull(this.blockTagBuilderProvider, "Pass Block tag provider via constructor to use copy").apply(blockTag);
+			Objects.requireNonNull(this.blockTagProvider, "Pass Block tag provider via constructor to use copy");
 			TagBuilder itemTagBuilder = this.getTagBuilder(itemTag);
-			blockTagBuilder.build().forEach(itemTagBuilder::add);
+			getBlockTags().apply(blockTag).ifPresent(blockTagBuilder -> blockTagBuilder.build().forEach(itemTagBuilder::add));
+		}
+
+		/**
+		 * Looks up the block tags without modifying the block tag provider, which may be writing them on another thread.
+		 */
+		private TagProvider.TagLookup<Block> getBlockTags() {
+			CompletableFuture<TagProvider.TagLookup<Block>> future = this.blockTagProvider.getTagLookupFuture();
+
+			if (FabricDataGenHelper.PARALLEL && FabricDataGenRunner.isScheduled(this.blockTagProvider)) {
+				// The block tags are configured concurrently, wait for them.
+				return future.join();
+			}
+
+			// Either the block tags were configured by an earlier provider, or they are not generated in this run.
+			return future.getNow(TagProvider.TagLookup.empty());
 		}
 
 		@Override
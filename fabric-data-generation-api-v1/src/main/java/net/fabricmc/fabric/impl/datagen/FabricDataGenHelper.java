@@ -20,6 +20,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
@@ -76,6 +77,20 @@ public final class FabricDataGenHelper {
 	 */
 	private static final boolean STRICT_VALIDATION = System.getProperty("fabric-api.datagen.strict-validation") != null;
 
+	/**
+	 * When enabled the providers of a data generator are run in parallel, each on its own thread.
+	 */
+	public static final boolean PARALLEL = System.getProperty("fabric-api.datagen.parallel") != null;
+
+	/**
+	 * When enabled providers whose inputs did not change since the last run are skipped, see {@link FabricDataGenRunner}.
+	 *
+	 * <p>Only the classes of the providers, their superclasses and their nested and anonymous classes are fingerprinted.
+	 * Changes to other classes a provider reads data from, such as a helper class or a list of blocks, are not detected,
+	 * so a full run is needed after changing them.
+	 */
+	static final boolean INCREMENTAL = System.getProperty("fabric-api.datagen.incremental") != null;
+
 	/**
 	 * Filter to a specific mod ID with this property, useful if dependencies also have data generators.
 	 */
@@ -225,8 +240,9 @@ public final class FabricDataGenHelper {
 
 	/**
 	 * Used to keep track of conditions associated to generated objects.
+	 * Synchronized since providers can run in parallel.
 	 */
-	private static final Map<Object, ResourceCondition[]> CONDITIONS_MAP = new IdentityHashMap<>();
+	private static final Map<Object, ResourceCondition[]> CONDITIONS_MAP = Collections.synchronizedMap(new IdentityHashMap<>());
 
 	public static void addConditions(Object object, ResourceCondition[] conditions) {
 		CONDITIONS_MAP.merge(object, conditions, ArrayUtils::addAll);
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.datagen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.JsonOps;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.data.DataCache;
+import net.minecraft.data.DataProvider;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryLoader;
+import net.minecraft.registry.RegistryOps;
+import net.minecraft.registry.RegistryWrapper;
+
+import net.fabricmc.fabric.api.datagen.v1.FabricDataGenerator;
+import net.fabricmc.fabric.api.event.registry.DynamicRegistries;
+
+/**
+ * Runs the providers of a {@link FabricDataGenerator}, replacing {@code DataGenerator.run}.
+ *
+ * <p>When {@linkplain FabricDataGenHelper#PARALLEL parallel}, every provider is started on its own thread before any is waited on,
+ * so that providers waiting on the futures of other providers (such as tag providers and their parent tags) still complete.
+ *
+ * <p>When {@linkplain FabricDataGenHelper#INCREMENTAL incremental}, a fingerprint of the inputs of the generator is stored next to vanilla's
+ * data cache: the game version, the mod and its version, the names of the providers and the bytecode of their class hierarchies
+ * and nested classes, and the contents of the registries. Providers are skipped when the fingerprint is unchanged, and their
+ * previous output is kept. See {@link #selectProviders(Collection, Predicate)} for why there is a single fingerprint.
+ */
+public final class FabricDataGenRunner {
+	private static final Logger LOGGER = LoggerFactory.getLogger(FabricDataGenRunner.class);
+	private static final String FINGERPRINTS_FILE = "fabric-datagen-fingerprints.json";
+	private static final Set<DataProvider> SCHEDULED_PROVIDERS = ConcurrentHashMap.newKeySet();
+
+	private FabricDataGenRunner() {
+	}
+
+	public static void run(FabricDataGenerator generator, Path outputPath, Set<String> providerNames, Map<String, DataProvider> providers) throws IOException {
+		final Stopwatch total = Stopwatch.createStarted();
+		final DataCache cache = new DataCache(outputPath, providerNames, SharedConstants.getGameVersion());
+		final Path fingerprintsPath = outputPath.resolve(".cache").resolve(FINGERPRINTS_FILE);
+		final JsonObject fingerprints = FabricDataGenHelper.INCREMENTAL ? readFingerprints(fingerprintsPath) : new JsonObject();
+		final String fingerprint = FabricDataGenHelper.INCREMENTAL ? fingerprint(generator, providers) : null;
+		final Set<String> toRun = selectProviders(generator, cache, providers, fingerprints, fingerprint);
+
+		final List<Report> reports = new ArrayList<>();
+		final List<CompletableFuture<Report>> futures = new ArrayList<>();
+		final ExecutorService executor = FabricDataGenHelper.PARALLEL ? Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("Fabric Datagen Provider %d").setDaemon(true).build()) : null;
+
+		for (Map.Entry<String, DataProvider> entry : providers.entrySet()) {
+			if (toRun.contains(entry.getKey())) {
+				SCHEDULED_PROVIDERS.add(entry.getValue());
+			}
+		}
+
+		try {
+			for (Map.Entry<String, DataProvider> entry : providers.entrySet()) {
+				final String name = entry.getKey();
+
+				if (!toRun.contains(name)) {
+					reports.add(new Report(name, null, 0));
+					continue;
+				}
+
+				if (executor != null) {
+					futures.add(runProvider(cache, name, entry.getValue(), executor));
+				} else {
+					// Run each provider to completion before starting the next one, like vanilla.
+					futures.add(CompletableFuture.completedFuture(runProvider(cache, name, entry.getValue(), Runnable::run).join()));
+				}
+			}
+
+			for (CompletableFuture<Report> future : futures) {
+				final Report report = future.join();
+				cache.store(report.result());
+				reports.add(report);
+			}
+		} finally {
+			SCHEDULED_PROVIDERS.removeAll(providers.values());
+
+			if (executor != null) {
+				executor.shutdown();
+			}
+		}
+
+		cache.write();
+
+		if (fingerprint != null) {
+			fingerprints.addProperty(generator.getModId(), fingerprint);
+			writeFingerprints(fingerprintsPath, fingerprints);
+		}
+
+		logReport(generator.getModId(), reports, total.elapsed(TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * @return whether the provider is part of the providers currently being run, and will therefore run or has already run
+	 */
+	public static boolean isScheduled(DataProvider provider) {
+		return SCHEDULED_PROVIDERS.contains(provider);
+	}
+
+	private static CompletableFuture<Report> runProvider(DataCache cache, String name, DataProvider provider, Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			LOGGER.info("Starting provider: {}", name);
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			return cache.run(name, provider::run).thenApply(result -> new Report(name, result, stopwatch.elapsed(TimeUnit.MILLISECONDS)));
+		}, executor).thenCompose(Function.identity());
+	}
+
+	/**
+	 * @return the names of the providers that have to run, all of them unless incremental
+	 */
+	private static Set<String> selectProviders(FabricDataGenerator generator, DataCache cache, Map<String, DataProvider> providers, JsonObject fingerprints, @Nullable String fingerprint) {
+		if (fingerprint == null) {
+			return providers.keySet();
+		}
+
+		final JsonElement previous = fingerprints.get(generator.getModId());
+		final boolean unchanged = previous != null && previous.isJsonPrimitive() && previous.getAsString().equals(fingerprint);
+		return selectProviders(providers.keySet(), name -> unchanged && !cache.isVersionDifferent(name));
+	}
+
+	/**
+	 * Selects the providers to run in incremental mode.
+	 *
+	 * <p>A provider can read the output of the providers registered before it, such as an item tag provider copying block tags,
+	 * so the providers after a changed provider have to run again. A provider can also need the providers it reads from to run
+	 * in the same run, so the providers before a provider that runs have to run too. As the actual dependencies are not known,
+	 * all providers run as soon as one of them changed, and the inputs of all providers are fingerprinted together.
+	 *
+	 * @param names the names of the providers, in registration order
+	 * @param unchanged whether the inputs of a provider are unchanged since its last run
+	 * @return the names of the providers that have to run
+	 */
+	public static Set<String> selectProviders(Collection<String> names, Predicate<String> unchanged) {
+		for (String name : names) {
+			if (!unchanged.test(name)) {
+				return new LinkedHashSet<>(names);
+			}
+		}
+
+		return Set.of();
+	}
+
+	private static String fingerprint(FabricDataGenerator generator, Map<String, DataProvider> providers) {
+		final Hasher hasher = Hashing.sha256().newHasher();
+		putString(hasher, SharedConstants.getGameVersion().getName());
+		putString(hasher, generator.getModId());
+		putString(hasher, generator.getModContainer().getMetadata().getVersion().getFriendlyString());
+		hashRegistries(hasher, generator.getRegistries().join());
+		// Providers often share base classes, only hash those once.
+		final Set<String> hashedClasses = new HashSet<>();
+
+		for (Map.Entry<String, DataProvider> entry : providers.entrySet()) {
+			putString(hasher, entry.getKey());
+
+			for (Class<?> clazz = entry.getValue().getClass(); clazz != Object.class; clazz = clazz.getSuperclass()) {
+				putString(hasher, clazz.getName());
+
+				if (clazz.getClassLoader() != null && hashedClasses.add(clazz.getName())) {
+					putClassBytes(hasher, clazz.getClassLoader(), clazz.getName().replace('.', '/'), hashedClasses);
+				}
+			}
+		}
+
+		return hasher.hash().toString();
+	}
+
+	private static void hashRegistries(Hasher hasher, RegistryWrapper.WrapperLookup registries) {
+		// Static registries are only fingerprinted by their entries, their values come from code.
+		for (Registry<?> registry : Registries.REGISTRIES) {
+			putString(hasher, registry.getKey().getValue().toString());
+			registry.getIds().stream().sorted().forEachOrdered(id -> putString(hasher, id.toString()));
+		}
+
+		final RegistryOps<JsonElement> ops = registries.getOps(JsonOps.INSTANCE);
+
+		for (RegistryLoader.Entry<?> entry : DynamicRegistries.getDynamicRegistries()) {
+			hashDynamicRegistry(hasher, registries, ops, entry);
+		}
+	}
+
+	private static <T> void hashDynamicRegistry(Hasher hasher, RegistryWrapper.WrapperLookup registries, RegistryOps<JsonElement> ops, RegistryLoader.Entry<T> loaderEntry) {
+		final RegistryWrapper.Impl<T> registry = registries.getOrThrow(loaderEntry.key());
+		putString(hasher, loaderEntry.key().getValue().toString());
+
+		registry.streamEntries()
+				.sorted(Comparator.comparing(entry -> entry.registryKey().getValue()))
+				.forEachOrdered(entry -> {
+					putString(hasher, entry.registryKey().getValue().toString());
+					loaderEntry.elementCodec().encodeStart(ops, entry.value()).result().ifPresent(json -> putString(hasher, json.toString()));
+				});
+	}
+
+	/**
+	 * Hashes the bytecode of a class and of its nested, local and anonymous classes, as listed in its inner classes attribute.
+	 */
+	private static void putClassBytes(Hasher hasher, ClassLoader classLoader, String internalName, Set<String> hashedClasses) {
+		final byte[] bytes;
+
+		try (InputStream stream = classLoader.getResourceAsStream(internalName + ".class")) {
+			if (stream == null) {
+				return;
+			}
+
+			bytes = stream.readAllBytes();
+		} catch (IOException e) {
+			LOGGER.debug("Failed to read class {} for fingerprinting", internalName, e);
+			return;
+		}
+
+		hasher.putBytes(bytes);
+		final List<String> nestedClasses = new ArrayList<>();
+
+		new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9) {
+			@Override
+			public void visitInnerClass(String name, String outerName, String innerName, int access) {
+				// The attribute also lists the classes enclosing this one, and nested classes of other classes it refers to.
+				if (name.startsWith(internalName + "$")) {
+					nestedClasses.add(name);
+				}
+			}
+		}, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+		for (String nestedClass : nestedClasses) {
+			if (hashedClasses.add(nestedClass.replace('/', '.'))) {
+				putString(hasher, nestedClass);
+				putClassBytes(hasher, classLoader, nestedClass, hashedClasses);
+			}
+		}
+	}
+
+	private static void putString(Hasher hasher, String value) {
+		hasher.putInt(value.length());
+		hasher.putString(value, StandardCharsets.UTF_8);
+	}
+
+	private static JsonObject readFingerprints(Path path) {
+		if (!Files.isRegularFile(path)) {
+			return new JsonObject();
+		}
+
+		try (Reader reader = Files.newBufferedReader(path)) {
+			final JsonElement json = JsonParser.parseReader(reader);
+			return json.isJsonObject() ? json.getAsJsonObject() : new JsonObject();
+		} catch (IOException | JsonParseException e) {
+			LOGGER.warn("Failed to read datagen fingerprints {}, running all providers", path, e);
+			return new JsonObject();
+		}
+	}
+
+	private static void writeFingerprints(Path path, JsonObject fingerprints) {
+		final Path tempPath = path.resolveSibling(FINGERPRINTS_FILE + ".tmp");
+
+		try {
+			Files.createDirectories(path.getParent());
+
+			try (Writer writer = Files.newBufferedWriter(tempPath)) {
+				writer.write(fingerprints.toString());
+			}
+
+			Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.warn("Failed to write datagen fingerprints {}", path, e);
+		}
+	}
+
+	private static void logReport(String modId, List<Report> reports, long totalMillis) {
+		final long skipped = reports.stream().filter(report -> report.result() == null).count();
+		LOGGER.info("Data providers for {} took {} ms ({} ran, {} skipped)", modId, totalMillis, reports.size() - skipped, skipped);
+
+		reports.stream()
+				.sorted(Comparator.comparingLong(Report::millis).reversed())
+				.forEachOrdered(report -> {
+					if (report.result() == null) {
+						LOGGER.info("  {}: skipped, unchanged", report.name());
+					} else {
+						LOGGER.info("  {}: {} ms, {} files written", report.name(), report.millis(), report.result().writes());
+					}
+				});
+	}
+
+	/**
+	 * @param result the result of the provider, or {@code null} if it was skipped
+	 */
+	private record Report(String name, @Nullable DataCache.RunResult result, long millis) { }
+}
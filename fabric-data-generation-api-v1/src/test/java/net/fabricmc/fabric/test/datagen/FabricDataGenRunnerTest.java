@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.datagen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.fabric.impl.datagen.FabricDataGenRunner;
+
+public class FabricDataGenRunnerTest {
+	private static final List<String> PROVIDERS = List.of("Block Tags", "Item Tags", "Recipes");
+
+	@Test
+	void unchangedProvidersAreSkipped() {
+		assertEquals(Set.of(), FabricDataGenRunner.selectProviders(PROVIDERS, name -> true));
+	}
+
+	@Test
+	void changedProviderRunsLaterProviders() {
+		// The item tags copy block tags, so they must be generated again even though the item tag provider did not change.
+		assertEquals(Set.copyOf(PROVIDERS), FabricDataGenRunner.selectProviders(PROVIDERS, name -> !name.equals("Block Tags")));
+	}
+
+	@Test
+	void changedProviderRunsEarlierProviders() {
+		// The item tag provider needs the block tag provider to run to copy block tags.
+		assertEquals(Set.copyOf(PROVIDERS), FabricDataGenRunner.selectProviders(PROVIDERS, name -> !name.equals("Item Tags")));
+	}
+}
@@ -39,6 +39,7 @@ import net.fabricmc.fabric.api.client.networking.v1.ClientLoginNetworking;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.fabricmc.fabric.impl.networking.BundlePayload;
 import net.fabricmc.fabric.impl.networking.CommonPacketsImpl;
 import net.fabricmc.fabric.impl.networking.CommonRegisterPayload;
 import net.fabricmc.fabric.impl.networking.CommonVersionPayload;
@@ -140,6 +141,9 @@ public final class ClientNetworkingImpl {
 			currentConfigurationAddon = null;
 		});
 
+		// Bundles are unpacked by the network addon before reaching this receiver, it only advertises that they are supported.
+		ClientPlayNetworking.registerGlobalReceiver(BundlePayload.ID, (payload, context) -> { });
+
 		// Version packet
 		ClientConfigurationNetworking.registerGlobalReceiver(CommonVersionPayload.ID, (payload, context) -> {
 			int negotiatedVersion = handleVersionPacket(payload, context.responseSender());
@@ -26,6 +26,7 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayNetworkHandler;
 import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.network.NetworkPhase;
+import net.minecraft.network.NetworkSide;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.network.packet.Packet;
 import net.minecraft.util.Identifier;
@@ -35,6 +36,9 @@ import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.networking.v1.PacketSender;
 import net.fabricmc.fabric.impl.networking.ChannelInfoHolder;
+import net.fabricmc.fabric.impl.networking.NetworkingMetricsImpl;
+import net.fabricmc.fabric.impl.networking.PayloadBundler;
+import net.fabricmc.fabric.impl.networking.PayloadTypeRegistryImpl;
 
 public final class ClientPlayNetworkAddon extends ClientCommonNetworkAddon<ClientPlayNetworking.PlayPayloadHandler<?>, ClientPlayNetworkHandler> {
 	private final ContextImpl context;
@@ -44,6 +48,7 @@ public final class ClientPlayNetworkAddon extends ClientCommonNetworkAddon<Clien
 	public ClientPlayNetworkAddon(ClientPlayNetworkHandler handler, MinecraftClient client) {
 		super(ClientNetworkingImpl.PLAY, handler.getConnection(), "ClientPlayNetworkAddon for " + handler.getProfile().getName(), handler, client);
 		this.context = new ContextImpl(client, this);
+		this.bundler = new PayloadBundler(PayloadTypeRegistryImpl.PLAY_C2S, handler::getRegistryManager);
 
 		// Must register pending channels via lateinit
 		this.registerPendingChannels((ChannelInfoHolder) this.connection, NetworkPhase.PLAY);
@@ -70,7 +75,9 @@ public final class ClientPlayNetworkAddon extends ClientCommonNetworkAddon<Clien
 	@Override
 	protected void receive(ClientPlayNetworking.PlayPayloadHandler<?> handler, CustomPayload payload) {
 		this.client.execute(() -> {
+			long start = System.nanoTime();
 			((ClientPlayNetworking.PlayPayloadHandler) handler).receive(payload, context);
+			NetworkingMetricsImpl.recordHandler(NetworkSide.CLIENTBOUND, payload.getId().id(), System.nanoTime() - start);
 		});
 	}
 
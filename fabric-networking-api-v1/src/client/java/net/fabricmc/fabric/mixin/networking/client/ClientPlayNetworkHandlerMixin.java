@@ -56,6 +56,11 @@ abstract class ClientPlayNetworkHandlerMixin extends ClientCommonNetworkHandler
 		this.addon.onServerReady();
 	}
 
+	@Inject(method = "tick", at = @At("TAIL"))
+	private void flushBundledPackets(CallbackInfo ci) {
+		this.addon.flushBundledPackets();
+	}
+
 	@Override
 	public ClientPlayNetworkAddon getAddon() {
 		return this.addon;
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.api.networking.v1;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import net.minecraft.network.NetworkSide;
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.impl.networking.NetworkingMetricsImpl;
+
+/**
+ * Access to the network traffic of each custom payload channel.
+ *
+ * <p>Metrics are disabled by default, and can be enabled by setting the {@code fabric.networking.metrics} system property.
+ * When enabled, the encoding and decoding of every payload {@linkplain PayloadTypeRegistry registered} with Fabric is timed,
+ * as well as the time spent in play payload handlers. Setting the {@code fabric.networking.metrics.dumpInterval} system property
+ * to a number of seconds additionally dumps the metrics as JSON to {@link #getDefaultDumpPath()} at that interval.
+ *
+ * <p>Note that packets sent over local connections, such as to the host of a singleplayer world, are neither encoded nor decoded.
+ */
+@ApiStatus.Experimental
+public final class NetworkingMetrics {
+	private NetworkingMetrics() {
+	}
+
+	/**
+	 * @return {@code true} if metrics are being recorded
+	 */
+	public static boolean isEnabled() {
+		return NetworkingMetricsImpl.ENABLED;
+	}
+
+	/**
+	 * Returns a snapshot of the metrics of every channel, sorted by decreasing total bytes.
+	 * The list is empty if metrics are disabled.
+	 */
+	public static List<ChannelMetrics> getMetrics() {
+		return NetworkingMetricsImpl.getMetrics();
+	}
+
+	/**
+	 * Resets the metrics of every channel.
+	 */
+	public static void reset() {
+		NetworkingMetricsImpl.reset();
+	}
+
+	/**
+	 * @return the path periodic dumps are written to
+	 */
+	public static Path getDefaultDumpPath() {
+		return NetworkingMetricsImpl.getDefaultDumpPath();
+	}
+
+	/**
+	 * Writes the current metrics of every channel as JSON.
+	 *
+	 * @param path the file to write to
+	 * @throws IOException if the file could not be written
+	 */
+	public static void dump(Path path) throws IOException {
+		NetworkingMetricsImpl.dump(path);
+	}
+
+	/**
+	 * A snapshot of the traffic of a channel in a single direction.
+	 * Sent and received counts are from the point of view of this game instance.
+	 *
+	 * @param channel the id of the channel
+	 * @param side the direction of the payloads, {@link NetworkSide#CLIENTBOUND} for payloads sent by the server
+	 * @param packetsSent the number of payloads encoded into sent packets
+	 * @param bytesSent the number of bytes of sent payloads, excluding the channel id
+	 * @param encodeNanos the time spent encoding payloads, in nanoseconds
+	 * @param packetsReceived the number of received payloads
+	 * @param bytesReceived the number of bytes of received payloads, excluding the channel id
+	 * @param decodeNanos the time spent decoding payloads, in nanoseconds
+	 * @param packetsHandled the number of payloads handled by a play payload handler
+	 * @param handlerNanos the time spent in play payload handlers, in nanoseconds
+	 */
+	public record ChannelMetrics(Identifier channel, NetworkSide side,
+			long packetsSent, long bytesSent, long encodeNanos,
+			long packetsReceived, long bytesReceived, long decodeNanos,
+			long packetsHandled, long handlerNanos) {
+		/**
+		 * @return the number of bytes sent and received
+		 */
+		public long totalBytes() {
+			return bytesSent + bytesReceived;
+		}
+	}
+}
@@ -72,6 +72,22 @@ public interface PacketSender {
 		sendPacket(createPacket(payload), callback);
 	}
 
+	/**
+	 * Queues a packet to be sent at the end of the current tick, bundled with the other packets queued during the tick.
+	 *
+	 * <p>This is meant for mods sending many small payloads every tick, which would otherwise each be framed and flushed
+	 * as their own packet. Queued packets are sent in the order they were queued, but after the packets sent directly
+	 * with {@link #sendPacket(CustomPayload)} during the same tick.
+	 *
+	 * <p>Only play phase payloads can be bundled. If the other side cannot receive bundles, or does not have
+	 * a receiver for the payload's channel, the packet is sent immediately instead.
+	 *
+	 * @param payload the payload
+	 */
+	default void sendPacketBundled(CustomPayload payload) {
+		sendPacket(payload);
+	}
+
 	/**
 	 * Disconnects the player.
 	 * @param disconnectReason the reason for disconnection
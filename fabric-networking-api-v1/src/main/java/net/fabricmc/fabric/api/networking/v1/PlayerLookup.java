@@ -16,8 +16,10 @@
 
 package net.fabricmc.fabric.api.networking.v1;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -29,12 +31,15 @@ import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerChunkLoadingManager;
 import net.minecraft.server.world.ServerChunkManager;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.TypeFilter;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.Vec3i;
 import net.minecraft.world.chunk.ChunkManager;
 
+import net.fabricmc.fabric.impl.networking.server.TrackingListenerSet;
 import net.fabricmc.fabric.mixin.networking.accessor.EntityTrackerAccessor;
 import net.fabricmc.fabric.mixin.networking.accessor.ServerChunkLoadingManagerAccessor;
 
@@ -46,6 +51,17 @@ import net.fabricmc.fabric.mixin.networking.accessor.ServerChunkLoadingManagerAc
  * <p>These methods should only be called on the server thread and only be used on logical a server.
  */
 public final class PlayerLookup {
+	/**
+	 * From this number of players in a world, {@link #around} uses the entity section index of the world
+	 * instead of checking the distance to every player.
+	 */
+	private static final int SPATIAL_LOOKUP_MIN_PLAYERS = Integer.getInteger("fabric.networking.playerLookup.spatialMinPlayers", 32);
+	/**
+	 * The maximum radius for which the entity section index is used, as the number of sections to visit grows with the radius.
+	 */
+	private static final double SPATIAL_LOOKUP_MAX_RADIUS = 256;
+	private static final TypeFilter<Entity, ServerPlayerEntity> PLAYER_FILTER = TypeFilter.instanceOf(ServerPlayerEntity.class);
+
 	/**
 	 * Gets all the players on the minecraft server.
 	 *
@@ -117,6 +133,12 @@ public final class PlayerLookup {
 
 			// return an immutable collection to guard against accidental removals.
 			if (tracker != null) {
+				// Cached until a player starts or stops tracking the entity, see EntityTrackerMixin.
+				// Another mod may have replaced the set, in which case the players are collected every time.
+				if (tracker.getPlayersTracking() instanceof TrackingListenerSet set) {
+					return set.getPlayers();
+				}
+
 				return tracker.getPlayersTracking()
 						.stream().map(PlayerAssociatedNetworkHandler::getPlayer).collect(Collectors.toUnmodifiableSet());
 			}
@@ -169,12 +191,7 @@ public final class PlayerLookup {
 	 * @return the players around the position
 	 */
 	public static Collection<ServerPlayerEntity> around(ServerWorld world, Vec3d pos, double radius) {
-		double radiusSq = radius * radius;
-
-		return world(world)
-				.stream()
-				.filter((p) -> p.squaredDistanceTo(pos) <= radiusSq)
-				.collect(Collectors.toList());
+		return around(world, pos.x, pos.y, pos.z, radius);
 	}
 
 	/**
@@ -188,12 +205,28 @@ public final class PlayerLookup {
 	 * @return the players around the position
 	 */
 	public static Collection<ServerPlayerEntity> around(ServerWorld world, Vec3i pos, double radius) {
+		return around(world, pos.getX(), pos.getY(), pos.getZ(), radius);
+	}
+
+	private static List<ServerPlayerEntity> around(ServerWorld world, double x, double y, double z, double radius) {
 		double radiusSq = radius * radius;
+		List<ServerPlayerEntity> players = world.getPlayers();
+
+		if (players.size() >= SPATIAL_LOOKUP_MIN_PLAYERS && radius <= SPATIAL_LOOKUP_MAX_RADIUS) {
+			// The entity sections of the world are a grid of the entities, kept up to date as they move.
+			Box box = new Box(x - radius, y - radius, z - radius, x + radius, y + radius, z + radius);
+			return world.getEntitiesByType(PLAYER_FILTER, box, player -> player.squaredDistanceTo(x, y, z) <= radiusSq);
+		}
+
+		List<ServerPlayerEntity> around = new ArrayList<>();
+
+		for (ServerPlayerEntity player : players) {
+			if (player.squaredDistanceTo(x, y, z) <= radiusSq) {
+				around.add(player);
+			}
+		}
 
-		return world(world)
-				.stream()
-				.filter((p) -> p.squaredDistanceTo(pos.getX(), pos.getY(), pos.getZ()) <= radiusSq)
-				.collect(Collectors.toList());
+		return around;
 	}
 
 	private PlayerLookup() {
@@ -16,6 +16,7 @@
 
 package net.fabricmc.fabric.api.networking.v1;
 
+import java.util.Collection;
 import java.util.Objects;
 import java.util.Set;
 
@@ -293,6 +294,34 @@ public final class ServerPlayNetworking {
 		player.networkHandler.sendPacket(createS2CPacket(payload));
 	}
 
+	/**
+	 * Sends a packet to several players.
+	 *
+	 * <p>Unlike calling {@link #send(ServerPlayerEntity, CustomPayload)} for each player, the payload is only encoded once,
+	 * and the encoded bytes are shared between the connections. This makes it the preferred way to send the same payload
+	 * to the players returned by {@link PlayerLookup}, for example:
+	 * <pre>{@code
+	 * ServerPlayNetworking.sendToAll(PlayerLookup.tracking(entity), new EntityEffectPayload(entity.getId()));
+	 * }</pre>
+	 *
+	 * <p>Any packets sent must be {@linkplain PayloadTypeRegistry#playS2C() registered}.
+	 * The payload must not be modified after calling this method, as it may be encoded later.</p>
+	 *
+	 * @param players the players to send the packet to
+	 * @param payload the payload to send
+	 */
+	public static void sendToAll(Collection<ServerPlayerEntity> players, CustomPayload payload) {
+		Objects.requireNonNull(players, "Players cannot be null");
+		Objects.requireNonNull(payload, "Payload cannot be null");
+		Objects.requireNonNull(payload.getId(), "CustomPayload#getId() cannot return null for payload class: " + payload.getClass());
+
+		if (players.isEmpty()) {
+			return;
+		}
+
+		ServerNetworkingImpl.sendToAll(players, payload);
+	}
+
 	private ServerPlayNetworking() {
 	}
 
@@ -52,6 +52,9 @@ public abstract class AbstractChanneledNetworkAddon<H> extends AbstractNetworkAd
 	protected final Set<Identifier> sendableChannels;
 
 	protected int commonVersion = -1;
+	// Only set in the play phase, where payloads can be bundled.
+	@Nullable
+	protected PayloadBundler bundler;
 
 	protected AbstractChanneledNetworkAddon(GlobalReceiverRegistry<H> receiver, ClientConnection connection, String description) {
 		super(receiver, description);
@@ -71,6 +74,21 @@ public abstract class AbstractChanneledNetworkAddon<H> extends AbstractNetworkAd
 
 	// always supposed to handle async!
 	public boolean handle(CustomPayload payload) {
+		if (payload instanceof BundlePayload bundlePayload) {
+			for (CustomPayload bundledPayload : bundlePayload.payloads()) {
+				// Bundles are not unpacked recursively, the codec rejects nested bundles.
+				if (bundledPayload instanceof BundlePayload || !this.handleUnbundled(bundledPayload)) {
+					this.logger.debug("Received bundled packet for channel with name \"{}\" without a handler", bundledPayload.getId().id());
+				}
+			}
+
+			return true;
+		}
+
+		return this.handleUnbundled(payload);
+	}
+
+	private boolean handleUnbundled(CustomPayload payload) {
 		final Identifier channelName = payload.getId().id();
 		this.logger.debug("Handling inbound packet from channel with name \"{}\"", channelName);
 
@@ -160,6 +178,34 @@ public abstract class AbstractChanneledNetworkAddon<H> extends AbstractNetworkAd
 		this.connection.send(packet, callback);
 	}
 
+	@Override
+	public void sendPacketBundled(CustomPayload payload) {
+		Objects.requireNonNull(payload, "Payload cannot be null");
+
+		if (this.canBundle(payload.getId().id())) {
+			this.bundler.queue(payload);
+		} else {
+			this.sendPacket(payload);
+		}
+	}
+
+	private boolean canBundle(Identifier channelName) {
+		// Local connections don't encode packets, so there is nothing to gain by bundling them.
+		return this.bundler != null
+				&& !this.connection.isLocal()
+				&& this.sendableChannels.contains(BundlePayload.ID.id())
+				&& this.sendableChannels.contains(channelName);
+	}
+
+	/**
+	 * Sends the packets queued by {@link #sendPacketBundled(CustomPayload)}, called at the end of every tick.
+	 */
+	public void flushBundledPackets() {
+		if (this.bundler != null) {
+			this.bundler.flush(this::sendPacket);
+		}
+	}
+
 	@Override
 	public void disconnect(Text disconnectReason) {
 		Objects.requireNonNull(disconnectReason, "Disconnect reason cannot be null");
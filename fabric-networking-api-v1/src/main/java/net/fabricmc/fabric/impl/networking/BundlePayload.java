@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.networking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
+
+import net.minecraft.network.NetworkSide;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.impl.networking.payload.PreEncodedPayload;
+
+/**
+ * A payload containing several play payloads, sent as a single packet.
+ *
+ * <p>Bundled payloads are {@linkplain PreEncodedPayload encoded} by the sender on the main thread,
+ * and decoded by the receiver using the payload types registered for the direction of the bundle.
+ *
+ * @param payloads the bundled payloads, in the order they were sent
+ */
+public record BundlePayload(List<CustomPayload> payloads) implements CustomPayload {
+	public static final CustomPayload.Id<BundlePayload> ID = new Id<>(Identifier.of("fabric", "bundle"));
+	// The maximum number of payloads a received bundle can contain.
+	private static final int MAX_PAYLOADS = 4096;
+
+	public static PacketCodec<RegistryByteBuf, BundlePayload> codec(PayloadTypeRegistryImpl<RegistryByteBuf> payloadTypeRegistry) {
+		return PacketCodec.of((payload, buf) -> payload.write(buf, payloadTypeRegistry.getSide()), buf -> read(buf, payloadTypeRegistry));
+	}
+
+	private static BundlePayload read(RegistryByteBuf buf, PayloadTypeRegistryImpl<RegistryByteBuf> payloadTypeRegistry) {
+		int count = buf.readVarInt();
+
+		if (count > MAX_PAYLOADS) {
+			throw new DecoderException("Bundle cannot contain more than " + MAX_PAYLOADS + " payloads, got " + count);
+		}
+
+		List<CustomPayload> payloads = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			Identifier id = buf.readIdentifier();
+
+			if (id.equals(ID.id())) {
+				throw new DecoderException("Bundles cannot contain other bundles");
+			}
+
+			ByteBuf data = buf.readSlice(buf.readVarInt());
+			CustomPayload.Type<RegistryByteBuf, ? extends CustomPayload> type = payloadTypeRegistry.get(id);
+
+			if (type == null) {
+				throw new DecoderException("Received bundled payload with unknown type " + id);
+			}
+
+			int size = data.readableBytes();
+			long start = System.nanoTime();
+			payloads.add(type.codec().decode(new RegistryByteBuf(data, buf.getRegistryManager())));
+			NetworkingMetricsImpl.recordDecode(payloadTypeRegistry.getSide(), id, size, System.nanoTime() - start);
+
+			if (data.isReadable()) {
+				throw new DecoderException("Bundled payload " + id + " was larger than expected, found " + data.readableBytes() + " bytes extra");
+			}
+		}
+
+		return new BundlePayload(payloads);
+	}
+
+	private void write(RegistryByteBuf buf, NetworkSide side) {
+		buf.writeVarInt(payloads.size());
+
+		for (CustomPayload payload : payloads) {
+			if (!(payload instanceof PreEncodedPayload preEncodedPayload)) {
+				throw new EncoderException("Bundled payload " + payload.getId().id() + " was not encoded");
+			}
+
+			buf.writeIdentifier(preEncodedPayload.getId().id());
+			buf.writeVarInt(preEncodedPayload.data().readableBytes());
+			long start = System.nanoTime();
+			preEncodedPayload.write(buf);
+			NetworkingMetricsImpl.recordEncode(side, preEncodedPayload.getId().id(), preEncodedPayload.data().readableBytes(), System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Id<BundlePayload> getId() {
+		return ID;
+	}
+}
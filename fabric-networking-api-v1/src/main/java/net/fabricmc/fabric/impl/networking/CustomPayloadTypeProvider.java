@@ -16,10 +16,17 @@
 
 package net.fabricmc.fabric.impl.networking;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.util.Identifier;
 
 public interface CustomPayloadTypeProvider<B extends PacketByteBuf> {
-	CustomPayload.Type<B, ? extends CustomPayload> get(B packetByteBuf, Identifier identifier);
+	/**
+	 * @return the codec of the payload type, see {@link PayloadTypeRegistryImpl#getPacketCodec(Identifier)}
+	 */
+	@Nullable
+	PacketCodec<B, ? extends CustomPayload> getCodec(B packetByteBuf, Identifier identifier);
 }
@@ -16,8 +16,9 @@
 
 package net.fabricmc.fabric.impl.networking;
 
+import net.minecraft.network.NetworkSide;
 import net.minecraft.network.PacketByteBuf;
 
 public interface FabricCustomPayloadPacketCodec<B extends PacketByteBuf> {
-	void fabric_setPacketCodecProvider(CustomPayloadTypeProvider<B> customPayloadTypeProvider);
+	void fabric_setPacketCodecProvider(NetworkSide side, CustomPayloadTypeProvider<B> customPayloadTypeProvider);
 }
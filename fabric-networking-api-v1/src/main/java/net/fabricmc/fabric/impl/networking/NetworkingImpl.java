@@ -22,6 +22,7 @@ import org.slf4j.LoggerFactory;
 import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 
 public final class NetworkingImpl {
 	public static final String MOD_ID = "fabric-networking-api-v1";
@@ -50,5 +51,12 @@ public final class NetworkingImpl {
 		PayloadTypeRegistry.playS2C().register(RegistrationPayload.UNREGISTER, RegistrationPayload.UNREGISTER_CODEC);
 		PayloadTypeRegistry.playC2S().register(RegistrationPayload.REGISTER, RegistrationPayload.REGISTER_CODEC);
 		PayloadTypeRegistry.playC2S().register(RegistrationPayload.UNREGISTER, RegistrationPayload.UNREGISTER_CODEC);
+		PayloadTypeRegistry.playS2C().register(BundlePayload.ID, BundlePayload.codec(PayloadTypeRegistryImpl.PLAY_S2C));
+		PayloadTypeRegistry.playC2S().register(BundlePayload.ID, BundlePayload.codec(PayloadTypeRegistryImpl.PLAY_C2S));
+
+		// Bundles are unpacked by the network addon before reaching this receiver, it only advertises that they are supported.
+		ServerPlayNetworking.registerGlobalReceiver(BundlePayload.ID, (payload, context) -> { });
+
+		NetworkingMetricsImpl.init();
 	}
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.networking;
+
+import static net.minecraft.server.command.CommandManager.argument;
+import static net.minecraft.server.command.CommandManager.literal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+import net.fabricmc.fabric.api.networking.v1.NetworkingMetrics;
+
+/**
+ * The {@code /fabric profile network} command, only registered when {@linkplain NetworkingMetrics#isEnabled() networking metrics} are enabled.
+ */
+public final class NetworkingMetricsCommand {
+	private static final int DEFAULT_COUNT = 10;
+
+	private NetworkingMetricsCommand() {
+	}
+
+	public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+		dispatcher.register(literal("fabric")
+				.requires(source -> source.hasPermissionLevel(4))
+				.then(literal("profile")
+						.then(literal("network")
+								.executes(context -> printMetrics(context.getSource(), DEFAULT_COUNT))
+								.then(argument("count", IntegerArgumentType.integer(1))
+										.executes(context -> printMetrics(context.getSource(), IntegerArgumentType.getInteger(context, "count"))))
+								.then(literal("reset")
+										.executes(context -> {
+											NetworkingMetrics.reset();
+											context.getSource().sendFeedback(() -> Text.literal("Reset networking metrics"), true);
+											return 1;
+										}))
+								.then(literal("dump")
+										.executes(context -> dumpMetrics(context.getSource()))))));
+	}
+
+	private static int printMetrics(ServerCommandSource source, int count) {
+		List<NetworkingMetrics.ChannelMetrics> metrics = NetworkingMetrics.getMetrics();
+		source.sendFeedback(() -> Text.literal("Top %d of %d channels by traffic:".formatted(Math.min(count, metrics.size()), metrics.size())), false);
+
+		for (int i = 0; i < Math.min(count, metrics.size()); i++) {
+			NetworkingMetrics.ChannelMetrics channel = metrics.get(i);
+			String line = String.format(Locale.ROOT, "%s (%s): sent %d packets, %d bytes, %.2f ms encoding; received %d packets, %d bytes, %.2f ms decoding, %.2f ms handling",
+					channel.channel(), channel.side().name().toLowerCase(Locale.ROOT),
+					channel.packetsSent(), channel.bytesSent(), channel.encodeNanos() / 1e6,
+					channel.packetsReceived(), channel.bytesReceived(), channel.decodeNanos() / 1e6, channel.handlerNanos() / 1e6);
+			source.sendFeedback(() -> Text.literal(line), false);
+		}
+
+		return metrics.size();
+	}
+
+	private static int dumpMetrics(ServerCommandSource source) {
+		Path path = NetworkingMetrics.getDefaultDumpPath();
+
+		try {
+			NetworkingMetrics.dump(path);
+		} catch (IOException e) {
+			NetworkingImpl.LOGGER.warn("Failed to dump networking metrics", e);
+			source.sendError(Text.literal("Failed to dump networking metrics, see the log for details"));
+			return 0;
+		}
+
+		source.sendFeedback(() -> Text.literal("Dumped networking metrics to " + path), false);
+		return 1;
+	}
+}
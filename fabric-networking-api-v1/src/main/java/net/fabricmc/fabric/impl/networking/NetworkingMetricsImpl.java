@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.networking;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import net.minecraft.network.NetworkSide;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.api.networking.v1.NetworkingMetrics;
+import net.fabricmc.loader.api.FabricLoader;
+
+public final class NetworkingMetricsImpl {
+	public static final boolean ENABLED = Boolean.getBoolean("fabric.networking.metrics");
+	// The interval between two dumps of the metrics to disk, in seconds. Disabled if 0 or less.
+	private static final int DUMP_INTERVAL = Integer.getInteger("fabric.networking.metrics.dumpInterval", 0);
+	private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+	private static final Map<Key, Counters> COUNTERS = new ConcurrentHashMap<>();
+
+	private NetworkingMetricsImpl() {
+	}
+
+	static void init() {
+		if (!ENABLED || DUMP_INTERVAL <= 0) {
+			return;
+		}
+
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Fabric Networking Metrics Dump");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		executor.scheduleAtFixedRate(() -> {
+			try {
+				dump(getDefaultDumpPath());
+			} catch (IOException e) {
+				NetworkingImpl.LOGGER.warn("Failed to dump networking metrics", e);
+			}
+		}, DUMP_INTERVAL, DUMP_INTERVAL, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Wraps the codec of a payload so that its encoding and decoding is recorded, if metrics are enabled.
+	 */
+	public static <B extends PacketByteBuf, V> PacketCodec<B, V> wrap(NetworkSide side, Identifier channel, PacketCodec<B, V> codec) {
+		if (!ENABLED) {
+			return codec;
+		}
+
+		Counters counters = getCounters(side, channel);
+
+		return new PacketCodec<>() {
+			@Override
+			public V decode(B buf) {
+				int readerIndex = buf.readerIndex();
+				long start = System.nanoTime();
+				V value = codec.decode(buf);
+				counters.decode(buf.readerIndex() - readerIndex, System.nanoTime() - start);
+				return value;
+			}
+
+			@Override
+			public void encode(B buf, V value) {
+				int writerIndex = buf.writerIndex();
+				long start = System.nanoTime();
+				codec.encode(buf, value);
+				counters.encode(buf.writerIndex() - writerIndex, System.nanoTime() - start);
+			}
+		};
+	}
+
+	public static void recordEncode(NetworkSide side, Identifier channel, int bytes, long nanos) {
+		if (ENABLED) {
+			getCounters(side, channel).encode(bytes, nanos);
+		}
+	}
+
+	/**
+	 * Records encoding time that isn't tied to a single sent packet, such as payloads encoded once for several players.
+	 */
+	public static void recordEncodeTime(NetworkSide side, Identifier channel, long nanos) {
+		if (ENABLED) {
+			getCounters(side, channel).encodeNanos.add(nanos);
+		}
+	}
+
+	public static void recordDecode(NetworkSide side, Identifier channel, int bytes, long nanos) {
+		if (ENABLED) {
+			getCounters(side, channel).decode(bytes, nanos);
+		}
+	}
+
+	public static void recordHandler(NetworkSide side, Identifier channel, long nanos) {
+		if (ENABLED) {
+			Counters counters = getCounters(side, channel);
+			counters.packetsHandled.increment();
+			counters.handlerNanos.add(nanos);
+		}
+	}
+
+	private static Counters getCounters(NetworkSide side, Identifier channel) {
+		return COUNTERS.computeIfAbsent(new Key(side, channel), key -> new Counters());
+	}
+
+	public static List<NetworkingMetrics.ChannelMetrics> getMetrics() {
+		List<NetworkingMetrics.ChannelMetrics> metrics = new ArrayList<>(COUNTERS.size());
+		COUNTERS.forEach((key, counters) -> metrics.add(counters.snapshot(key)));
+		metrics.sort(Comparator.comparingLong(NetworkingMetrics.ChannelMetrics::totalBytes).reversed());
+		return metrics;
+	}
+
+	public static void reset() {
+		COUNTERS.clear();
+	}
+
+	public static Path getDefaultDumpPath() {
+		return FabricLoader.getInstance().getGameDir().resolve("debug").resolve("fabric-networking-metrics.json");
+	}
+
+	public static void dump(Path path) throws IOException {
+		JsonArray channels = new JsonArray();
+
+		for (NetworkingMetrics.ChannelMetrics metrics : getMetrics()) {
+			JsonObject channel = new JsonObject();
+			channel.addProperty("channel", metrics.channel().toString());
+			channel.addProperty("side", metrics.side().name());
+			channel.addProperty("packetsSent", metrics.packetsSent());
+			channel.addProperty("bytesSent", metrics.bytesSent());
+			channel.addProperty("encodeNanos", metrics.encodeNanos());
+			channel.addProperty("packetsReceived", metrics.packetsReceived());
+			channel.addProperty("bytesReceived", metrics.bytesReceived());
+			channel.addProperty("decodeNanos", metrics.decodeNanos());
+			channel.addProperty("packetsHandled", metrics.packetsHandled());
+			channel.addProperty("handlerNanos", metrics.handlerNanos());
+			channels.add(channel);
+		}
+
+		JsonObject root = new JsonObject();
+		root.addProperty("timestamp", System.currentTimeMillis());
+		root.add("channels", channels);
+
+		Files.createDirectories(path.getParent());
+
+		try (Writer writer = Files.newBufferedWriter(path)) {
+			GSON.toJson(root, writer);
+		}
+	}
+
+	private record Key(NetworkSide side, Identifier channel) { }
+
+	private static final class Counters {
+		private final LongAdder packetsSent = new LongAdder();
+		private final LongAdder bytesSent = new LongAdder();
+		private final LongAdder encodeNanos = new LongAdder();
+		private final LongAdder packetsReceived = new LongAdder();
+		private final LongAdder bytesReceived = new LongAdder();
+		private final LongAdder decodeNanos = new LongAdder();
+		private final LongAdder packetsHandled = new LongAdder();
+		private final LongAdder handlerNanos = new LongAdder();
+
+		private void encode(int bytes, long nanos) {
+			packetsSent.increment();
+			bytesSent.add(bytes);
+			encodeNanos.add(nanos);
+		}
+
+		private void decode(int bytes, long nanos) {
+			packetsReceived.increment();
+			bytesReceived.add(bytes);
+			decodeNanos.add(nanos);
+		}
+
+		private NetworkingMetrics.ChannelMetrics snapshot(Key key) {
+			return new NetworkingMetrics.ChannelMetrics(key.channel(), key.side(),
+					packetsSent.sum(), bytesSent.sum(), encodeNanos.sum(),
+					packetsReceived.sum(), bytesReceived.sum(), decodeNanos.sum(),
+					packetsHandled.sum(), handlerNanos.sum());
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.networking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.registry.DynamicRegistryManager;
+
+import net.fabricmc.fabric.impl.networking.payload.PreEncodedPayload;
+
+/**
+ * Queues the payloads sent to a connection during a tick, and sends them as {@linkplain BundlePayload bundles} at the end of the tick.
+ */
+public final class PayloadBundler {
+	// The maximum size of the bundled payloads in a bundle, larger payloads are sent on their own.
+	private static final int MAX_BUNDLE_SIZE = Integer.getInteger("fabric.networking.bundle.maxSize", 32768);
+
+	private final PayloadTypeRegistryImpl<RegistryByteBuf> payloadTypeRegistry;
+	private final Supplier<? extends DynamicRegistryManager> registryManager;
+	private final Queue<CustomPayload> queue = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * @param payloadTypeRegistry the registry of the payloads sent to the connection
+	 * @param registryManager the registry manager used to encode the payloads
+	 */
+	public PayloadBundler(PayloadTypeRegistryImpl<RegistryByteBuf> payloadTypeRegistry, Supplier<? extends DynamicRegistryManager> registryManager) {
+		this.payloadTypeRegistry = payloadTypeRegistry;
+		this.registryManager = registryManager;
+	}
+
+	public void queue(CustomPayload payload) {
+		queue.add(payload);
+	}
+
+	/**
+	 * Sends the queued payloads, in order. Must be called on the main thread.
+	 *
+	 * @param sender sends a payload to the connection
+	 */
+	public void flush(Consumer<CustomPayload> sender) {
+		if (queue.isEmpty()) {
+			return;
+		}
+
+		DynamicRegistryManager registryManager = this.registryManager.get();
+		List<CustomPayload> bundle = new ArrayList<>();
+		int bundleSize = 0;
+		CustomPayload payload;
+
+		while ((payload = queue.poll()) != null) {
+			PreEncodedPayload preEncodedPayload = PreEncodedPayload.encode(payloadTypeRegistry, payload, registryManager);
+
+			if (preEncodedPayload == null) {
+				// Not registered, let the regular send path report it.
+				send(bundle, sender);
+				bundle.clear();
+				bundleSize = 0;
+				sender.accept(payload);
+				continue;
+			}
+
+			int size = preEncodedPayload.data().readableBytes();
+
+			if (bundleSize + size > MAX_BUNDLE_SIZE) {
+				send(bundle, sender);
+				bundle.clear();
+				bundleSize = 0;
+			}
+
+			bundle.add(preEncodedPayload);
+			bundleSize += size;
+		}
+
+		send(bundle, sender);
+	}
+
+	private static void send(List<CustomPayload> bundle, Consumer<CustomPayload> sender) {
+		if (bundle.size() == 1) {
+			sender.accept(bundle.getFirst());
+		} else if (bundle.size() > 1) {
+			sender.accept(new BundlePayload(List.copyOf(bundle)));
+		}
+	}
+}
@@ -39,6 +39,11 @@ public class PayloadTypeRegistryImpl<B extends PacketByteBuf> implements Payload
 	public static final PayloadTypeRegistryImpl<RegistryByteBuf> PLAY_S2C = new PayloadTypeRegistryImpl<>(NetworkPhase.PLAY, NetworkSide.CLIENTBOUND);
 
 	private final Map<Identifier, CustomPayload.Type<B, ? extends CustomPayload>> packetTypes = new HashMap<>();
+	/**
+	 * The codecs used by the custom payload packet codec, which record metrics when they are enabled.
+	 * They are created once per type, since the packet codec looks them up for every packet.
+	 */
+	private final Map<Identifier, PacketCodec<B, ? extends CustomPayload>> packetCodecs = new HashMap<>();
 	private final NetworkPhase state;
 	private final NetworkSide side;
 
@@ -59,9 +64,19 @@ public class PayloadTypeRegistryImpl<B extends PacketByteBuf> implements Payload
 		}
 
 		packetTypes.put(id.id(), payloadType);
+		// The payloads contained in bundles are recorded individually.
+		packetCodecs.put(id.id(), id.equals(BundlePayload.ID) ? payloadType.codec() : NetworkingMetricsImpl.wrap(side, id.id(), payloadType.codec()));
 		return payloadType;
 	}
 
+	/**
+	 * @return the codec to encode and decode custom payload packets of the given type with, or {@code null} if it is not registered
+	 */
+	@Nullable
+	public PacketCodec<B, ? extends CustomPayload> getPacketCodec(Identifier id) {
+		return packetCodecs.get(id);
+	}
+
 	@Nullable
 	public CustomPayload.Type<B, ? extends CustomPayload> get(Identifier id) {
 		return packetTypes.get(id);
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.networking.payload;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.registry.DynamicRegistryManager;
+
+import net.fabricmc.fabric.impl.networking.NetworkingMetricsImpl;
+import net.fabricmc.fabric.impl.networking.PayloadTypeRegistryImpl;
+
+/**
+ * A play S2C payload that has already been encoded, so that it can be sent to many players while only being encoded once.
+ *
+ * <p>The encoded data is only ever read with absolute indices, so that the same instance can safely be written
+ * by the event loops of several connections at the same time. It must not be sent over local connections,
+ * as those do not encode packets.
+ *
+ * @param id the id of the original payload
+ * @param data the encoded original payload, without its id
+ */
+public record PreEncodedPayload(CustomPayload.Id<?> id, ByteBuf data) implements CustomPayload {
+	/**
+	 * Encodes a payload registered to {@link PayloadTypeRegistryImpl#PLAY_S2C}.
+	 *
+	 * @return the encoded payload, or {@code null} if the payload type is not registered
+	 */
+	@Nullable
+	public static PreEncodedPayload encode(CustomPayload payload, DynamicRegistryManager registryManager) {
+		return encode(PayloadTypeRegistryImpl.PLAY_S2C, payload, registryManager);
+	}
+
+	/**
+	 * Encodes a payload registered to the given registry.
+	 *
+	 * @return the encoded payload, or {@code null} if the payload type is not registered
+	 */
+	@Nullable
+	public static PreEncodedPayload encode(PayloadTypeRegistryImpl<RegistryByteBuf> payloadTypeRegistry, CustomPayload payload, DynamicRegistryManager registryManager) {
+		CustomPayload.Type<RegistryByteBuf, ? extends CustomPayload> type = payloadTypeRegistry.get(payload.getId().id());
+
+		if (type == null) {
+			return null;
+		}
+
+		@SuppressWarnings("unchecked")
+		PacketCodec<RegistryByteBuf, CustomPayload> codec = (PacketCodec<RegistryByteBuf, CustomPayload>) type.codec();
+		ByteBuf data = Unpooled.buffer();
+		long start = System.nanoTime();
+		codec.encode(new RegistryByteBuf(data, registryManager), payload);
+		NetworkingMetricsImpl.recordEncodeTime(payloadTypeRegistry.getSide(), payload.getId().id(), System.nanoTime() - start);
+		return new PreEncodedPayload(payload.getId(), data);
+	}
+
+	public void write(PacketByteBuf buf) {
+		buf.writeBytes(data, data.readerIndex(), data.readableBytes());
+	}
+
+	@Override
+	public Id<? extends CustomPayload> getId() {
+		return id;
+	}
+}
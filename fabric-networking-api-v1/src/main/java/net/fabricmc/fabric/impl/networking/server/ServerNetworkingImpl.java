@@ -16,6 +16,7 @@
 
 package net.fabricmc.fabric.impl.networking.server;
 
+import java.util.Collection;
 import java.util.Objects;
 
 import net.minecraft.network.NetworkPhase;
@@ -27,6 +28,7 @@ import net.minecraft.network.packet.s2c.common.CustomPayloadS2CPacket;
 import net.minecraft.server.network.ServerConfigurationNetworkHandler;
 import net.minecraft.server.network.ServerLoginNetworkHandler;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
 
 import net.fabricmc.fabric.api.networking.v1.ServerConfigurationNetworking;
 import net.fabricmc.fabric.api.networking.v1.ServerLoginNetworking;
@@ -34,6 +36,8 @@ import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.fabric.impl.networking.GlobalReceiverRegistry;
 import net.fabricmc.fabric.impl.networking.NetworkHandlerExtensions;
 import net.fabricmc.fabric.impl.networking.PayloadTypeRegistryImpl;
+import net.fabricmc.fabric.impl.networking.payload.PreEncodedPayload;
+import net.fabricmc.fabric.mixin.networking.accessor.ServerCommonNetworkHandlerAccessor;
 
 public final class ServerNetworkingImpl {
 	public static final GlobalReceiverRegistry<ServerLoginNetworking.LoginQueryResponseHandler> LOGIN = new GlobalReceiverRegistry<>(NetworkSide.SERVERBOUND, NetworkPhase.LOGIN, null);
@@ -58,4 +62,31 @@ public final class ServerNetworkingImpl {
 
 		return new CustomPayloadS2CPacket(payload);
 	}
+
+	public static void sendToAll(Collection<ServerPlayerEntity> players, CustomPayload payload) {
+		Packet<ClientCommonPacketListener> packet = null;
+		Packet<ClientCommonPacketListener> preEncodedPacket = null;
+
+		for (ServerPlayerEntity player : players) {
+			ServerPlayNetworkHandler handler = player.networkHandler;
+
+			// Local connections do not encode packets, so they must be given the original payload.
+			if (((ServerCommonNetworkHandlerAccessor) handler).getConnection().isLocal()) {
+				if (packet == null) {
+					packet = createS2CPacket(payload);
+				}
+
+				handler.sendPacket(packet);
+				continue;
+			}
+
+			if (preEncodedPacket == null) {
+				PreEncodedPayload preEncodedPayload = PreEncodedPayload.encode(payload, player.server.getRegistryManager());
+				// Payloads that are not registered to fabric, such as vanilla ones, are encoded by each connection as usual.
+				preEncodedPacket = preEncodedPayload != null ? new CustomPayloadS2CPacket(preEncodedPayload) : createS2CPacket(payload);
+			}
+
+			handler.sendPacket(preEncodedPacket);
+		}
+	}
 }
@@ -22,6 +22,7 @@ import java.util.Objects;
 
 import net.minecraft.network.ClientConnection;
 import net.minecraft.network.NetworkPhase;
+import net.minecraft.network.NetworkSide;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.network.packet.Packet;
 import net.minecraft.server.MinecraftServer;
@@ -36,6 +37,9 @@ import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.fabric.impl.networking.AbstractChanneledNetworkAddon;
 import net.fabricmc.fabric.impl.networking.ChannelInfoHolder;
 import net.fabricmc.fabric.impl.networking.NetworkingImpl;
+import net.fabricmc.fabric.impl.networking.NetworkingMetricsImpl;
+import net.fabricmc.fabric.impl.networking.PayloadBundler;
+import net.fabricmc.fabric.impl.networking.PayloadTypeRegistryImpl;
 import net.fabricmc.fabric.impl.networking.RegistrationPayload;
 
 public final class ServerPlayNetworkAddon extends AbstractChanneledNetworkAddon<ServerPlayNetworking.PlayPayloadHandler<?>> {
@@ -49,6 +53,7 @@ public final class ServerPlayNetworkAddon extends AbstractChanneledNetworkAddon<
 		this.handler = handler;
 		this.server = server;
 		this.context = new ContextImpl(server, handler, this);
+		this.bundler = new PayloadBundler(PayloadTypeRegistryImpl.PLAY_S2C, server::getRegistryManager);
 
 		// Must register pending channels via lateinit
 		this.registerPendingChannels((ChannelInfoHolder) this.connection, NetworkPhase.PLAY);
@@ -69,7 +74,9 @@ public final class ServerPlayNetworkAddon extends AbstractChanneledNetworkAddon<
 	@Override
 	protected void receive(ServerPlayNetworking.PlayPayloadHandler<?> payloadHandler, CustomPayload payload) {
 		this.server.execute(() -> {
+			long start = System.nanoTime();
 			((ServerPlayNetworking.PlayPayloadHandler) payloadHandler).receive(payload, ServerPlayNetworkAddon.this.context);
+			NetworkingMetricsImpl.recordHandler(NetworkSide.SERVERBOUND, payload.getId().id(), System.nanoTime() - start);
 		});
 	}
 
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.networking.server;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.server.network.PlayerAssociatedNetworkHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+/**
+ * Wraps the set of listeners of an entity tracker, to cache the set of players tracking the entity
+ * until a listener is added or removed.
+ */
+public final class TrackingListenerSet extends AbstractSet<PlayerAssociatedNetworkHandler> {
+	private final Set<PlayerAssociatedNetworkHandler> delegate;
+	@Nullable
+	private Set<ServerPlayerEntity> players = null;
+
+	public TrackingListenerSet(Set<PlayerAssociatedNetworkHandler> delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * @return an immutable snapshot of the players tracking the entity
+	 */
+	public Set<ServerPlayerEntity> getPlayers() {
+		Set<ServerPlayerEntity> players = this.players;
+
+		if (players == null) {
+			if (delegate.isEmpty()) {
+				players = Collections.emptySet();
+			} else {
+				Set<ServerPlayerEntity> set = new ReferenceOpenHashSet<>(delegate.size());
+
+				for (PlayerAssociatedNetworkHandler handler : delegate) {
+					set.add(handler.getPlayer());
+				}
+
+				players = Collections.unmodifiableSet(set);
+			}
+
+			this.players = players;
+		}
+
+		return players;
+	}
+
+	@Override
+	public boolean add(PlayerAssociatedNetworkHandler handler) {
+		if (delegate.add(handler)) {
+			players = null;
+			return true;
+		}
+
+		return false;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (delegate.remove(o)) {
+			players = null;
+			return true;
+		}
+
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		delegate.clear();
+		players = null;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return delegate.contains(o);
+	}
+
+	@Override
+	public int size() {
+		return delegate.size();
+	}
+
+	@Override
+	public Iterator<PlayerAssociatedNetworkHandler> iterator() {
+		Iterator<PlayerAssociatedNetworkHandler> iterator = delegate.iterator();
+
+		return new Iterator<>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public PlayerAssociatedNetworkHandler next() {
+				return iterator.next();
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+				players = null;
+			}
+		};
+	}
+}
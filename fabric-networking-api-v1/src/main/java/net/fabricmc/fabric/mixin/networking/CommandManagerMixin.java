@@ -30,6 +30,8 @@ import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.DebugConfigCommand;
 import net.minecraft.server.command.ServerCommandSource;
 
+import net.fabricmc.fabric.api.networking.v1.NetworkingMetrics;
+import net.fabricmc.fabric.impl.networking.NetworkingMetricsCommand;
 import net.fabricmc.loader.api.FabricLoader;
 
 @Mixin(CommandManager.class)
@@ -52,4 +54,11 @@ public class CommandManagerMixin {
 
 		DebugConfigCommand.register(this.dispatcher);
 	}
+
+	@Inject(method = "<init>", at = @At("TAIL"))
+	private void registerMetricsCommand(CommandManager.RegistrationEnvironment environment, CommandRegistryAccess commandRegistryAccess, CallbackInfo ci) {
+		if (NetworkingMetrics.isEnabled()) {
+			NetworkingMetricsCommand.register(this.dispatcher);
+		}
+	}
 }
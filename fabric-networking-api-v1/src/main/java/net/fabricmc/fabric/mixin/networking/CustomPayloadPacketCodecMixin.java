@@ -22,7 +22,10 @@ import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Coerce;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
+import net.minecraft.network.NetworkSide;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.packet.CustomPayload;
@@ -30,18 +33,24 @@ import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.impl.networking.CustomPayloadTypeProvider;
 import net.fabricmc.fabric.impl.networking.FabricCustomPayloadPacketCodec;
+import net.fabricmc.fabric.impl.networking.NetworkingMetricsImpl;
+import net.fabricmc.fabric.impl.networking.payload.PreEncodedPayload;
 
 @Mixin(targets = "net/minecraft/network/packet/CustomPayload$1")
 public abstract class CustomPayloadPacketCodecMixin<B extends PacketByteBuf> implements PacketCodec<B, CustomPayload>, FabricCustomPayloadPacketCodec<B> {
+	@Unique
+	private NetworkSide side;
+
 	@Unique
 	private CustomPayloadTypeProvider<B> customPayloadTypeProvider;
 
 	@Override
-	public void fabric_setPacketCodecProvider(CustomPayloadTypeProvider<B> customPayloadTypeProvider) {
+	public void fabric_setPacketCodecProvider(NetworkSide side, CustomPayloadTypeProvider<B> customPayloadTypeProvider) {
 		if (this.customPayloadTypeProvider != null) {
 			throw new IllegalStateException("Payload codec provider is already set!");
 		}
 
+		this.side = side;
 		this.customPayloadTypeProvider = customPayloadTypeProvider;
 	}
 
@@ -51,13 +60,28 @@ public abstract class CustomPayloadPacketCodecMixin<B extends PacketByteBuf> imp
 	}, at = @At(value = "INVOKE", target = "Lnet/minecraft/network/packet/CustomPayload$1;getCodec(Lnet/minecraft/util/Identifier;)Lnet/minecraft/network/codec/PacketCodec;"))
 	private PacketCodec<B, ? extends CustomPayload> wrapGetCodec(@Coerce PacketCodec<B, CustomPayload> instance, Identifier identifier, Operation<PacketCodec<B, CustomPayload>> original, B packetByteBuf) {
 		if (customPayloadTypeProvider != null) {
-			CustomPayload.Type<B, ? extends CustomPayload> payloadType = customPayloadTypeProvider.get(packetByteBuf, identifier);
+			PacketCodec<B, ? extends CustomPayload> codec = customPayloadTypeProvider.getCodec(packetByteBuf, identifier);
 
-			if (payloadType != null) {
-				return payloadType.codec();
+			if (codec != null) {
+				return codec;
 			}
 		}
 
 		return original.call(instance, identifier);
 	}
+
+	@Inject(method = "encode(Lnet/minecraft/network/PacketByteBuf;Lnet/minecraft/network/packet/CustomPayload$Id;Lnet/minecraft/network/packet/CustomPayload;)V", at = @At("HEAD"), cancellable = true)
+	private void encodePreEncoded(B packetByteBuf, CustomPayload.Id<?> id, CustomPayload payload, CallbackInfo ci) {
+		if (payload instanceof PreEncodedPayload preEncodedPayload) {
+			packetByteBuf.writeIdentifier(id.id());
+			long start = System.nanoTime();
+			preEncodedPayload.write(packetByteBuf);
+
+			if (side != null) {
+				NetworkingMetricsImpl.recordEncode(side, id.id(), preEncodedPayload.data().readableBytes(), System.nanoTime() - start);
+			}
+
+			ci.cancel();
+		}
+	}
 }
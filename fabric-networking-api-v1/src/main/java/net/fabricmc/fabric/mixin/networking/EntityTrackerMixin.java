@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.mixin.networking;
+
+import java.util.Set;
+
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Mutable;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import net.minecraft.server.network.PlayerAssociatedNetworkHandler;
+
+import net.fabricmc.fabric.impl.networking.server.TrackingListenerSet;
+
+@Mixin(targets = "net/minecraft/server/world/ServerChunkLoadingManager$EntityTracker")
+abstract class EntityTrackerMixin {
+	@Shadow
+	@Final
+	@Mutable
+	private Set<PlayerAssociatedNetworkHandler> listeners;
+
+	@Inject(method = "<init>", at = @At("TAIL"))
+	private void wrapListeners(CallbackInfo ci) {
+		// Allows PlayerLookup.tracking(Entity) to reuse the set of players until it changes.
+		listeners = new TrackingListenerSet(listeners);
+	}
+}
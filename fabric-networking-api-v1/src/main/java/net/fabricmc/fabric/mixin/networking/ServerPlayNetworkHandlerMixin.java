@@ -60,6 +60,11 @@ abstract class ServerPlayNetworkHandlerMixin extends ServerCommonNetworkHandler
 		}
 	}
 
+	@Inject(method = "tick", at = @At("TAIL"))
+	private void flushBundledPackets(CallbackInfo ci) {
+		this.addon.flushBundledPackets();
+	}
+
 	@Override
 	public ServerPlayNetworkAddon getAddon() {
 		return this.addon;
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.networking.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.network.ClientConnection;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.network.packet.Packet;
+import net.minecraft.network.packet.s2c.common.CustomPayloadS2CPacket;
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.fabricmc.fabric.impl.networking.AbstractChanneledNetworkAddon;
+import net.fabricmc.fabric.impl.networking.BundlePayload;
+import net.fabricmc.fabric.impl.networking.PayloadBundler;
+import net.fabricmc.fabric.impl.networking.PayloadTypeRegistryImpl;
+import net.fabricmc.fabric.impl.networking.payload.PreEncodedPayload;
+import net.fabricmc.fabric.impl.networking.server.ServerNetworkingImpl;
+
+public class PayloadBundlerTests {
+	private ClientConnection connection;
+	private TestNetworkAddon addon;
+
+	@BeforeAll
+	static void beforeAll() {
+		SharedConstants.createGameVersion();
+		Bootstrap.initialize();
+
+		PayloadTypeRegistry.playS2C().register(BundledPayload.ID, BundledPayload.CODEC);
+	}
+
+	@BeforeEach
+	void setUp() {
+		connection = mock(ClientConnection.class);
+		addon = new TestNetworkAddon(connection);
+		addon.addSendableChannels(BundlePayload.ID.id(), BundledPayload.ID.id());
+	}
+
+	@Test
+	void flushSendsQueuedPayloadsAsBundle() {
+		PayloadBundler bundler = new PayloadBundler(PayloadTypeRegistryImpl.PLAY_S2C, () -> null);
+		List<CustomPayload> sent = new ArrayList<>();
+
+		bundler.queue(new BundledPayload("Hello"));
+		bundler.queue(new BundledPayload("World"));
+		bundler.flush(sent::add);
+
+		assertEquals(1, sent.size());
+		BundlePayload bundle = assertInstanceOf(BundlePayload.class, sent.getFirst());
+		assertEquals(List.of("Hello", "World"), bundle.payloads().stream().map(PayloadBundlerTests::decode).toList());
+
+		// The queue is emptied by the flush.
+		sent.clear();
+		bundler.flush(sent::add);
+		assertTrue(sent.isEmpty());
+	}
+
+	@Test
+	void flushSendsSinglePayloadAlone() {
+		PayloadBundler bundler = new PayloadBundler(PayloadTypeRegistryImpl.PLAY_S2C, () -> null);
+		List<CustomPayload> sent = new ArrayList<>();
+
+		bundler.queue(new BundledPayload("Hello"));
+		bundler.flush(sent::add);
+
+		assertEquals(1, sent.size());
+		assertEquals("Hello", decode(sent.getFirst()));
+	}
+
+	@Test
+	void flushSplitsLargeBundles() {
+		PayloadBundler bundler = new PayloadBundler(PayloadTypeRegistryImpl.PLAY_S2C, () -> null);
+		List<CustomPayload> sent = new ArrayList<>();
+		String large = "a".repeat(20000);
+
+		bundler.queue(new BundledPayload(large));
+		bundler.queue(new BundledPayload(large));
+		bundler.flush(sent::add);
+
+		// Both payloads don't fit in a single bundle, so each is sent on its own.
+		assertEquals(2, sent.size());
+		assertEquals(large, decode(sent.get(0)));
+		assertEquals(large, decode(sent.get(1)));
+	}
+
+	@Test
+	void flushSendsUnregisteredPayloadsInOrder() {
+		PayloadBundler bundler = new PayloadBundler(PayloadTypeRegistryImpl.PLAY_S2C, () -> null);
+		List<CustomPayload> sent = new ArrayList<>();
+		UnregisteredPayload unregistered = new UnregisteredPayload();
+
+		bundler.queue(new BundledPayload("A"));
+		bundler.queue(new BundledPayload("B"));
+		bundler.queue(unregistered);
+		bundler.queue(new BundledPayload("C"));
+		bundler.flush(sent::add);
+
+		assertEquals(3, sent.size());
+		assertEquals(List.of("A", "B"), assertInstanceOf(BundlePayload.class, sent.get(0)).payloads().stream().map(PayloadBundlerTests::decode).toList());
+		assertSame(unregistered, sent.get(1));
+		assertEquals("C", decode(sent.get(2)));
+	}
+
+	@Test
+	void bundledSendsAreQueuedUntilFlush() {
+		addon.sendPacketBundled(new BundledPayload("Hello"));
+		addon.sendPacketBundled(new BundledPayload("World"));
+
+		verify(connection, never()).send(any(), any());
+
+		// Called at the end of the tick.
+		addon.flushBundledPackets();
+
+		List<CustomPayloadS2CPacket> packets = sentPackets();
+		assertEquals(1, packets.size());
+		BundlePayload bundle = assertInstanceOf(BundlePayload.class, packets.getFirst().payload());
+		assertEquals(List.of("Hello", "World"), bundle.payloads().stream().map(PayloadBundlerTests::decode).toList());
+	}
+
+	@Test
+	void localConnectionIsNotBundled() {
+		when(connection.isLocal()).thenReturn(true);
+		BundledPayload payload = new BundledPayload("Hello");
+
+		addon.sendPacketBundled(payload);
+
+		List<CustomPayloadS2CPacket> packets = sentPackets();
+		assertEquals(1, packets.size());
+		assertSame(payload, packets.getFirst().payload());
+	}
+
+	@Test
+	void unsupportedBundleChannelIsNotBundled() {
+		addon = new TestNetworkAddon(connection);
+		addon.addSendableChannels(BundledPayload.ID.id());
+		BundledPayload payload = new BundledPayload("Hello");
+
+		addon.sendPacketBundled(payload);
+
+		List<CustomPayloadS2CPacket> packets = sentPackets();
+		assertEquals(1, packets.size());
+		assertSame(payload, packets.getFirst().payload());
+	}
+
+	private List<CustomPayloadS2CPacket> sentPackets() {
+		ArgumentCaptor<CustomPayloadS2CPacket> captor = ArgumentCaptor.forClass(CustomPayloadS2CPacket.class);
+		verify(connection, atLeast(0)).send(captor.capture(), any());
+		return captor.getAllValues();
+	}
+
+	private static String decode(CustomPayload payload) {
+		PreEncodedPayload preEncodedPayload = assertInstanceOf(PreEncodedPayload.class, payload);
+		assertEquals(BundledPayload.ID, preEncodedPayload.id());
+		return BundledPayload.CODEC.decode(new RegistryByteBuf(preEncodedPayload.data().duplicate(), null)).value();
+	}
+
+	private record BundledPayload(String value) implements CustomPayload {
+		public static final CustomPayload.Id<BundledPayload> ID = new Id<>(Identifier.of("fabric:bundled_payload"));
+		public static final PacketCodec<RegistryByteBuf, BundledPayload> CODEC = PacketCodecs.STRING.xmap(BundledPayload::new, BundledPayload::value).cast();
+
+		@Override
+		public Id<? extends CustomPayload> getId() {
+			return ID;
+		}
+	}
+
+	private record UnregisteredPayload() implements CustomPayload {
+		public static final CustomPayload.Id<UnregisteredPayload> ID = new Id<>(Identifier.of("fabric:unregistered_payload"));
+
+		@Override
+		public Id<? extends CustomPayload> getId() {
+			return ID;
+		}
+	}
+
+	private static final class TestNetworkAddon extends AbstractChanneledNetworkAddon<ServerPlayNetworking.PlayPayloadHandler<?>> {
+		private TestNetworkAddon(ClientConnection connection) {
+			super(ServerNetworkingImpl.PLAY, connection, "TestNetworkAddon");
+			this.bundler = new PayloadBundler(PayloadTypeRegistryImpl.PLAY_S2C, () -> null);
+		}
+
+		private void addSendableChannels(Identifier... channelNames) {
+			this.sendableChannels.addAll(List.of(channelNames));
+		}
+
+		@Override
+		protected void receive(ServerPlayNetworking.PlayPayloadHandler<?> handler, CustomPayload payload) { }
+
+		@Override
+		protected void schedule(Runnable task) {
+			task.run();
+		}
+
+		@Override
+		protected void invokeRegisterEvent(List<Identifier> ids) { }
+
+		@Override
+		protected void invokeUnregisterEvent(List<Identifier> ids) { }
+
+		@Override
+		protected void invokeInitEvent() { }
+
+		@Override
+		protected void handleRegistration(Identifier channelName) { }
+
+		@Override
+		protected void handleUnregistration(Identifier channelName) { }
+
+		@Override
+		protected void invokeDisconnectEvent() { }
+
+		@Override
+		protected boolean isReservedChannel(Identifier channelName) {
+			return false;
+		}
+
+		@Override
+		public Packet<?> createPacket(CustomPayload payload) {
+			return new CustomPayloadS2CPacket(payload);
+		}
+	}
+}
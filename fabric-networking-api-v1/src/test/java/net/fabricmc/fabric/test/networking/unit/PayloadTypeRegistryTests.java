@@ -17,8 +17,13 @@
 package net.fabricmc.fabric.test.networking.unit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.List;
+
+import io.netty.handler.codec.DecoderException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -35,6 +40,9 @@ import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.impl.networking.BundlePayload;
+import net.fabricmc.fabric.impl.networking.PayloadTypeRegistryImpl;
+import net.fabricmc.fabric.impl.networking.payload.PreEncodedPayload;
 
 public class PayloadTypeRegistryTests {
 	@BeforeAll
@@ -81,6 +89,58 @@ public class PayloadTypeRegistryTests {
 		}
 	}
 
+	@Test
+	void S2CPlayPreEncoded() {
+		PreEncodedPayload preEncodedPayload = PreEncodedPayload.encode(new S2CPlayPayload("Hello"), null);
+		var packetToSend = new CustomPayloadS2CPacket(preEncodedPayload);
+
+		// The same packet is encoded by several connections.
+		for (int i = 0; i < 2; i++) {
+			RegistryByteBuf buf = new RegistryByteBuf(PacketByteBufs.create(), null);
+			CustomPayloadS2CPacket.PLAY_CODEC.encode(buf, packetToSend);
+
+			CustomPayloadS2CPacket decodedPacket = CustomPayloadS2CPacket.PLAY_CODEC.decode(buf);
+
+			if (decodedPacket.payload() instanceof S2CPlayPayload payload) {
+				assertEquals("Hello", payload.value());
+			} else {
+				fail();
+			}
+		}
+	}
+
+	@Test
+	void S2CPlayBundle() {
+		PacketCodec<RegistryByteBuf, BundlePayload> codec = BundlePayload.codec(PayloadTypeRegistryImpl.PLAY_S2C);
+		RegistryByteBuf buf = new RegistryByteBuf(PacketByteBufs.create(), null);
+
+		codec.encode(buf, new BundlePayload(List.of(
+				PreEncodedPayload.encode(new S2CPlayPayload("Hello"), null),
+				PreEncodedPayload.encode(new S2CPlayPayload("World"), null)
+		)));
+
+		BundlePayload decoded = codec.decode(buf);
+
+		assertEquals(2, decoded.payloads().size());
+		assertEquals("Hello", assertInstanceOf(S2CPlayPayload.class, decoded.payloads().get(0)).value());
+		assertEquals("World", assertInstanceOf(S2CPlayPayload.class, decoded.payloads().get(1)).value());
+		assertEquals(0, buf.readableBytes());
+	}
+
+	@Test
+	void S2CPlayNestedBundle() {
+		PacketCodec<RegistryByteBuf, BundlePayload> codec = BundlePayload.codec(PayloadTypeRegistryImpl.PLAY_S2C);
+		RegistryByteBuf buf = new RegistryByteBuf(PacketByteBufs.create(), null);
+
+		// A bundle containing an empty bundle.
+		buf.writeVarInt(1);
+		buf.writeIdentifier(BundlePayload.ID.id());
+		buf.writeVarInt(1);
+		buf.writeVarInt(0);
+
+		assertThrows(DecoderException.class, () -> codec.decode(buf));
+	}
+
 	@Test
 	void C2SConfig() {
 		PacketByteBuf buf = PacketByteBufs.create();
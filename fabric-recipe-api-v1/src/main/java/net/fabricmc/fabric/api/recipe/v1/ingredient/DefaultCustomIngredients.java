@@ -125,7 +125,7 @@ public final class DefaultCustomIngredients {
 		Objects.requireNonNull(base, "Base ingredient cannot be null");
 		Objects.requireNonNull(components, "Component changes cannot be null");
 
-		return new ComponentsIngredient(base, components).toVanilla();
+		return ComponentsIngredient.of(base, components).toVanilla();
 	}
 
 	/**
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.recipe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.BlastingRecipe;
+import net.minecraft.recipe.CampfireCookingRecipe;
+import net.minecraft.recipe.Ingredient;
+import net.minecraft.recipe.Recipe;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.recipe.RecipeType;
+import net.minecraft.recipe.ShapedRecipe;
+import net.minecraft.recipe.ShapelessRecipe;
+import net.minecraft.recipe.SmeltingRecipe;
+import net.minecraft.recipe.SmithingTransformRecipe;
+import net.minecraft.recipe.SmithingTrimRecipe;
+import net.minecraft.recipe.SmokingRecipe;
+import net.minecraft.recipe.StonecuttingRecipe;
+import net.minecraft.recipe.input.CraftingRecipeInput;
+import net.minecraft.recipe.input.RecipeInput;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.world.World;
+
+import net.fabricmc.fabric.impl.recipe.ingredient.IndexableIngredient;
+
+/**
+ * Speeds up recipe lookups by only testing the recipes that could accept the first non-empty input stack.
+ *
+ * <p>Recipes are indexed by the items accepted by their ingredients, per recipe type. Only recipe classes for which every
+ * non-empty input stack must be accepted by one of the ingredients of their {@linkplain Recipe#getIngredientPlacement() placement}
+ * are indexed; other recipes, including special crafting recipes and modded recipes, are candidates for every input.
+ * For ingredients that {@linkplain IndexableIngredient require testing}, a superset of their accepted items is used.
+ * Candidates are tested in the original order, so lookups return the same results as without the index.
+ *
+ * <p>Additionally, the position of the last recipe that matched is remembered for recent item layouts.
+ * Candidates before it are skipped when they are all deterministic, i.e. vanilla recipes whose ingredients
+ * don't require testing, since they can only match depending on the items of the input.
+ *
+ * <p>Each type is indexed the first time it is looked up after a reload, once tags are bound.
+ */
+public final class RecipeLookupIndex {
+	public static final boolean ENABLED = !Boolean.getBoolean("fabric.recipe.disableLookupIndex");
+	private static final int CACHE_SIZE = 256;
+	private static final Set<Class<?>> INDEXABLE_RECIPES = Set.of(
+			ShapedRecipe.class,
+			ShapelessRecipe.class,
+			SmeltingRecipe.class,
+			BlastingRecipe.class,
+			SmokingRecipe.class,
+			CampfireCookingRecipe.class,
+			StonecuttingRecipe.class,
+			SmithingTransformRecipe.class,
+			SmithingTrimRecipe.class
+	);
+
+	private final Function<RecipeType<?>, Collection<? extends RecipeEntry<?>>> recipesByType;
+	private final Map<RecipeType<?>, TypeIndex> indexes = new ConcurrentHashMap<>();
+	/**
+	 * The last matches, indexed by the hash of their input. Entries are immutable and replaced on collision,
+	 * so they can be read and written without locking.
+	 */
+	private final LastMatch[] lastMatches = new LastMatch[CACHE_SIZE];
+
+	public RecipeLookupIndex(Function<RecipeType<?>, Collection<? extends RecipeEntry<?>>> recipesByType) {
+		this.recipesByType = recipesByType;
+	}
+
+	/**
+	 * Same as {@code PreparedRecipes.find}: returns the recipes of the given type matching the input, in order.
+	 */
+	@SuppressWarnings("unchecked")
+	public <I extends RecipeInput, T extends Recipe<I>> Stream<RecipeEntry<T>> find(RecipeType<T> type, I input, World world) {
+		if (input.isEmpty()) {
+			return Stream.empty();
+		}
+
+		final TypeIndex index = indexes.computeIfAbsent(type, t -> new TypeIndex(recipesByType.apply(t)));
+		final Candidates candidates = index.getCandidates(getFirstNonEmptyItem(input));
+
+		if (candidates.entries.isEmpty()) {
+			return Stream.empty();
+		}
+
+		final int hash = LastMatch.hash(type, input);
+		final int slot = hash & (CACHE_SIZE - 1);
+		final LastMatch lastMatch = lastMatches[slot];
+		final int size = candidates.entries.size();
+		final boolean cached = lastMatch != null && lastMatch.matches(hash, type, input) && lastMatch.position < size;
+		int position = cached ? lastMatch.position : 0;
+
+		while (position < size && !((RecipeEntry<T>) candidates.entries.get(position)).value().matches(input, world)) {
+			position++;
+		}
+
+		if (position == size) {
+			return Stream.empty();
+		}
+
+		// Skipping the previous candidates is only valid if they can't match other stacks of the same items.
+		if (position <= candidates.firstNonDeterministic && !(cached && lastMatch.position == position)) {
+			lastMatches[slot] = LastMatch.of(hash, type, input, position);
+		}
+
+		final RecipeEntry<T> first = (RecipeEntry<T>) candidates.entries.get(position);
+		final int next = position + 1;
+
+		// Most callers only need the first match, the others are only tested when requested.
+		return Stream.concat(Stream.of(first), IntStream.range(next, size)
+				.mapToObj(i -> (RecipeEntry<T>) candidates.entries.get(i))
+				.filter(entry -> entry.value().matches(input, world)));
+	}
+
+	@Nullable
+	private static Item getFirstNonEmptyItem(RecipeInput input) {
+		for (int i = 0; i < input.size(); i++) {
+			final ItemStack stack = input.getStackInSlot(i);
+
+			if (!stack.isEmpty()) {
+				return stack.getItem();
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * @param entries the candidate recipes, in order
+	 * @param firstNonDeterministic the position of the first recipe that isn't deterministic, or the number of candidates
+	 */
+	private record Candidates(List<RecipeEntry<?>> entries, int firstNonDeterministic) { }
+
+	private static final class TypeIndex {
+		private final RecipeEntry<?>[] entries;
+		private final boolean[] deterministic;
+		private final Reference2ObjectOpenHashMap<Item, IntArrayList> ordinalsByItem = new Reference2ObjectOpenHashMap<>();
+		private final IntArrayList unindexedOrdinals = new IntArrayList();
+		private final Map<Item, Candidates> candidatesByItem = new ConcurrentHashMap<>();
+		private final Candidates unindexedCandidates;
+
+		private TypeIndex(Collection<? extends RecipeEntry<?>> recipes) {
+			entries = recipes.toArray(new RecipeEntry<?>[0]);
+			deterministic = new boolean[entries.length];
+
+			for (int i = 0; i < entries.length; i++) {
+				final Recipe<?> recipe = entries[i].value();
+				final Collection<Item> items = getCandidateItems(recipe);
+
+				if (items == null) {
+					unindexedOrdinals.add(i);
+					continue;
+				}
+
+				deterministic[i] = recipe.getIngredientPlacement().getIngredients().stream().noneMatch(Ingredient::requiresTesting);
+
+				for (Item item : items) {
+					ordinalsByItem.computeIfAbsent(item, it -> new IntArrayList()).add(i);
+				}
+			}
+
+			unindexedCandidates = merge(IntArrayList.of(), unindexedOrdinals);
+		}
+
+		@Nullable
+		private static Collection<Item> getCandidateItems(Recipe<?> recipe) {
+			if (!INDEXABLE_RECIPES.contains(recipe.getClass()) || recipe.getIngredientPlacement().hasNoPlacement()) {
+				return null;
+			}
+
+			final Set<Item> items = new ReferenceOpenHashSet<>();
+
+			for (Ingredient ingredient : recipe.getIngredientPlacement().getIngredients()) {
+				final Collection<RegistryEntry<Item>> candidates = IndexableIngredient.getCandidateItems(ingredient);
+
+				if (candidates == null) {
+					return null;
+				}
+
+				for (RegistryEntry<Item> entry : candidates) {
+					items.add(entry.value());
+				}
+			}
+
+			return items;
+		}
+
+		private Candidates getCandidates(@Nullable Item item) {
+			if (item == null) {
+				return unindexedCandidates;
+			}
+
+			return candidatesByItem.computeIfAbsent(item, it -> {
+				final IntArrayList ordinals = ordinalsByItem.get(it);
+				return ordinals == null ? unindexedCandidates : merge(ordinals, unindexedOrdinals);
+			});
+		}
+
+		private Candidates merge(IntArrayList indexed, IntArrayList unindexed) {
+			final List<RecipeEntry<?>> merged = new ArrayList<>(indexed.size() + unindexed.size());
+			int firstNonDeterministic = -1;
+			int i = 0;
+			int j = 0;
+
+			while (i < indexed.size() || j < unindexed.size()) {
+				final int ordinal;
+
+				if (j == unindexed.size() || (i < indexed.size() && indexed.getInt(i) < unindexed.getInt(j))) {
+					ordinal = indexed.getInt(i++);
+				} else {
+					ordinal = unindexed.getInt(j++);
+				}
+
+				if (firstNonDeterministic == -1 && !deterministic[ordinal]) {
+					firstNonDeterministic = merged.size();
+				}
+
+				merged.add(entries[ordinal]);
+			}
+
+			return new Candidates(List.copyOf(merged), firstNonDeterministic == -1 ? merged.size() : firstNonDeterministic);
+		}
+	}
+
+	/**
+	 * The position of the last match for the items of an input, in order,
+	 * which together with the recipe type determine the result of deterministic recipes.
+	 */
+	private record LastMatch(int hash, RecipeType<?> type, int width, Item[] items, int position) {
+		private static LastMatch of(int hash, RecipeType<?> type, RecipeInput input, int position) {
+			final Item[] items = new Item[input.size()];
+
+			for (int i = 0; i < items.length; i++) {
+				items[i] = input.getStackInSlot(i).getItem();
+			}
+
+			return new LastMatch(hash, type, getWidth(input), items, position);
+		}
+
+		private static int hash(RecipeType<?> type, RecipeInput input) {
+			int hash = 31 * type.hashCode() + getWidth(input);
+
+			for (int i = 0; i < input.size(); i++) {
+				hash = 31 * hash + input.getStackInSlot(i).getItem().hashCode();
+			}
+
+			return HashCommon.mix(hash);
+		}
+
+		private static int getWidth(RecipeInput input) {
+			return input instanceof CraftingRecipeInput crafting ? crafting.getWidth() : input.size();
+		}
+
+		private boolean matches(int hash, RecipeType<?> type, RecipeInput input) {
+			if (this.hash != hash || this.type != type || width != getWidth(input) || items.length != input.size()) {
+				return false;
+			}
+
+			for (int i = 0; i < items.length; i++) {
+				if (items[i] != input.getStackInSlot(i).getItem()) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+}
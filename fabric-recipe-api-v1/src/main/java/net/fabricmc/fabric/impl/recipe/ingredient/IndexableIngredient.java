@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.recipe.ingredient;
+
+import java.util.Collection;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.item.Item;
+import net.minecraft.recipe.Ingredient;
+import net.minecraft.registry.entry.RegistryEntry;
+
+import net.fabricmc.fabric.api.recipe.v1.ingredient.CustomIngredient;
+
+/**
+ * Implemented by built-in custom ingredients that {@linkplain CustomIngredient#requiresTesting() require testing},
+ * but can only match stacks of a known set of items, so that stacks of other items can be rejected without testing them.
+ */
+public interface IndexableIngredient {
+	/**
+	 * @return a superset of the items accepted by this ingredient, or {@code null} if it is not known
+	 */
+	@Nullable
+	Collection<RegistryEntry<Item>> getCandidateItems();
+
+	/**
+	 * @return a superset of the items accepted by the ingredient, or {@code null} if it is not known
+	 */
+	@Nullable
+	static Collection<RegistryEntry<Item>> getCandidateItems(Ingredient ingredient) {
+		// Ingredients that don't require testing accept exactly their matching items.
+		if (!ingredient.requiresTesting()) {
+			return ingredient.getMatchingItems();
+		}
+
+		if (ingredient.getCustomIngredient() instanceof IndexableIngredient indexable) {
+			return indexable.getCandidateItems();
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.recipe.ingredient;
+
+import java.util.Collection;
+import java.util.List;
+
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.Ingredient;
+import net.minecraft.registry.entry.RegistryEntry;
+
+/**
+ * Maps items to the ingredients of a shapeless recipe that may accept them, as a bit mask of ingredient indices.
+ *
+ * <p>Ingredients for which the accepted items are {@linkplain IndexableIngredient#getCandidateItems(Ingredient) not known}
+ * are candidates for every stack.
+ */
+public final class ShapelessIngredientIndex {
+	public static final int MAX_INGREDIENTS = Long.SIZE;
+
+	private final Reference2LongOpenHashMap<Item> ingredientsByItem;
+	private final long unindexedIngredients;
+	private final long allIngredients;
+
+	private ShapelessIngredientIndex(Reference2LongOpenHashMap<Item> ingredientsByItem, long unindexedIngredients, long allIngredients) {
+		this.ingredientsByItem = ingredientsByItem;
+		this.unindexedIngredients = unindexedIngredients;
+		this.allIngredients = allIngredients;
+	}
+
+	/**
+	 * @return the index of the ingredients, or {@code null} if there are too many ingredients to index
+	 */
+	@Nullable
+	public static ShapelessIngredientIndex create(List<Ingredient> ingredients) {
+		if (ingredients.size() > MAX_INGREDIENTS) {
+			return null;
+		}
+
+		Reference2LongOpenHashMap<Item> ingredientsByItem = new Reference2LongOpenHashMap<>();
+		long unindexedIngredients = 0;
+
+		for (int i = 0; i < ingredients.size(); ++i) {
+			final long bit = 1L << i;
+			Collection<RegistryEntry<Item>> candidates = IndexableIngredient.getCandidateItems(ingredients.get(i));
+
+			if (candidates == null) {
+				unindexedIngredients |= bit;
+				continue;
+			}
+
+			for (RegistryEntry<Item> entry : candidates) {
+				ingredientsByItem.put(entry.value(), ingredientsByItem.getLong(entry.value()) | bit);
+			}
+		}
+
+		ingredientsByItem.trim();
+		long allIngredients = ingredients.size() == MAX_INGREDIENTS ? -1L : (1L << ingredients.size()) - 1;
+		return new ShapelessIngredientIndex(ingredientsByItem, unindexedIngredients, allIngredients);
+	}
+
+	/**
+	 * @return the bit mask of the ingredients that may accept the stack
+	 */
+	public long getCandidates(ItemStack stack) {
+		return ingredientsByItem.getLong(stack.getItem()) | unindexedIngredients;
+	}
+
+	/**
+	 * @return the bit mask of all the ingredients
+	 */
+	public long getAllIngredients() {
+		return allIngredients;
+	}
+}
@@ -20,6 +20,8 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.item.ItemStack;
 import net.minecraft.recipe.Ingredient;
 
@@ -28,26 +30,50 @@ import net.minecraft.recipe.Ingredient;
  *
  * <p>The problem to solve is a maximum cardinality bipartite matching, for which this implementation uses the augmenting path algorithm.
  * This has good performance in simple cases, and sufficient O(N^3) asymptotic complexity in the worst case.
+ *
+ * <p>When a {@link ShapelessIngredientIndex} is available, stacks are only tested against the ingredients that may accept their item,
+ * and the match fails as soon as a stack has no matching ingredient. Instances are reused per thread to avoid allocating on every match.
  */
 public class ShapelessMatch {
+	private static final ThreadLocal<ShapelessMatch> POOL = ThreadLocal.withInitial(() -> new ShapelessMatch(9));
+
 	private final int[] match;
 	/**
 	 * The first {@code size} bits are for the visited array (on the left partition).
 	 * The remaining {@code size * size} bits are for the adjacency matrix.
 	 */
 	private final BitSet bitSet;
+	private int size;
+	private boolean inUse;
+
+	private ShapelessMatch(int capacity) {
+		match = new int[capacity];
+		bitSet = new BitSet(capacity * (capacity+1));
+	}
+
+	private static ShapelessMatch acquire(int size) {
+		ShapelessMatch m = POOL.get();
+
+		if (m.inUse) {
+			// Only happens if an ingredient matches a recipe while being tested, don't bother pooling.
+			m = new ShapelessMatch(size);
+		} else if (m.match.length < size) {
+			m = new ShapelessMatch(size);
+			POOL.set(m);
+		}
 
-	private ShapelessMatch(int size) {
-		match = new int[size];
-		bitSet = new BitSet(size * (size+1));
+		m.inUse = true;
+		m.size = size;
+		m.bitSet.clear();
+		return m;
 	}
 
 	private boolean augment(int l) {
 		if (bitSet.get(l)) return false;
 		bitSet.set(l);
 
-		for (int r = 0; r < match.length; ++r) {
-			if (bitSet.get(match.length + l * match.length + r)) {
+		for (int r = 0; r < size; ++r) {
+			if (bitSet.get(size + l * size + r)) {
 				if (match[r] == -1 || augment(match[r])) {
 					match[r] = l;
 					return true;
@@ -58,34 +84,89 @@ public class ShapelessMatch {
 		return false;
 	}
 
-	public static boolean isMatch(List<ItemStack> stacks, List<Ingredient> ingredients) {
-		if (stacks.size() != ingredients.size()) {
+	/**
+	 * @param stacks the stacks in the crafting grid, empty stacks are ignored
+	 * @param stackCount the number of non-empty stacks
+	 * @param ingredients the ingredients of the recipe
+	 * @param index the index of the ingredients, or {@code null} to test every stack against every ingredient
+	 */
+	public static boolean isMatch(List<ItemStack> stacks, int stackCount, List<Ingredient> ingredients, @Nullable ShapelessIngredientIndex index) {
+		if (stackCount != ingredients.size()) {
 			return false;
 		}
 
-		ShapelessMatch m = new ShapelessMatch(ingredients.size());
+		ShapelessMatch m = acquire(ingredients.size());
+
+		try {
+			return m.isMatch(stacks, ingredients, index);
+		} finally {
+			m.inUse = false;
+		}
+	}
+
+	private boolean isMatch(List<ItemStack> stacks, List<Ingredient> ingredients, @Nullable ShapelessIngredientIndex index) {
+		long matchedIngredients = 0;
+		int i = 0;
 
 		// Build stack -> ingredient bipartite graph
-		for (int i = 0; i < stacks.size(); ++i) {
-			ItemStack stack = stacks.get(i);
+		for (int s = 0; s < stacks.size(); ++s) {
+			ItemStack stack = stacks.get(s);
+
+			if (stack.isEmpty()) {
+				continue;
+			}
+
+			if (i == size) {
+				return false;
+			}
 
-			for (int j = 0; j < ingredients.size(); ++j) {
-				if (ingredients.get(j).test(stack)) {
-					m.bitSet.set((i + 1) * m.match.length + j);
+			boolean hasMatch = false;
+
+			if (index != null) {
+				long candidates = index.getCandidates(stack);
+
+				while (candidates != 0) {
+					int j = Long.numberOfTrailingZeros(candidates);
+					candidates &= candidates - 1;
+
+					if (ingredients.get(j).test(stack)) {
+						bitSet.set((i + 1) * size + j);
+						matchedIngredients |= 1L << j;
+						hasMatch = true;
+					}
+				}
+			} else {
+				for (int j = 0; j < size; ++j) {
+					if (ingredients.get(j).test(stack)) {
+						bitSet.set((i + 1) * size + j);
+						hasMatch = true;
+					}
 				}
 			}
+
+			// A stack that matches no ingredient can't be part of a perfect matching
+			if (!hasMatch) {
+				return false;
+			}
+
+			++i;
+		}
+
+		// Same for an ingredient that matches no stack
+		if (index != null && matchedIngredients != index.getAllIngredients()) {
+			return false;
 		}
 
 		// Init matches to -1 (no match)
-		Arrays.fill(m.match, -1);
+		Arrays.fill(match, 0, size, -1);
 
 		// Try to find an augmenting path for each stack
-		for (int i = 0; i < ingredients.size(); ++i) {
-			if (!m.augment(i)) {
+		for (int l = 0; l < size; ++l) {
+			if (!augment(l)) {
 				return false;
 			}
 
-			m.bitSet.set(0, m.match.length, false);
+			bitSet.clear(0, size);
 		}
 
 		return true;
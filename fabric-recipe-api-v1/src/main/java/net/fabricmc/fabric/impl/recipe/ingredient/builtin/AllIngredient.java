@@ -17,9 +17,11 @@
 package net.fabricmc.fabric.impl.recipe.ingredient.builtin;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import com.mojang.serialization.MapCodec;
+import org.jetbrains.annotations.Nullable;
 
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -28,8 +30,9 @@ import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.api.recipe.v1.ingredient.CustomIngredientSerializer;
+import net.fabricmc.fabric.impl.recipe.ingredient.IndexableIngredient;
 
-public class AllIngredient extends CombinedIngredient {
+public class AllIngredient extends CombinedIngredient implements IndexableIngredient {
 	private static final MapCodec<AllIngredient> CODEC = Ingredient.CODEC
 			.listOf()
 			.fieldOf("ingredients")
@@ -66,6 +69,21 @@ public class AllIngredient extends CombinedIngredient {
 		return previewStacks;
 	}
 
+	@Override
+	@Nullable
+	public Collection<RegistryEntry<Item>> getCandidateItems() {
+		// Every sub ingredient must match, so the candidates of any of them will do.
+		for (Ingredient ingredient : ingredients) {
+			Collection<RegistryEntry<Item>> candidates = IndexableIngredient.getCandidateItems(ingredient);
+
+			if (candidates != null) {
+				return candidates;
+			}
+		}
+
+		return null;
+	}
+
 	@Override
 	public CustomIngredientSerializer<?> getSerializer() {
 		return SERIALIZER;
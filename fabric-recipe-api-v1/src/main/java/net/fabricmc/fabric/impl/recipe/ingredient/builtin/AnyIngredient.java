@@ -17,9 +17,11 @@
 package net.fabricmc.fabric.impl.recipe.ingredient.builtin;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import com.mojang.serialization.MapCodec;
+import org.jetbrains.annotations.Nullable;
 
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -28,8 +30,9 @@ import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.api.recipe.v1.ingredient.CustomIngredientSerializer;
+import net.fabricmc.fabric.impl.recipe.ingredient.IndexableIngredient;
 
-public class AnyIngredient extends CombinedIngredient {
+public class AnyIngredient extends CombinedIngredient implements IndexableIngredient {
 	private static final MapCodec<AnyIngredient> CODEC = Ingredient.CODEC
 			.listOf()
 			.fieldOf("ingredients")
@@ -64,6 +67,24 @@ public class AnyIngredient extends CombinedIngredient {
 		return previewStacks;
 	}
 
+	@Override
+	@Nullable
+	public Collection<RegistryEntry<Item>> getCandidateItems() {
+		List<RegistryEntry<Item>> candidates = new ArrayList<>();
+
+		for (Ingredient ingredient : ingredients) {
+			Collection<RegistryEntry<Item>> ingredientCandidates = IndexableIngredient.getCandidateItems(ingredient);
+
+			if (ingredientCandidates == null) {
+				return null;
+			}
+
+			candidates.addAll(ingredientCandidates);
+		}
+
+		return candidates;
+	}
+
 	@Override
 	public CustomIngredientSerializer<?> getSerializer() {
 		return SERIALIZER;
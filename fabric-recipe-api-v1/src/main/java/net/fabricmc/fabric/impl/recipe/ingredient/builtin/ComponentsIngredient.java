@@ -16,11 +16,14 @@
 
 package net.fabricmc.fabric.impl.recipe.ingredient.builtin;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import org.jetbrains.annotations.Nullable;
@@ -38,12 +41,24 @@ import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.api.recipe.v1.ingredient.CustomIngredient;
 import net.fabricmc.fabric.api.recipe.v1.ingredient.CustomIngredientSerializer;
+import net.fabricmc.fabric.impl.recipe.ingredient.IndexableIngredient;
 
-public class ComponentsIngredient implements CustomIngredient {
+public class ComponentsIngredient implements CustomIngredient, IndexableIngredient {
 	public static final CustomIngredientSerializer<ComponentsIngredient> SERIALIZER = new Serializer();
 
+	private static final Interner<ComponentsIngredient> INTERNER = Interners.newWeakInterner();
+
 	private final Ingredient base;
 	private final ComponentChanges components;
+	private final int hashCode;
+
+	// Components compiled into arrays, so that testing doesn't need to iterate the component changes.
+	private final ComponentType<?>[] requiredTypes;
+	private final Object[] requiredValues;
+	private final ComponentType<?>[] removedTypes;
+
+	@Nullable
+	private Ingredient vanilla;
 
 	public ComponentsIngredient(Ingredient base, ComponentChanges components) {
 		if (components.isEmpty()) {
@@ -52,6 +67,32 @@ public class ComponentsIngredient implements CustomIngredient {
 
 		this.base = base;
 		this.components = components;
+		this.hashCode = 31 * baseHashCode(base) + components.hashCode();
+
+		List<ComponentType<?>> requiredTypes = new ArrayList<>();
+		List<Object> requiredValues = new ArrayList<>();
+		List<ComponentType<?>> removedTypes = new ArrayList<>();
+
+		for (Map.Entry<ComponentType<?>, Optional<?>> entry : components.entrySet()) {
+			if (entry.getValue().isPresent()) {
+				requiredTypes.add(entry.getKey());
+				requiredValues.add(entry.getValue().get());
+			} else {
+				removedTypes.add(entry.getKey());
+			}
+		}
+
+		this.requiredTypes = requiredTypes.toArray(new ComponentType<?>[0]);
+		this.requiredValues = requiredValues.toArray();
+		this.removedTypes = removedTypes.toArray(new ComponentType<?>[0]);
+	}
+
+	/**
+	 * Returns a components ingredient equal to a new one with the given base and components,
+	 * sharing instances between equal ingredients.
+	 */
+	public static ComponentsIngredient of(Ingredient base, ComponentChanges components) {
+		return INTERNER.intern(new ComponentsIngredient(base, components));
 	}
 
 	@Override
@@ -59,30 +100,42 @@ public class ComponentsIngredient implements CustomIngredient {
 		if (!base.test(stack)) return false;
 
 		// None strict matching
-		for (Map.Entry<ComponentType<?>, Optional<?>> entry : components.entrySet()) {
-			final ComponentType<?> type = entry.getKey();
-			final Optional<?> value = entry.getValue();
-
-			if (value.isPresent()) {
-				// Expect the stack to contain a matching component
-				if (!stack.contains(type)) {
-					return false;
-				}
-
-				if (!Objects.equals(value.get(), stack.get(type))) {
-					return false;
-				}
-			} else {
-				// Expect the target stack to not contain this component
-				if (stack.contains(type)) {
-					return false;
-				}
+
+		// Expect the target stack to not contain removed components
+		for (ComponentType<?> type : removedTypes) {
+			if (stack.contains(type)) {
+				return false;
+			}
+		}
+
+		// Expect the stack to contain matching components
+		for (int i = 0; i < requiredTypes.length; i++) {
+			final Object value = stack.get(requiredTypes[i]);
+
+			if (value == null) {
+				return false;
+			}
+
+			if (value != requiredValues[i] && !requiredValues[i].equals(value)) {
+				return false;
 			}
 		}
 
 		return true;
 	}
 
+	/**
+	 * Shares the vanilla ingredient between all users of this ingredient, since it is interned.
+	 */
+	@Override
+	public Ingredient toVanilla() {
+		if (vanilla == null) {
+			vanilla = CustomIngredient.super.toVanilla();
+		}
+
+		return vanilla;
+	}
+
 	@Override
 	public List<RegistryEntry<Item>> getMatchingItems() {
 		return base.getMatchingItems();
@@ -101,6 +154,12 @@ public class ComponentsIngredient implements CustomIngredient {
 		return new SlotDisplay.StackSlotDisplay(stack);
 	}
 
+	@Override
+	@Nullable
+	public Collection<RegistryEntry<Item>> getCandidateItems() {
+		return IndexableIngredient.getCandidateItems(base);
+	}
+
 	@Override
 	public boolean requiresTesting() {
 		return true;
@@ -111,6 +170,39 @@ public class ComponentsIngredient implements CustomIngredient {
 		return SERIALIZER;
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		return o instanceof ComponentsIngredient other && hashCode == other.hashCode && baseEquals(base, other.base) && components.equals(other.components);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	/**
+	 * Vanilla ingredient equality does not apply to custom ingredients, which all share the same placeholder entries.
+	 * Custom bases are compared as custom ingredients instead, and other bases by their matching items.
+	 */
+	private static boolean baseEquals(Ingredient a, Ingredient b) {
+		if (a == b) return true;
+
+		CustomIngredient customA = a.getCustomIngredient();
+		CustomIngredient customB = b.getCustomIngredient();
+
+		if (customA != null || customB != null) {
+			return customA != null && customA.equals(customB);
+		}
+
+		return a.getMatchingItems().equals(b.getMatchingItems());
+	}
+
+	private static int baseHashCode(Ingredient base) {
+		CustomIngredient custom = base.getCustomIngredient();
+		return custom != null ? custom.hashCode() : base.getMatchingItems().hashCode();
+	}
+
 	private Ingredient getBase() {
 		return base;
 	}
@@ -126,12 +218,12 @@ public class ComponentsIngredient implements CustomIngredient {
 				instance.group(
 						Ingredient.CODEC.fieldOf("base").forGetter(ComponentsIngredient::getBase),
 						ComponentChanges.CODEC.fieldOf("components").forGetter(ComponentsIngredient::getComponents)
-				).apply(instance, ComponentsIngredient::new)
+				).apply(instance, ComponentsIngredient::of)
 		);
 		private static final PacketCodec<RegistryByteBuf, ComponentsIngredient> PACKET_CODEC = PacketCodec.tuple(
 				Ingredient.PACKET_CODEC, ComponentsIngredient::getBase,
 				ComponentChanges.PACKET_CODEC, ComponentsIngredient::getComponents,
-				ComponentsIngredient::new
+				ComponentsIngredient::of
 		);
 
 		@Override
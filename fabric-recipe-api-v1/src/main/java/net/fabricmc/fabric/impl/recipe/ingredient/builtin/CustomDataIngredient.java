@@ -16,10 +16,12 @@
 
 package net.fabricmc.fabric.impl.recipe.ingredient.builtin;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import org.jetbrains.annotations.Nullable;
 
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.component.type.NbtComponent;
@@ -37,8 +39,9 @@ import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.api.recipe.v1.ingredient.CustomIngredient;
 import net.fabricmc.fabric.api.recipe.v1.ingredient.CustomIngredientSerializer;
+import net.fabricmc.fabric.impl.recipe.ingredient.IndexableIngredient;
 
-public class CustomDataIngredient implements CustomIngredient {
+public class CustomDataIngredient implements CustomIngredient, IndexableIngredient {
 	public static final CustomIngredientSerializer<CustomDataIngredient> SERIALIZER = new Serializer();
 	private final Ingredient base;
 	private final NbtCompound nbt;
@@ -77,6 +80,12 @@ public class CustomDataIngredient implements CustomIngredient {
 		return new SlotDisplay.StackSlotDisplay(stack);
 	}
 
+	@Override
+	@Nullable
+	public Collection<RegistryEntry<Item>> getCandidateItems() {
+		return IndexableIngredient.getCandidateItems(base);
+	}
+
 	@Override
 	public boolean requiresTesting() {
 		return true;
@@ -16,10 +16,12 @@
 
 package net.fabricmc.fabric.impl.recipe.ingredient.builtin;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import org.jetbrains.annotations.Nullable;
 
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -31,8 +33,9 @@ import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.api.recipe.v1.ingredient.CustomIngredient;
 import net.fabricmc.fabric.api.recipe.v1.ingredient.CustomIngredientSerializer;
+import net.fabricmc.fabric.impl.recipe.ingredient.IndexableIngredient;
 
-public class DifferenceIngredient implements CustomIngredient {
+public class DifferenceIngredient implements CustomIngredient, IndexableIngredient {
 	public static final CustomIngredientSerializer<DifferenceIngredient> SERIALIZER = new Serializer();
 
 	private final Ingredient base;
@@ -56,6 +59,12 @@ public class DifferenceIngredient implements CustomIngredient {
 				.toList();
 	}
 
+	@Override
+	@Nullable
+	public Collection<RegistryEntry<Item>> getCandidateItems() {
+		return IndexableIngredient.getCandidateItems(base);
+	}
+
 	@Override
 	public boolean requiresTesting() {
 		return base.requiresTesting() || subtracted.requiresTesting();
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.mixin.recipe;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import net.minecraft.recipe.PreparedRecipes;
+import net.minecraft.recipe.Recipe;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.recipe.RecipeType;
+import net.minecraft.recipe.input.RecipeInput;
+import net.minecraft.world.World;
+
+import net.fabricmc.fabric.impl.recipe.RecipeLookupIndex;
+
+@Mixin(PreparedRecipes.class)
+public abstract class PreparedRecipesMixin {
+	@Shadow
+	public abstract <I extends RecipeInput, T extends Recipe<I>> Collection<RecipeEntry<T>> getAll(RecipeType<T> type);
+
+	@Unique
+	private final RecipeLookupIndex fabric_lookupIndex = new RecipeLookupIndex(this::fabric_getAll);
+
+	@Unique
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private Collection<? extends RecipeEntry<?>> fabric_getAll(RecipeType<?> type) {
+		return getAll((RecipeType) type);
+	}
+
+	/**
+	 * Prepared recipes are recreated on every reload, so the index never needs to be invalidated.
+	 */
+	@Inject(method = "find", at = @At("HEAD"), cancellable = true)
+	private <I extends RecipeInput, T extends Recipe<I>> void findIndexed(RecipeType<T> type, I input, World world, CallbackInfoReturnable<Stream<RecipeEntry<T>>> cir) {
+		if (RecipeLookupIndex.ENABLED) {
+			cir.setReturnValue(fabric_lookupIndex.find(type, input, world));
+		}
+	}
+}
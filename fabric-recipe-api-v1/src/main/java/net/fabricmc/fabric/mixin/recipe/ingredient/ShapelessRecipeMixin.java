@@ -16,9 +16,9 @@
 
 package net.fabricmc.fabric.mixin.recipe.ingredient;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
@@ -35,6 +35,7 @@ import net.minecraft.recipe.book.CraftingRecipeCategory;
 import net.minecraft.recipe.input.CraftingRecipeInput;
 import net.minecraft.world.World;
 
+import net.fabricmc.fabric.impl.recipe.ingredient.ShapelessIngredientIndex;
 import net.fabricmc.fabric.impl.recipe.ingredient.ShapelessMatch;
 
 @Mixin(ShapelessRecipe.class)
@@ -44,6 +45,9 @@ public class ShapelessRecipeMixin {
 	List<Ingredient> ingredients;
 	@Unique
 	private boolean fabric_requiresTesting = false;
+	@Unique
+	@Nullable
+	private ShapelessIngredientIndex fabric_ingredientIndex;
 
 	@Inject(at = @At("RETURN"), method = "<init>")
 	private void cacheRequiresTesting(String group, CraftingRecipeCategory category, ItemStack result, List<Ingredient> ingredients, CallbackInfo ci) {
@@ -58,17 +62,14 @@ public class ShapelessRecipeMixin {
 	@Inject(at = @At("HEAD"), method = "matches(Lnet/minecraft/recipe/input/CraftingRecipeInput;Lnet/minecraft/world/World;)Z", cancellable = true)
 	public void customIngredientMatch(CraftingRecipeInput recipeInput, World world, CallbackInfoReturnable<Boolean> cir) {
 		if (fabric_requiresTesting) {
-			List<ItemStack> nonEmptyStacks = new ArrayList<>(recipeInput.getStackCount());
-
-			for (int i = 0; i < recipeInput.getStackCount(); ++i) {
-				ItemStack stack = recipeInput.getStackInSlot(i);
+			ShapelessIngredientIndex index = fabric_ingredientIndex;
 
-				if (!stack.isEmpty()) {
-					nonEmptyStacks.add(stack);
-				}
+			if (index == null && ingredients.size() <= ShapelessIngredientIndex.MAX_INGREDIENTS) {
+				// Built lazily since tags may not be bound yet when the recipe is created.
+				index = fabric_ingredientIndex = ShapelessIngredientIndex.create(ingredients);
 			}
 
-			cir.setReturnValue(ShapelessMatch.isMatch(nonEmptyStacks, ingredients));
+			cir.setReturnValue(ShapelessMatch.isMatch(recipeInput.getStacks(), recipeInput.getStackCount(), ingredients, index));
 		}
 	}
 }
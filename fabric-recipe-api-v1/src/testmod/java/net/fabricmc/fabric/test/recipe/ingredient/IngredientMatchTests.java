@@ -108,6 +108,13 @@ public class IngredientMatchTests {
 						.remove(DataComponentTypes.CUSTOM_NAME)
 		);
 
+		// Equal ingredients are shared, even with a different but equal base instance
+		final Ingredient equalBaseIngredient = Ingredient.ofItems(Items.DIAMOND_PICKAXE, Items.NETHERITE_PICKAXE, Items.STICK);
+
+		if (undamagedIngredient != DefaultCustomIngredients.components(equalBaseIngredient, builder -> builder.add(DataComponentTypes.DAMAGE, 0))) {
+			throw new GameTestException("Expected equal components ingredients to be the same instance");
+		}
+
 		ItemStack renamedUndamagedDiamondPickaxe = new ItemStack(Items.DIAMOND_PICKAXE);
 		renamedUndamagedDiamondPickaxe.set(DataComponentTypes.CUSTOM_NAME, Text.literal("Renamed"));
 		assertEquals(true, undamagedIngredient.test(renamedUndamagedDiamondPickaxe));
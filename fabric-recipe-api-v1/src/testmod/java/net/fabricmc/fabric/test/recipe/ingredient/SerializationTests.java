@@ -90,4 +90,38 @@ public class SerializationTests {
 
 		context.complete();
 	}
+
+	/**
+	 * Check that equal components ingredients decode to the same instance, and that different custom bases are kept apart.
+	 */
+	@GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+	public void testComponentsIngredientInterning(TestContext context) {
+		String ingredientJson = """
+				{"fabric:type":"fabric:components","base":"minecraft:diamond_pickaxe","components":{"minecraft:damage":0}}
+				""";
+		String stickBaseJson = """
+				{"fabric:type":"fabric:components","base":{"fabric:type":"fabric:any","ingredients":["minecraft:stick"]},"components":{"minecraft:damage":0}}
+				""";
+		String diamondBaseJson = """
+				{"fabric:type":"fabric:components","base":{"fabric:type":"fabric:any","ingredients":["minecraft:diamond"]},"components":{"minecraft:damage":0}}
+				""";
+		RegistryOps<JsonElement> registryOps = context.getWorld().getRegistryManager().getOps(JsonOps.INSTANCE);
+
+		Ingredient first = parse(registryOps, ingredientJson);
+		Ingredient second = parse(registryOps, ingredientJson);
+		context.assertTrue(first.getCustomIngredient() == second.getCustomIngredient(), "Equal components ingredients were not shared");
+
+		Ingredient stickBase = parse(registryOps, stickBaseJson);
+		Ingredient diamondBase = parse(registryOps, diamondBaseJson);
+		context.assertTrue(stickBase.getCustomIngredient() != diamondBase.getCustomIngredient(), "Components ingredients with different custom bases were shared");
+		context.assertTrue(!stickBase.getCustomIngredient().equals(diamondBase.getCustomIngredient()), "Components ingredients with different custom bases are equal");
+		context.assertTrue(stickBase.getMatchingItems().getFirst().value() == Items.STICK, "Unexpected matching items: " + stickBase.getMatchingItems());
+		context.assertTrue(diamondBase.getMatchingItems().getFirst().value() == Items.DIAMOND, "Unexpected matching items: " + diamondBase.getMatchingItems());
+
+		context.complete();
+	}
+
+	private static Ingredient parse(RegistryOps<JsonElement> registryOps, String json) {
+		return Ingredient.CODEC.parse(registryOps, JsonParser.parseString(json)).getOrThrow(JsonParseException::new);
+	}
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.recipe.lookup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.recipe.Recipe;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.recipe.RecipeType;
+import net.minecraft.recipe.ServerRecipeManager;
+import net.minecraft.recipe.input.CraftingRecipeInput;
+import net.minecraft.recipe.input.RecipeInput;
+import net.minecraft.recipe.input.SingleStackRecipeInput;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.GameTestException;
+import net.minecraft.test.TestContext;
+
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.fabricmc.fabric.impl.recipe.RecipeLookupIndex;
+
+/**
+ * Checks that indexed recipe lookups return the same recipes as testing every recipe of the type in order.
+ */
+public class RecipeLookupTests {
+	@GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+	public void testShapedLookup(TestContext context) {
+		ItemStack planks = new ItemStack(Items.OAK_PLANKS);
+		assertSameMatches(context, RecipeType.CRAFTING, CraftingRecipeInput.create(2, 2, List.of(planks, planks, planks, planks)), Items.CRAFTING_TABLE);
+		assertSameMatches(context, RecipeType.CRAFTING, CraftingRecipeInput.create(1, 2, List.of(planks, planks)), Items.STICK);
+		assertSameMatches(context, RecipeType.CRAFTING, CraftingRecipeInput.create(2, 2, List.of(planks, planks, planks, new ItemStack(Items.DIRT))), null);
+		context.complete();
+	}
+
+	@GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+	public void testShapelessLookup(TestContext context) {
+		assertSameMatches(context, RecipeType.CRAFTING, CraftingRecipeInput.create(1, 1, List.of(new ItemStack(Items.OAK_LOG))), Items.OAK_PLANKS);
+		assertSameMatches(context, RecipeType.CRAFTING, CraftingRecipeInput.create(2, 1, List.of(new ItemStack(Items.BONE), ItemStack.EMPTY)), Items.BONE_MEAL);
+		context.complete();
+	}
+
+	/**
+	 * Uses the recipe of {@code ShapelessRecipeMatchTests}, which requires at least one undamaged pickaxe.
+	 * The same items must match or not depending on their components, even after a lookup of the same items.
+	 */
+	@GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+	public void testCustomIngredientLookup(TestContext context) {
+		ItemStack damagedPickaxe = new ItemStack(Items.DIAMOND_PICKAXE);
+		damagedPickaxe.setDamage(100);
+		List<ItemStack> damagedPickaxes = Collections.nCopies(9, damagedPickaxe);
+		List<ItemStack> oneUndamagedPickaxe = new ArrayList<>(damagedPickaxes);
+		oneUndamagedPickaxe.set(4, new ItemStack(Items.DIAMOND_PICKAXE));
+
+		assertSameMatches(context, RecipeType.CRAFTING, CraftingRecipeInput.create(3, 3, oneUndamagedPickaxe), Items.DIAMOND_BLOCK);
+		assertSameMatches(context, RecipeType.CRAFTING, CraftingRecipeInput.create(3, 3, damagedPickaxes), null);
+		assertSameMatches(context, RecipeType.CRAFTING, CraftingRecipeInput.create(3, 3, oneUndamagedPickaxe), Items.DIAMOND_BLOCK);
+		context.complete();
+	}
+
+	@GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+	public void testSpecialLookup(TestContext context) {
+		assertSameMatches(context, RecipeType.CRAFTING, CraftingRecipeInput.create(2, 1, List.of(new ItemStack(Items.PAPER), new ItemStack(Items.GUNPOWDER))), Items.FIREWORK_ROCKET);
+		assertSameMatches(context, RecipeType.CRAFTING, CraftingRecipeInput.create(2, 1, List.of(new ItemStack(Items.LEATHER_HELMET), new ItemStack(Items.RED_DYE))), Items.LEATHER_HELMET);
+		context.complete();
+	}
+
+	@GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+	public void testCookingLookup(TestContext context) {
+		assertSameMatches(context, RecipeType.SMELTING, new SingleStackRecipeInput(new ItemStack(Items.RAW_IRON)), Items.IRON_INGOT);
+		assertSameMatches(context, RecipeType.BLASTING, new SingleStackRecipeInput(new ItemStack(Items.RAW_IRON)), Items.IRON_INGOT);
+		assertSameMatches(context, RecipeType.SMELTING, new SingleStackRecipeInput(new ItemStack(Items.STICK)), null);
+		context.complete();
+	}
+
+	/**
+	 * Looks up the input twice, to also use the position of the last match, through the recipe manager and a new index,
+	 * and compares the results with testing every recipe.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <I extends RecipeInput, T extends Recipe<I>> void assertSameMatches(TestContext context, RecipeType<T> type, I input, @Nullable Item expectedResult) {
+		ServerWorld world = context.getWorld();
+		ServerRecipeManager recipeManager = world.getRecipeManager();
+		List<RecipeEntry<T>> expected = recipeManager.values().stream()
+				.filter(entry -> entry.value().getType() == type)
+				.map(entry -> (RecipeEntry<T>) entry)
+				.filter(entry -> entry.value().matches(input, world))
+				.toList();
+		RecipeLookupIndex index = new RecipeLookupIndex(t -> recipeManager.values().stream().filter(entry -> entry.value().getType() == t).toList());
+
+		for (int i = 0; i < 2; i++) {
+			assertEquals(expected, index.find(type, input, world).toList());
+			assertEquals(expected.stream().findFirst(), recipeManager.getFirstMatch(type, input, world));
+		}
+
+		Item result = expected.isEmpty() ? null : expected.getFirst().value().craft(input, world.getRegistryManager()).getItem();
+		assertEquals(expectedResult, result);
+	}
+
+	private static <T> void assertEquals(T expected, T actual) {
+		if (!Objects.equals(expected, actual)) {
+			throw new GameTestException(String.format("assertEquals failed%nexpected: %s%n but was: %s", expected, actual));
+		}
+	}
+}
@@ -16,19 +16,24 @@
 
 package net.fabricmc.fabric.impl.client.registry.sync;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.minecraft.text.Text;
+import net.minecraft.util.Util;
 
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.networking.v1.ClientConfigurationNetworking;
 import net.fabricmc.fabric.impl.registry.sync.RegistrySyncManager;
 import net.fabricmc.fabric.impl.registry.sync.RemapException;
 import net.fabricmc.fabric.impl.registry.sync.SyncCompletePayload;
+import net.fabricmc.fabric.impl.registry.sync.packet.CompressedRegistryPacketHandler;
 import net.fabricmc.fabric.impl.registry.sync.packet.RegistryPacketHandler;
+import net.fabricmc.fabric.impl.registry.sync.packet.RegistrySnapshotCache;
 
 public class FabricRegistryClientInit implements ClientModInitializer {
 	private static final Logger LOGGER = LoggerFactory.getLogger(FabricRegistryClientInit.class);
@@ -36,12 +41,33 @@ public class FabricRegistryClientInit implements ClientModInitializer {
 	@Override
 	public void onInitializeClient() {
 		registerSyncPacketReceiver(RegistrySyncManager.DIRECT_PACKET_HANDLER);
+		registerSyncPacketReceiver(RegistrySyncManager.COMPRESSED_PACKET_HANDLER);
+
+		ClientConfigurationNetworking.registerGlobalReceiver(CompressedRegistryPacketHandler.SnapshotQueryPayload.ID, (payload, context) -> {
+			RegistrySnapshotCache snapshotCache = RegistrySyncManager.COMPRESSED_PACKET_HANDLER.getSnapshotCache();
+
+			if (snapshotCache == null) {
+				context.responseSender().sendPacket(new CompressedRegistryPacketHandler.KnownSnapshotsPayload(new long[0]));
+				return;
+			}
+
+			// Listing the snapshots reads the disk, keep it off the network thread.
+			CompletableFuture.supplyAsync(snapshotCache::getKnownHashes, Util.getIoWorkerExecutor())
+					.thenAccept(knownSnapshots -> context.responseSender().sendPacket(new CompressedRegistryPacketHandler.KnownSnapshotsPayload(knownSnapshots)));
+		});
 	}
 
 	private <T extends RegistryPacketHandler.RegistrySyncPayload> void registerSyncPacketReceiver(RegistryPacketHandler<T> packetHandler) {
 		ClientConfigurationNetworking.registerGlobalReceiver(packetHandler.getPacketId(), (payload, context) -> {
 			RegistrySyncManager.receivePacket(context.client(), packetHandler, payload, RegistrySyncManager.DEBUG || !context.client().isInSingleplayer())
 					.whenComplete((complete, throwable) -> {
+						if (getCause(throwable) instanceof CompressedRegistryPacketHandler.SnapshotUnavailableException e) {
+							// Request the full registry map instead of failing, the snapshot will be replaced.
+							LOGGER.warn("{}, requesting a full registry sync", e.getMessage());
+							context.responseSender().sendPacket(new CompressedRegistryPacketHandler.KnownSnapshotsPayload(new long[0]));
+							return;
+						}
+
 						if (throwable != null) {
 							LOGGER.error("Registry remapping failed!", throwable);
 							context.client().execute(() -> context.responseSender().disconnect(getText(throwable)));
@@ -55,6 +81,15 @@ public class FabricRegistryClientInit implements ClientModInitializer {
 		});
 	}
 
+	@Nullable
+	private static Throwable getCause(@Nullable Throwable e) {
+		while (e instanceof CompletionException && e.getCause() != null) {
+			e = e.getCause();
+		}
+
+		return e;
+	}
+
 	private Text getText(Throwable e) {
 		if (e instanceof RemapException remapException) {
 			final Text text = remapException.getText();
@@ -24,6 +24,7 @@ import net.fabricmc.fabric.api.event.registry.RegistryAttributeHolder;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerConfigurationConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerConfigurationNetworking;
+import net.fabricmc.fabric.impl.registry.sync.packet.CompressedRegistryPacketHandler;
 import net.fabricmc.fabric.impl.registry.sync.packet.DirectRegistryPacketHandler;
 
 public class FabricRegistryInit implements ModInitializer {
@@ -31,10 +32,16 @@ public class FabricRegistryInit implements ModInitializer {
 	public void onInitialize() {
 		PayloadTypeRegistry.configurationC2S().register(SyncCompletePayload.ID, SyncCompletePayload.CODEC);
 		PayloadTypeRegistry.configurationS2C().register(DirectRegistryPacketHandler.Payload.ID, DirectRegistryPacketHandler.Payload.CODEC);
+		PayloadTypeRegistry.configurationS2C().register(CompressedRegistryPacketHandler.Payload.ID, CompressedRegistryPacketHandler.Payload.CODEC);
+		PayloadTypeRegistry.configurationS2C().register(CompressedRegistryPacketHandler.SnapshotQueryPayload.ID, CompressedRegistryPacketHandler.SnapshotQueryPayload.CODEC);
+		PayloadTypeRegistry.configurationC2S().register(CompressedRegistryPacketHandler.KnownSnapshotsPayload.ID, CompressedRegistryPacketHandler.KnownSnapshotsPayload.CODEC);
 
 		ServerConfigurationConnectionEvents.BEFORE_CONFIGURE.register(RegistrySyncManager::configureClient);
 		ServerConfigurationNetworking.registerGlobalReceiver(SyncCompletePayload.ID, (payload, context) -> {
-			context.networkHandler().completeTask(RegistrySyncManager.SyncConfigurationTask.KEY);
+			RegistrySyncManager.completeSync(context.networkHandler());
+		});
+		ServerConfigurationNetworking.registerGlobalReceiver(CompressedRegistryPacketHandler.KnownSnapshotsPayload.ID, (payload, context) -> {
+			RegistrySyncManager.receiveKnownSnapshots(context.networkHandler(), payload.hashes());
 		});
 
 		// Synced in PlaySoundS2CPacket.
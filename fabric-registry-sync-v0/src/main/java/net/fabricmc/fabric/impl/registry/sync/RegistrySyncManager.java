@@ -21,13 +21,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 import com.google.common.base.Joiner;
@@ -53,21 +56,37 @@ import net.minecraft.text.MutableText;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
 import net.minecraft.util.thread.ThreadExecutor;
 
 import net.fabricmc.fabric.api.event.registry.RegistryAttribute;
 import net.fabricmc.fabric.api.event.registry.RegistryAttributeHolder;
 import net.fabricmc.fabric.api.networking.v1.ServerConfigurationNetworking;
 import net.fabricmc.fabric.impl.networking.server.ServerNetworkingImpl;
+import net.fabricmc.fabric.impl.registry.sync.packet.CompressedRegistryPacketHandler;
 import net.fabricmc.fabric.impl.registry.sync.packet.DirectRegistryPacketHandler;
 import net.fabricmc.fabric.impl.registry.sync.packet.RegistryPacketHandler;
+import net.fabricmc.fabric.impl.registry.sync.packet.RegistrySnapshotCache;
+import net.fabricmc.loader.api.FabricLoader;
 
 public final class RegistrySyncManager {
 	public static final boolean DEBUG = Boolean.getBoolean("fabric.registry.debug");
 
 	public static final DirectRegistryPacketHandler DIRECT_PACKET_HANDLER = new DirectRegistryPacketHandler();
+	public static final CompressedRegistryPacketHandler COMPRESSED_PACKET_HANDLER = new CompressedRegistryPacketHandler(
+			new RegistrySnapshotCache(FabricLoader.getInstance().getGameDir().resolve(".fabric").resolve("registry_snapshots")));
+	private static final boolean DISABLE_COMPRESSED_SYNC = Boolean.getBoolean("fabric.registry.compressed.disable");
 	private static final Logger LOGGER = LoggerFactory.getLogger("FabricRegistrySync");
 	private static final boolean DEBUG_WRITE_REGISTRY_DATA = Boolean.getBoolean("fabric.registry.debug.writeContentsAsCsv");
+	/**
+	 * Remap the registries concurrently when applying a registry map, see {@link #remapParallel}.
+	 */
+	private static final boolean PARALLEL_REMAP = Boolean.getBoolean("fabric.registry.parallelRemap");
+
+	/**
+	 * Registry maps waiting for the client to reply to a {@link CompressedRegistryPacketHandler.SnapshotQueryPayload}.
+	 */
+	private static final Map<ServerConfigurationNetworkHandler, Map<Identifier, Object2IntMap<Identifier>>> PENDING_COMPRESSED_SYNCS = Collections.synchronizedMap(new WeakHashMap<>());
 
 	//Set to true after vanilla's bootstrap has completed
 	public static boolean postBootstrap = false;
@@ -87,6 +106,11 @@ public final class RegistrySyncManager {
 			return;
 		}
 
+		if (!DISABLE_COMPRESSED_SYNC && ServerConfigurationNetworking.canSend(handler, CompressedRegistryPacketHandler.SnapshotQueryPayload.ID)) {
+			handler.addTask(new CompressedSyncConfigurationTask(handler, map));
+			return;
+		}
+
 		if (!ServerConfigurationNetworking.canSend(handler, DIRECT_PACKET_HANDLER.getPacketId())) {
 			// Disconnect incompatible clients
 			Text message = getIncompatibleClientText(ServerNetworkingImpl.getAddon(handler).getClientBrand(), map);
@@ -147,6 +171,44 @@ public final class RegistrySyncManager {
 		}
 	}
 
+	public record CompressedSyncConfigurationTask(
+			ServerConfigurationNetworkHandler handler,
+			Map<Identifier, Object2IntMap<Identifier>> map
+	) implements ServerPlayerConfigurationTask {
+		@Override
+		public void sendPacket(Consumer<Packet<?>> sender) {
+			// Ask for the snapshots known by the client first, the registry map is sent when it replies.
+			PENDING_COMPRESSED_SYNCS.put(handler, map);
+			sender.accept(ServerConfigurationNetworking.createS2CPacket(new CompressedRegistryPacketHandler.SnapshotQueryPayload(CompressedRegistryPacketHandler.hash(map))));
+		}
+
+		@Override
+		public Key getKey() {
+			return SyncConfigurationTask.KEY;
+		}
+	}
+
+	/**
+	 * Sends the registry map, once the client replied with its known snapshots.
+	 * The client replies again without any snapshot if it needs the full map, so the map is kept until the sync completes.
+	 */
+	public static void receiveKnownSnapshots(ServerConfigurationNetworkHandler handler, long[] knownSnapshots) {
+		Map<Identifier, Object2IntMap<Identifier>> map = PENDING_COMPRESSED_SYNCS.get(handler);
+
+		if (map == null) {
+			LOGGER.warn("Received unexpected registry snapshot list from {}", handler.getDebugProfile().getName());
+			return;
+		}
+
+		// Reading and writing snapshots blocks on disk, keep it off the network thread.
+		Util.getIoWorkerExecutor().execute(() -> COMPRESSED_PACKET_HANDLER.sendPacket(payload -> handler.sendPacket(ServerConfigurationNetworking.createS2CPacket(payload)), map, knownSnapshots));
+	}
+
+	public static void completeSync(ServerConfigurationNetworkHandler handler) {
+		PENDING_COMPRESSED_SYNCS.remove(handler);
+		handler.completeTask(SyncConfigurationTask.KEY);
+	}
+
 	public static <T extends RegistryPacketHandler.RegistrySyncPayload> CompletableFuture<Boolean> receivePacket(ThreadExecutor<?> executor, RegistryPacketHandler<T> handler, T payload, boolean accept) {
 		handler.receivePayload(payload);
 
@@ -161,13 +223,13 @@ public final class RegistrySyncManager {
 			LOGGER.info("{} deflated size: {}", handlerName, handler.getDeflatedBufSize());
 		}
 
-		Map<Identifier, Object2IntMap<Identifier>> map = handler.getSyncedRegistryMap();
-
 		if (!accept) {
+			handler.getSyncedRegistryMap();
 			return CompletableFuture.completedFuture(true);
 		}
 
-		return executor.submit(() -> {
+		// Decoding the map may read registry snapshots from disk, keep it off the network thread.
+		return CompletableFuture.supplyAsync(handler::getSyncedRegistryMap, Util.getIoWorkerExecutor()).thenApplyAsync(map -> {
 			if (map == null) {
 				throw new CompletionException(new RemapException("Received null map in sync packet!"));
 			}
@@ -178,7 +240,7 @@ public final class RegistrySyncManager {
 			} catch (RemapException e) {
 				throw new CompletionException(e);
 			}
-		});
+		}, executor);
 	}
 
 	/**
@@ -295,6 +357,7 @@ public final class RegistrySyncManager {
 		}
 
 		Set<Identifier> containedRegistries = Sets.newHashSet(map.keySet());
+		List<RegistryRemap> remaps = new ArrayList<>();
 
 		for (Identifier registryId : Registries.REGISTRIES.getIds()) {
 			if (!containedRegistries.remove(registryId)) {
@@ -312,17 +375,77 @@ public final class RegistrySyncManager {
 			}
 
 			if (registry instanceof RemappableRegistry remappableRegistry) {
-				remappableRegistry.remap(registryId.toString(), registryMap, mode);
+				remaps.add(new RegistryRemap(registryId.toString(), remappableRegistry, registryMap));
 			} else {
 				throw new RemapException("Registry " + registryId + " is not remappable");
 			}
 		}
 
+		if (PARALLEL_REMAP && remaps.size() > 1) {
+			remapParallel(remaps, mode);
+		} else {
+			for (RegistryRemap remap : remaps) {
+				remap.registry().remap(remap.name(), remap.map(), mode);
+			}
+		}
+
 		if (!containedRegistries.isEmpty()) {
 			LOGGER.warn("[fabric-registry-sync] Could not find the following registries: " + Joiner.on(", ").join(containedRegistries));
 		}
 	}
 
+	/**
+	 * Remaps every registry concurrently on the common fork-join pool, then invokes all the
+	 * {@link net.fabricmc.fabric.api.event.registry.RegistryIdRemapCallback}s in registry order on the current thread,
+	 * so that the trackers rebuild their data in one batch once every registry is consistent.
+	 */
+	@VisibleForTesting
+	public static void remapParallel(List<RegistryRemap> remaps, RemappableRegistry.RemapMode mode) throws RemapException {
+		List<CompletableFuture<Runnable>> futures = new ArrayList<>(remaps.size());
+
+		for (RegistryRemap remap : remaps) {
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					return remap.registry().remapWithoutCallbacks(remap.name(), remap.map(), mode);
+				} catch (RemapException e) {
+					throw new CompletionException(e);
+				}
+			}, ForkJoinPool.commonPool()));
+		}
+
+		List<Runnable> callbacks = new ArrayList<>(remaps.size());
+		Throwable failure = null;
+
+		for (CompletableFuture<Runnable> future : futures) {
+			try {
+				callbacks.add(future.join());
+			} catch (CompletionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				} else {
+					failure.addSuppressed(e.getCause());
+				}
+			}
+		}
+
+		// Even if a registry failed to remap, notify the listeners of those that were remapped so that they stay consistent.
+		for (Runnable callback : callbacks) {
+			callback.run();
+		}
+
+		if (failure instanceof RemapException remapException) {
+			throw remapException;
+		} else if (failure instanceof RuntimeException runtimeException) {
+			throw runtimeException;
+		} else if (failure instanceof Error error) {
+			throw error;
+		}
+	}
+
+	@VisibleForTesting
+	public record RegistryRemap(String name, RemappableRegistry registry, Object2IntMap<Identifier> map) {
+	}
+
 	@VisibleForTesting
 	public static void checkRemoteRemap(Map<Identifier, Object2IntMap<Identifier>> map) throws RemapException {
 		Map<Identifier, List<Identifier>> missingEntries = new HashMap<>();
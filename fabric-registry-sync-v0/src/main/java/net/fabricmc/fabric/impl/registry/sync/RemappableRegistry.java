@@ -20,6 +20,8 @@ import it.unimi.dsi.fastutil.objects.Object2IntMap;
 
 import net.minecraft.util.Identifier;
 
+import net.fabricmc.fabric.api.event.registry.RegistryIdRemapCallback;
+
 public interface RemappableRegistry {
 	/**
 	 * The mode the remapping process should take.
@@ -45,5 +47,13 @@ public interface RemappableRegistry {
 
 	void remap(String name, Object2IntMap<Identifier> remoteIndexedEntries, RemapMode mode) throws RemapException;
 
+	/**
+	 * Remaps the raw ids of this registry like {@link #remap}, but without invoking the {@link RegistryIdRemapCallback}.
+	 * This only modifies the registry itself, so different registries can be remapped concurrently.
+	 *
+	 * @return a task invoking the {@link RegistryIdRemapCallback}, to run once all the registries are remapped
+	 */
+	Runnable remapWithoutCallbacks(String name, Object2IntMap<Identifier> remoteIndexedEntries, RemapMode mode) throws RemapException;
+
 	void unmap(String name) throws RemapException;
 }
@@ -0,0 +1,739 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.registry.sync.packet;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+
+/**
+ * A registry sync method that sends compressed and, when possible, incremental registry maps.
+ *
+ * <p>Compared to {@link DirectRegistryPacketHandler}, this method:
+ * <ul>
+ *     <li>Sorts the ids of each registry, and only sends the part of each id that differs from the previous one;</li>
+ *     <li>Sends the raw ids as differences to the previous raw id;</li>
+ *     <li>Deflates the whole stream;</li>
+ *     <li>Uses registry maps that the client has cached in a {@link RegistrySnapshotCache} from previous joins.
+ *     Before syncing, the server sends the hash of its registry map with a {@link SnapshotQueryPayload},
+ *     and the client replies with the hashes of the maps it has cached in a {@link KnownSnapshotsPayload}.
+ *     If the client already knows the map, only its hash is sent. If the client knows a map that the server has cached too,
+ *     only the difference to that map is sent. Otherwise, the full map is sent.
+ *     If the client cannot use the snapshot the data is based on, it requests the full map.</li>
+ * </ul>
+ *
+ * <p>The compressed stream is split into multiple packets if it exceeds the limit, defaults to 1 MB.
+ */
+public class CompressedRegistryPacketHandler extends RegistryPacketHandler<CompressedRegistryPacketHandler.Payload> {
+	private static final Logger LOGGER = LoggerFactory.getLogger("FabricRegistrySync");
+	private static final int MAX_PAYLOAD_SIZE = Integer.getInteger("fabric.registry.compressed.maxPayloadSize", 0x100000);
+	/**
+	 * Upper bound of the size of an inflated stream, to avoid running out of memory on malformed packets.
+	 */
+	private static final int MAX_INFLATED_SIZE = 0x4000000;
+
+	private static final int MODE_FULL = 0;
+	private static final int MODE_DELTA = 1;
+	private static final int MODE_CACHED = 2;
+
+	@Nullable
+	private final RegistrySnapshotCache snapshotCache;
+
+	/**
+	 * The last encoded streams, keyed by the hash of the base map, or by the target hash for full maps.
+	 * Most joins on a server use the same maps, so this avoids encoding them for every player.
+	 */
+	private final Long2ObjectMap<byte[]> encodedStreams = new Long2ObjectOpenHashMap<>();
+	private long encodedTargetHash;
+
+	@Nullable
+	private ByteArrayOutputStream combinedData;
+
+	@Nullable
+	private PacketByteBuf receivedBuf;
+
+	private boolean isPacketFinished = false;
+	private int totalPacketReceived = 0;
+
+	public CompressedRegistryPacketHandler(@Nullable RegistrySnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
+	}
+
+	@Nullable
+	public RegistrySnapshotCache getSnapshotCache() {
+		return snapshotCache;
+	}
+
+	@Override
+	public CustomPayload.Id<Payload> getPacketId() {
+		return Payload.ID;
+	}
+
+	@Override
+	public void sendPacket(Consumer<Payload> sender, Map<Identifier, Object2IntMap<Identifier>> registryMap) {
+		sendPacket(sender, registryMap, new long[0]);
+	}
+
+	/**
+	 * Sends a registry map, using the maps known by the client when possible.
+	 *
+	 * @param knownSnapshots the hashes of the registry maps cached by the client, most recent first
+	 */
+	public void sendPacket(Consumer<Payload> sender, Map<Identifier, Object2IntMap<Identifier>> registryMap, long[] knownSnapshots) {
+		long targetHash = hash(registryMap);
+		byte[] data = null;
+
+		if (snapshotCache != null) {
+			snapshotCache.save(targetHash, registryMap);
+		}
+
+		for (long knownSnapshot : knownSnapshots) {
+			if (knownSnapshot == targetHash) {
+				PacketByteBuf buf = PacketByteBufs.create();
+				buf.writeVarInt(MODE_CACHED);
+				buf.writeLong(targetHash);
+				data = deflate(buf);
+				break;
+			}
+		}
+
+		if (data == null && snapshotCache != null) {
+			for (long knownSnapshot : knownSnapshots) {
+				byte[] encoded = getEncoded(targetHash, knownSnapshot);
+
+				if (encoded != null) {
+					data = encoded;
+					break;
+				}
+
+				Map<Identifier, Object2IntMap<Identifier>> baseMap = snapshotCache.load(knownSnapshot);
+
+				if (baseMap != null) {
+					PacketByteBuf buf = PacketByteBufs.create();
+					buf.writeVarInt(MODE_DELTA);
+					buf.writeLong(targetHash);
+					buf.writeLong(knownSnapshot);
+					writeDelta(buf, baseMap, registryMap);
+					data = putEncoded(targetHash, knownSnapshot, deflate(buf));
+					break;
+				}
+			}
+		}
+
+		if (data == null) {
+			data = getEncoded(targetHash, targetHash);
+
+			if (data == null) {
+				data = putEncoded(targetHash, targetHash, encodeFull(registryMap, targetHash));
+			}
+		}
+
+		// Split the data to multiple MAX_PAYLOAD_SIZEd payloads.
+		int sliceIndex = 0;
+
+		while (sliceIndex < data.length) {
+			int sliceSize = Math.min(data.length - sliceIndex, MAX_PAYLOAD_SIZE);
+			byte[] slice = new byte[sliceSize];
+			System.arraycopy(data, sliceIndex, slice, 0, sliceSize);
+			sender.accept(new Payload(slice));
+			sliceIndex += sliceSize;
+		}
+
+		// Send an empty payload to mark the end of the split.
+		sender.accept(new Payload(new byte[0]));
+	}
+
+	@Nullable
+	private byte[] getEncoded(long targetHash, long baseHash) {
+		synchronized (encodedStreams) {
+			return encodedTargetHash == targetHash ? encodedStreams.get(baseHash) : null;
+		}
+	}
+
+	private byte[] putEncoded(long targetHash, long baseHash, byte[] data) {
+		synchronized (encodedStreams) {
+			if (encodedTargetHash != targetHash) {
+				encodedStreams.clear();
+				encodedTargetHash = targetHash;
+			}
+
+			encodedStreams.put(baseHash, data);
+		}
+
+		return data;
+	}
+
+	@Override
+	public void receivePayload(Payload payload) {
+		Preconditions.checkState(!isPacketFinished);
+		totalPacketReceived++;
+
+		if (combinedData == null) {
+			combinedData = new ByteArrayOutputStream();
+		}
+
+		byte[] data = payload.data();
+
+		if (data.length != 0) {
+			combinedData.writeBytes(data);
+			return;
+		}
+
+		isPacketFinished = true;
+
+		receivedBuf = inflate(combinedData.toByteArray());
+		combinedData = null;
+		computeBufSize(receivedBuf);
+	}
+
+	@Override
+	public boolean isPacketFinished() {
+		return isPacketFinished;
+	}
+
+	@Override
+	public int getTotalPacketReceived() {
+		Preconditions.checkState(isPacketFinished);
+		return totalPacketReceived;
+	}
+
+	/**
+	 * Decodes the received registry map. This may read and write registry snapshots,
+	 * so it should not be called on the network thread.
+	 *
+	 * @return the registry map, or {@code null} if a full map does not match its hash
+	 * @throws SnapshotUnavailableException if the map is based on a snapshot that is missing or does not match its hash,
+	 * the client should then request a full map with an empty {@link KnownSnapshotsPayload}
+	 */
+	@Override
+	@Nullable
+	public Map<Identifier, Object2IntMap<Identifier>> getSyncedRegistryMap() {
+		Preconditions.checkState(isPacketFinished);
+		PacketByteBuf buf = receivedBuf;
+		isPacketFinished = false;
+		totalPacketReceived = 0;
+		receivedBuf = null;
+
+		try {
+			return readSyncedRegistryMap(buf);
+		} finally {
+			buf.release();
+		}
+	}
+
+	@Nullable
+	private Map<Identifier, Object2IntMap<Identifier>> readSyncedRegistryMap(PacketByteBuf buf) {
+		int mode = buf.readVarInt();
+		long targetHash = buf.readLong();
+
+		if (mode == MODE_FULL) {
+			Map<Identifier, Object2IntMap<Identifier>> map = readRegistries(buf);
+
+			if (hash(map) != targetHash) {
+				LOGGER.error("Registry sync data does not match its hash {}", Long.toHexString(targetHash));
+				return null;
+			}
+
+			if (snapshotCache != null) {
+				snapshotCache.save(targetHash, map);
+			}
+
+			return map;
+		}
+
+		long baseHash = mode == MODE_DELTA ? buf.readLong() : targetHash;
+		Map<Identifier, Object2IntMap<Identifier>> baseMap = snapshotCache != null ? snapshotCache.load(baseHash) : null;
+
+		if (baseMap == null) {
+			throw new SnapshotUnavailableException("Received registry sync data based on unknown registry snapshot " + Long.toHexString(baseHash));
+		}
+
+		Map<Identifier, Object2IntMap<Identifier>> map = mode == MODE_DELTA ? readDelta(buf, baseMap) : baseMap;
+
+		if (hash(map) != targetHash) {
+			// The base snapshot is most likely corrupted.
+			snapshotCache.delete(baseHash);
+			throw new SnapshotUnavailableException("Registry sync data based on registry snapshot " + Long.toHexString(baseHash) + " does not match its hash " + Long.toHexString(targetHash));
+		}
+
+		snapshotCache.save(targetHash, map);
+		return map;
+	}
+
+	/**
+	 * Computes a hash of a registry map that does not depend on the iteration order of the map.
+	 */
+	public static long hash(Map<Identifier, Object2IntMap<Identifier>> registryMap) {
+		Hasher hasher = Hashing.sha256().newHasher();
+
+		for (Identifier registryId : sortedRegistryIds(registryMap.keySet())) {
+			List<SortedEntry> entries = sortedEntries(registryMap.get(registryId));
+			hasher.putString(registryId.toString(), StandardCharsets.UTF_8);
+			hasher.putInt(entries.size());
+
+			for (SortedEntry entry : entries) {
+				hasher.putString(entry.id(), StandardCharsets.UTF_8);
+				hasher.putInt(entry.rawId());
+			}
+		}
+
+		return hasher.hash().asLong();
+	}
+
+	/**
+	 * Encodes a full registry map into a deflated stream, also used to store snapshots.
+	 */
+	static byte[] encodeFull(Map<Identifier, Object2IntMap<Identifier>> registryMap, long hash) {
+		PacketByteBuf buf = PacketByteBufs.create();
+		buf.writeVarInt(MODE_FULL);
+		buf.writeLong(hash);
+		writeRegistries(buf, registryMap);
+		return deflate(buf);
+	}
+
+	/**
+	 * Decodes a stream created by {@link #encodeFull}.
+	 *
+	 * @return the registry map, or {@code null} if the stream does not contain a full map with the given hash
+	 */
+	@Nullable
+	static Map<Identifier, Object2IntMap<Identifier>> decodeFull(byte[] data, long expectedHash) {
+		PacketByteBuf buf = inflate(data);
+
+		try {
+			if (buf.readVarInt() != MODE_FULL || buf.readLong() != expectedHash) {
+				return null;
+			}
+
+			return readRegistries(buf);
+		} finally {
+			buf.release();
+		}
+	}
+
+	private static void writeRegistries(PacketByteBuf buf, Map<Identifier, Object2IntMap<Identifier>> registryMap) {
+		List<Identifier> registryIds = sortedRegistryIds(registryMap.keySet());
+		buf.writeVarInt(registryIds.size());
+
+		for (Identifier registryId : registryIds) {
+			buf.writeString(registryId.toString());
+			writeEntries(buf, sortedEntries(registryMap.get(registryId)));
+		}
+	}
+
+	private static Map<Identifier, Object2IntMap<Identifier>> readRegistries(PacketByteBuf buf) {
+		Map<Identifier, Object2IntMap<Identifier>> registryMap = new LinkedHashMap<>();
+		int registryCount = buf.readVarInt();
+
+		for (int i = 0; i < registryCount; i++) {
+			Identifier registryId = Identifier.of(buf.readString());
+			registryMap.put(registryId, toRawIdOrderedMap(readEntries(buf)));
+		}
+
+		return registryMap;
+	}
+
+	private static void writeDelta(PacketByteBuf buf, Map<Identifier, Object2IntMap<Identifier>> baseMap, Map<Identifier, Object2IntMap<Identifier>> targetMap) {
+		List<String> removedRegistries = new ArrayList<>();
+
+		for (Identifier registryId : sortedRegistryIds(baseMap.keySet())) {
+			if (!targetMap.containsKey(registryId)) {
+				removedRegistries.add(registryId.toString());
+			}
+		}
+
+		writeSortedStrings(buf, removedRegistries);
+
+		List<Identifier> changedRegistries = new ArrayList<>();
+
+		for (Identifier registryId : sortedRegistryIds(targetMap.keySet())) {
+			if (!targetMap.get(registryId).equals(baseMap.get(registryId))) {
+				changedRegistries.add(registryId);
+			}
+		}
+
+		buf.writeVarInt(changedRegistries.size());
+
+		for (Identifier registryId : changedRegistries) {
+			Object2IntMap<Identifier> base = baseMap.getOrDefault(registryId, Object2IntMaps.emptyMap());
+			Object2IntMap<Identifier> target = targetMap.get(registryId);
+			List<String> removedIds = new ArrayList<>();
+			List<SortedEntry> changedEntries = new ArrayList<>();
+
+			for (SortedEntry entry : sortedEntries(base)) {
+				if (!target.containsKey(Identifier.of(entry.id()))) {
+					removedIds.add(entry.id());
+				}
+			}
+
+			for (SortedEntry entry : sortedEntries(target)) {
+				Identifier id = Identifier.of(entry.id());
+
+				if (!base.containsKey(id) || base.getInt(id) != entry.rawId()) {
+					changedEntries.add(entry);
+				}
+			}
+
+			buf.writeString(registryId.toString());
+			writeSortedStrings(buf, removedIds);
+			writeEntries(buf, changedEntries);
+		}
+	}
+
+	private static Map<Identifier, Object2IntMap<Identifier>> readDelta(PacketByteBuf buf, Map<Identifier, Object2IntMap<Identifier>> baseMap) {
+		Map<Identifier, Object2IntMap<Identifier>> registryMap = new LinkedHashMap<>(baseMap);
+
+		for (String removedRegistry : readSortedStrings(buf)) {
+			registryMap.remove(Identifier.of(removedRegistry));
+		}
+
+		int changedRegistryCount = buf.readVarInt();
+
+		for (int i = 0; i < changedRegistryCount; i++) {
+			Identifier registryId = Identifier.of(buf.readString());
+			Object2IntMap<Identifier> base = registryMap.get(registryId);
+			Set<String> removedIds = new HashSet<>(readSortedStrings(buf));
+			List<SortedEntry> changedEntries = readEntries(buf);
+
+			// Changed entries replace their base entry, whether their raw id increased or decreased.
+			for (SortedEntry entry : changedEntries) {
+				removedIds.add(entry.id());
+			}
+
+			List<SortedEntry> entries = new ArrayList<>();
+
+			if (base != null) {
+				for (Object2IntMap.Entry<Identifier> entry : base.object2IntEntrySet()) {
+					String id = entry.getKey().toString();
+
+					if (!removedIds.contains(id)) {
+						entries.add(new SortedEntry(id, entry.getIntValue()));
+					}
+				}
+			}
+
+			entries.addAll(changedEntries);
+			registryMap.put(registryId, toRawIdOrderedMap(entries));
+		}
+
+		return registryMap;
+	}
+
+	/**
+	 * Writes entries sorted by id. Each id only contains the part that differs from the previous id,
+	 * and each raw id is written as the difference to the previous raw id.
+	 */
+	private static void writeEntries(PacketByteBuf buf, List<SortedEntry> entries) {
+		buf.writeVarInt(entries.size());
+		String previousId = "";
+		int previousRawId = 0;
+
+		for (SortedEntry entry : entries) {
+			int commonPrefix = commonPrefixLength(previousId, entry.id());
+			buf.writeVarInt(commonPrefix);
+			buf.writeString(entry.id().substring(commonPrefix));
+			buf.writeVarInt(zigZag(entry.rawId() - previousRawId));
+			previousId = entry.id();
+			previousRawId = entry.rawId();
+		}
+	}
+
+	private static List<SortedEntry> readEntries(PacketByteBuf buf) {
+		int size = buf.readVarInt();
+		List<SortedEntry> entries = new ArrayList<>(size);
+		String previousId = "";
+		int previousRawId = 0;
+
+		for (int i = 0; i < size; i++) {
+			String id = previousId.substring(0, buf.readVarInt()) + buf.readString();
+			int rawId = previousRawId + unZigZag(buf.readVarInt());
+			entries.add(new SortedEntry(id, rawId));
+			previousId = id;
+			previousRawId = rawId;
+		}
+
+		return entries;
+	}
+
+	private static void writeSortedStrings(PacketByteBuf buf, List<String> strings) {
+		buf.writeVarInt(strings.size());
+		String previous = "";
+
+		for (String string : strings) {
+			int commonPrefix = commonPrefixLength(previous, string);
+			buf.writeVarInt(commonPrefix);
+			buf.writeString(string.substring(commonPrefix));
+			previous = string;
+		}
+	}
+
+	private static List<String> readSortedStrings(PacketByteBuf buf) {
+		int size = buf.readVarInt();
+		List<String> strings = new ArrayList<>(size);
+		String previous = "";
+
+		for (int i = 0; i < size; i++) {
+			previous = previous.substring(0, buf.readVarInt()) + buf.readString();
+			strings.add(previous);
+		}
+
+		return strings;
+	}
+
+	private static Object2IntMap<Identifier> toRawIdOrderedMap(List<SortedEntry> entries) {
+		List<SortedEntry> sorted = new ArrayList<>(entries);
+		sorted.sort(Comparator.comparingInt(SortedEntry::rawId));
+		Object2IntMap<Identifier> idMap = new Object2IntLinkedOpenHashMap<>(sorted.size());
+
+		for (SortedEntry entry : sorted) {
+			idMap.put(Identifier.of(entry.id()), entry.rawId());
+		}
+
+		return idMap;
+	}
+
+	private static List<Identifier> sortedRegistryIds(Set<Identifier> registryIds) {
+		List<Identifier> sorted = new ArrayList<>(registryIds);
+		sorted.sort(Comparator.comparing(Identifier::toString));
+		return sorted;
+	}
+
+	private static List<SortedEntry> sortedEntries(Object2IntMap<Identifier> idMap) {
+		List<SortedEntry> entries = new ArrayList<>(idMap.size());
+
+		for (Object2IntMap.Entry<Identifier> entry : idMap.object2IntEntrySet()) {
+			entries.add(new SortedEntry(entry.getKey().toString(), entry.getIntValue()));
+		}
+
+		entries.sort(Comparator.comparing(SortedEntry::id));
+		return entries;
+	}
+
+	private static int commonPrefixLength(String a, String b) {
+		int max = Math.min(a.length(), b.length());
+		int i = 0;
+
+		while (i < max && a.charAt(i) == b.charAt(i)) {
+			i++;
+		}
+
+		// Do not split surrogate pairs, as they could not be written as strings.
+		if (i > 0 && Character.isHighSurrogate(a.charAt(i - 1))) {
+			i--;
+		}
+
+		return i;
+	}
+
+	private static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static byte[] deflate(PacketByteBuf buf) {
+		byte[] input = new byte[buf.readableBytes()];
+		buf.readBytes(input);
+		buf.release();
+
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		deflater.setInput(input);
+		deflater.finish();
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 4 + 16);
+		PacketByteBuf header = PacketByteBufs.create();
+		header.writeVarInt(input.length);
+		output.write(header.array(), header.arrayOffset() + header.readerIndex(), header.readableBytes());
+		header.release();
+
+		byte[] deflateBuffer = new byte[8192];
+
+		while (!deflater.finished()) {
+			int length = deflater.deflate(deflateBuffer);
+			output.write(deflateBuffer, 0, length);
+		}
+
+		deflater.end();
+		return output.toByteArray();
+	}
+
+	private static PacketByteBuf inflate(byte[] data) {
+		PacketByteBuf input = new PacketByteBuf(Unpooled.wrappedBuffer(data));
+		int inflatedSize = input.readVarInt();
+
+		if (inflatedSize < 0 || inflatedSize > MAX_INFLATED_SIZE) {
+			throw new IllegalStateException("Invalid inflated registry sync data size: " + inflatedSize);
+		}
+
+		byte[] output = new byte[inflatedSize];
+		Inflater inflater = new Inflater();
+		inflater.setInput(data, input.readerIndex(), input.readableBytes());
+
+		try {
+			int offset = 0;
+
+			while (offset < inflatedSize && !inflater.finished()) {
+				int length = inflater.inflate(output, offset, inflatedSize - offset);
+
+				if (length == 0 && inflater.needsInput()) {
+					break;
+				}
+
+				offset += length;
+			}
+
+			if (offset != inflatedSize) {
+				throw new IllegalStateException("Truncated registry sync data");
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Malformed registry sync data", e);
+		} finally {
+			inflater.end();
+		}
+
+		return new PacketByteBuf(Unpooled.wrappedBuffer(output));
+	}
+
+	private record SortedEntry(String id, int rawId) {
+	}
+
+	/**
+	 * Thrown when received registry sync data is based on a registry snapshot that cannot be used.
+	 */
+	public static final class SnapshotUnavailableException extends RuntimeException {
+		private SnapshotUnavailableException(String message) {
+			super(message);
+		}
+	}
+
+	public record Payload(byte[] data) implements RegistrySyncPayload {
+		public static CustomPayload.Id<Payload> ID = new Id<>(Identifier.of("fabric", "registry/sync/compressed"));
+		public static PacketCodec<PacketByteBuf, Payload> CODEC = CustomPayload.codecOf(Payload::write, Payload::new);
+
+		Payload(PacketByteBuf buf) {
+			this(readAllBytes(buf));
+		}
+
+		private void write(PacketByteBuf buf) {
+			buf.writeBytes(data);
+		}
+
+		private static byte[] readAllBytes(PacketByteBuf buf) {
+			byte[] bytes = new byte[buf.readableBytes()];
+			buf.readBytes(bytes);
+			return bytes;
+		}
+
+		@Override
+		public Id<? extends CustomPayload> getId() {
+			return ID;
+		}
+	}
+
+	/**
+	 * Sent by the server before syncing, with the hash of its registry map.
+	 */
+	public record SnapshotQueryPayload(long hash) implements CustomPayload {
+		public static final CustomPayload.Id<SnapshotQueryPayload> ID = new CustomPayload.Id<>(Identifier.of("fabric", "registry/sync/snapshot_query"));
+		public static final PacketCodec<PacketByteBuf, SnapshotQueryPayload> CODEC = CustomPayload.codecOf(SnapshotQueryPayload::write, SnapshotQueryPayload::new);
+
+		private SnapshotQueryPayload(PacketByteBuf buf) {
+			this(buf.readLong());
+		}
+
+		private void write(PacketByteBuf buf) {
+			buf.writeLong(hash);
+		}
+
+		@Override
+		public Id<? extends CustomPayload> getId() {
+			return ID;
+		}
+	}
+
+	/**
+	 * Sent by the client in response to a {@link SnapshotQueryPayload}, with the hashes of the registry maps it has cached.
+	 * Also sent without any hash when the received data was based on a snapshot that the client could not use,
+	 * to request the full registry map.
+	 */
+	public record KnownSnapshotsPayload(long[] hashes) implements CustomPayload {
+		public static final CustomPayload.Id<KnownSnapshotsPayload> ID = new CustomPayload.Id<>(Identifier.of("fabric", "registry/sync/known_snapshots"));
+		public static final PacketCodec<PacketByteBuf, KnownSnapshotsPayload> CODEC = CustomPayload.codecOf(KnownSnapshotsPayload::write, KnownSnapshotsPayload::new);
+		private static final int MAX_HASHES = 64;
+
+		private KnownSnapshotsPayload(PacketByteBuf buf) {
+			this(readHashes(buf));
+		}
+
+		private void write(PacketByteBuf buf) {
+			buf.writeLongArray(hashes);
+		}
+
+		private static long[] readHashes(PacketByteBuf buf) {
+			int size = buf.readVarInt();
+
+			if (size > MAX_HASHES) {
+				throw new IllegalStateException("Too many known registry snapshots: " + size);
+			}
+
+			long[] hashes = new long[size];
+
+			for (int i = 0; i < size; i++) {
+				hashes[i] = buf.readLong();
+			}
+
+			return hashes;
+		}
+
+		@Override
+		public Id<? extends CustomPayload> getId() {
+			return ID;
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.registry.sync.packet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.minecraft.util.Identifier;
+
+/**
+ * Stores registry maps on disk, identified by their {@linkplain CompressedRegistryPacketHandler#hash hash}.
+ *
+ * <p>Clients store the maps they received, and servers store the maps they sent,
+ * so that later syncs can only send the difference to a map both sides know about.
+ * Only the most recently used snapshots are kept.
+ */
+public final class RegistrySnapshotCache {
+	private static final Logger LOGGER = LoggerFactory.getLogger("FabricRegistrySync");
+	private static final String EXTENSION = ".bin";
+	private static final int MAX_SNAPSHOTS = Integer.getInteger("fabric.registry.compressed.maxCachedSnapshots", 8);
+
+	private final Path directory;
+
+	public RegistrySnapshotCache(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @return the hashes of the cached snapshots, most recently used first
+	 */
+	public synchronized long[] getKnownHashes() {
+		return listSnapshots().stream()
+				.limit(MAX_SNAPSHOTS)
+				.mapToLong(path -> parseHash(path.getFileName().toString()))
+				.toArray();
+	}
+
+	@Nullable
+	public synchronized Map<Identifier, Object2IntMap<Identifier>> load(long hash) {
+		Path path = getPath(hash);
+
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+
+		try {
+			Map<Identifier, Object2IntMap<Identifier>> map = CompressedRegistryPacketHandler.decodeFull(Files.readAllBytes(path), hash);
+
+			if (map == null) {
+				LOGGER.warn("Discarding invalid registry snapshot {}", path);
+				Files.deleteIfExists(path);
+			}
+
+			return map;
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Failed to read registry snapshot {}", path, e);
+			// Discard it so that it is replaced by the next full sync.
+			delete(hash);
+			return null;
+		}
+	}
+
+	public synchronized void save(long hash, Map<Identifier, Object2IntMap<Identifier>> map) {
+		Path path = getPath(hash);
+
+		try {
+			if (Files.isRegularFile(path)) {
+				// Mark as recently used.
+				Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+				return;
+			}
+
+			Files.createDirectories(directory);
+			Path tempPath = directory.resolve(Long.toHexString(hash) + ".tmp");
+			Files.write(tempPath, CompressedRegistryPacketHandler.encodeFull(map, hash));
+			Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			prune();
+		} catch (IOException e) {
+			LOGGER.warn("Failed to write registry snapshot {}", path, e);
+		}
+	}
+
+	public synchronized void delete(long hash) {
+		try {
+			Files.deleteIfExists(getPath(hash));
+		} catch (IOException e) {
+			LOGGER.warn("Failed to delete registry snapshot {}", getPath(hash), e);
+		}
+	}
+
+	private void prune() throws IOException {
+		List<Path> snapshots = listSnapshots();
+
+		for (int i = MAX_SNAPSHOTS; i < snapshots.size(); i++) {
+			Files.deleteIfExists(snapshots.get(i));
+		}
+	}
+
+	private List<Path> listSnapshots() {
+		if (!Files.isDirectory(directory)) {
+			return List.of();
+		}
+
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(path -> isSnapshotFile(path.getFileName().toString()))
+					.sorted(Comparator.comparing(RegistrySnapshotCache::getLastModifiedTime).reversed())
+					.toList();
+		} catch (IOException e) {
+			LOGGER.warn("Failed to list registry snapshots in {}", directory, e);
+			return List.of();
+		}
+	}
+
+	private Path getPath(long hash) {
+		return directory.resolve(Long.toHexString(hash) + EXTENSION);
+	}
+
+	private static boolean isSnapshotFile(String fileName) {
+		if (!fileName.endsWith(EXTENSION)) {
+			return false;
+		}
+
+		try {
+			parseHash(fileName);
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private static long parseHash(String fileName) {
+		return Long.parseUnsignedLong(fileName.substring(0, fileName.length() - EXTENSION.length()), 16);
+	}
+
+	private static FileTime getLastModifiedTime(Path path) {
+		try {
+			return Files.getLastModifiedTime(path);
+		} catch (IOException e) {
+			return FileTime.fromMillis(0);
+		}
+	}
+}
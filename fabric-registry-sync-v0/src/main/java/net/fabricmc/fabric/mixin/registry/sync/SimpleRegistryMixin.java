@@ -166,6 +166,11 @@ public abstract class SimpleRegistryMixin<T> implements MutableRegistry<T>, Rema
 
 	@Override
 	public void remap(String name, Object2IntMap<Identifier> remoteIndexedEntries, RemapMode mode) throws RemapException {
+		remapWithoutCallbacks(name, remoteIndexedEntries, mode).run();
+	}
+
+	@Override
+	public Runnable remapWithoutCallbacks(String name, Object2IntMap<Identifier> remoteIndexedEntries, RemapMode mode) throws RemapException {
 		// Throw on invalid conditions.
 		switch (mode) {
 		case AUTHORITATIVE:
@@ -346,7 +351,8 @@ public abstract class SimpleRegistryMixin<T> implements MutableRegistry<T>, Rema
 			entryToRawId.put(object.value(), id);
 		}
 
-		fabric_getRemapEvent().invoker().onRemap(new RemapStateImpl<>(this, oldIdMap, idMap));
+		RemapStateImpl<T> remapState = new RemapStateImpl<>(this, oldIdMap, idMap);
+		return () -> fabric_getRemapEvent().invoker().onRemap(remapState);
 	}
 
 	@Override
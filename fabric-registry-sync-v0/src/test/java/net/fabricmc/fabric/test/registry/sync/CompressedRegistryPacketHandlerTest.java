@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.registry.sync;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.impl.registry.sync.packet.CompressedRegistryPacketHandler;
+import net.fabricmc.fabric.impl.registry.sync.packet.RegistrySnapshotCache;
+
+public class CompressedRegistryPacketHandlerTest {
+	@TempDir
+	Path serverDir;
+
+	@TempDir
+	Path clientDir;
+
+	@Test
+	void fullRegistrySync() {
+		CompressedRegistryPacketHandler server = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(serverDir));
+		CompressedRegistryPacketHandler client = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(clientDir));
+		Map<Identifier, Object2IntMap<Identifier>> registry = createRegistries(10, 15000);
+
+		List<CompressedRegistryPacketHandler.Payload> payloads = sync(server, client, registry, new long[0]);
+
+		// The deflated stream should fit in a single payload, followed by the empty end marker.
+		assertEquals(2, payloads.size());
+		assertMatchesDeep(registry, client.getSyncedRegistryMap());
+		assertArrayEquals(new long[]{CompressedRegistryPacketHandler.hash(registry)}, client.getSnapshotCache().getKnownHashes());
+	}
+
+	@Test
+	void cachedRegistrySync() {
+		CompressedRegistryPacketHandler server = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(serverDir));
+		CompressedRegistryPacketHandler client = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(clientDir));
+		Map<Identifier, Object2IntMap<Identifier>> registry = createRegistries(10, 15000);
+
+		sync(server, client, registry, new long[0]);
+		client.getSyncedRegistryMap();
+
+		List<CompressedRegistryPacketHandler.Payload> payloads = sync(server, client, registry, client.getSnapshotCache().getKnownHashes());
+
+		// Only the hash should be sent.
+		assertTrue(payloads.get(0).data().length < 32);
+		assertMatchesDeep(registry, client.getSyncedRegistryMap());
+	}
+
+	@Test
+	void deltaRegistrySync() {
+		CompressedRegistryPacketHandler server = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(serverDir));
+		CompressedRegistryPacketHandler client = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(clientDir));
+		Map<Identifier, Object2IntMap<Identifier>> registry = createRegistries(10, 15000);
+
+		List<CompressedRegistryPacketHandler.Payload> fullPayloads = sync(server, client, registry, new long[0]);
+		client.getSyncedRegistryMap();
+
+		Map<Identifier, Object2IntMap<Identifier>> modified = createRegistries(10, 15000);
+		modified.remove(Identifier.of("test", "registry_0"));
+		modified.get(Identifier.of("test", "registry_1")).removeInt(Identifier.of("test", "entry_5"));
+		modified.get(Identifier.of("test", "registry_2")).put(Identifier.of("other", "entry"), 20000);
+		modified.get(Identifier.of("test", "registry_3")).put(Identifier.of("test", "entry_7"), 30000);
+		modified.put(Identifier.of("test", "new_registry"), createRegistry(20));
+
+		List<CompressedRegistryPacketHandler.Payload> deltaPayloads = sync(server, client, modified, client.getSnapshotCache().getKnownHashes());
+
+		assertTrue(deltaPayloads.get(0).data().length < fullPayloads.get(0).data().length / 10);
+		assertMatchesDeep(modified, client.getSyncedRegistryMap());
+	}
+
+	@Test
+	void reorderedDeltaRegistrySync() {
+		CompressedRegistryPacketHandler server = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(serverDir));
+		CompressedRegistryPacketHandler client = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(clientDir));
+		Map<Identifier, Object2IntMap<Identifier>> registry = createRegistries(2, 100);
+
+		sync(server, client, registry, new long[0]);
+		client.getSyncedRegistryMap();
+
+		Map<Identifier, Object2IntMap<Identifier>> modified = createRegistries(2, 100);
+		// entry_50 takes the raw id of the removed entry_3, which is lower than its own.
+		Object2IntMap<Identifier> decreased = modified.get(Identifier.of("test", "registry_0"));
+		decreased.removeInt(Identifier.of("test", "entry_3"));
+		decreased.put(Identifier.of("test", "entry_50"), 3);
+		// entry_10 and entry_20 swap their raw ids.
+		Object2IntMap<Identifier> swapped = modified.get(Identifier.of("test", "registry_1"));
+		swapped.put(Identifier.of("test", "entry_10"), 20);
+		swapped.put(Identifier.of("test", "entry_20"), 10);
+
+		sync(server, client, modified, client.getSnapshotCache().getKnownHashes());
+		assertMatchesDeep(modified, client.getSyncedRegistryMap());
+
+		// The rebuilt map matches the server's, so the base snapshot is kept and the new one stored next to it.
+		long[] expectedHashes = {CompressedRegistryPacketHandler.hash(registry), CompressedRegistryPacketHandler.hash(modified)};
+		long[] knownHashes = client.getSnapshotCache().getKnownHashes();
+		Arrays.sort(expectedHashes);
+		Arrays.sort(knownHashes);
+		assertArrayEquals(expectedHashes, knownHashes);
+	}
+
+	@Test
+	void unknownSnapshotRegistrySync() {
+		CompressedRegistryPacketHandler server = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(serverDir));
+		CompressedRegistryPacketHandler client = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(clientDir));
+		Map<Identifier, Object2IntMap<Identifier>> registry = createRegistries(2, 100);
+
+		// The client claims to know the map, but does not have it.
+		sync(server, client, registry, new long[]{CompressedRegistryPacketHandler.hash(registry)});
+
+		assertThrows(CompressedRegistryPacketHandler.SnapshotUnavailableException.class, client::getSyncedRegistryMap);
+
+		// The client then requests the full map.
+		sync(server, client, registry, new long[0]);
+		assertMatchesDeep(registry, client.getSyncedRegistryMap());
+	}
+
+	@Test
+	void corruptedSnapshotRegistrySync() throws IOException {
+		CompressedRegistryPacketHandler server = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(serverDir));
+		CompressedRegistryPacketHandler client = new CompressedRegistryPacketHandler(new RegistrySnapshotCache(clientDir));
+		Map<Identifier, Object2IntMap<Identifier>> registry = createRegistries(2, 100);
+		long hash = CompressedRegistryPacketHandler.hash(registry);
+
+		sync(server, client, registry, new long[0]);
+		client.getSyncedRegistryMap();
+
+		try (Stream<Path> files = Files.list(clientDir)) {
+			for (Path file : files.toList()) {
+				Files.write(file, new byte[]{1, 2, 3});
+			}
+		}
+
+		sync(server, client, registry, client.getSnapshotCache().getKnownHashes());
+		assertThrows(CompressedRegistryPacketHandler.SnapshotUnavailableException.class, client::getSyncedRegistryMap);
+
+		sync(server, client, registry, new long[0]);
+		assertMatchesDeep(registry, client.getSyncedRegistryMap());
+
+		// The snapshot has been replaced, and can be used again.
+		assertArrayEquals(new long[]{hash}, client.getSnapshotCache().getKnownHashes());
+		sync(server, client, registry, client.getSnapshotCache().getKnownHashes());
+		assertMatchesDeep(registry, client.getSyncedRegistryMap());
+	}
+
+	private static List<CompressedRegistryPacketHandler.Payload> sync(CompressedRegistryPacketHandler server, CompressedRegistryPacketHandler client, Map<Identifier, Object2IntMap<Identifier>> registry, long[] knownSnapshots) {
+		var payloads = new ArrayList<CompressedRegistryPacketHandler.Payload>();
+		server.sendPacket(payloads::add, registry, knownSnapshots);
+
+		// Last payload is empty, indicating all the data has been sent.
+		assertEquals(0, payloads.get(payloads.size() - 1).data().length);
+
+		for (CompressedRegistryPacketHandler.Payload payload : payloads) {
+			client.receivePayload(payload);
+		}
+
+		return payloads;
+	}
+
+	private static Map<Identifier, Object2IntMap<Identifier>> createRegistries(int count, int size) {
+		Map<Identifier, Object2IntMap<Identifier>> registries = new HashMap<>();
+
+		for (int i = 0; i < count; i++) {
+			registries.put(Identifier.of("test", "registry_" + i), createRegistry(size));
+		}
+
+		return registries;
+	}
+
+	private static Object2IntMap<Identifier> createRegistry(int size) {
+		Object2IntMap<Identifier> entries = new Object2IntOpenHashMap<>();
+
+		for (int i = 0; i < size; i++) {
+			entries.put(Identifier.of("test", "entry_" + i), i);
+		}
+
+		return entries;
+	}
+
+	// Deep comparison of two maps of maps
+	private static void assertMatchesDeep(Map<Identifier, Object2IntMap<Identifier>> expected, Map<Identifier, Object2IntMap<Identifier>> actual) {
+		assertEquals(expected.size(), actual.size());
+
+		for (Map.Entry<Identifier, Object2IntMap<Identifier>> entry : expected.entrySet()) {
+			Object2IntMap<Identifier> actualValue = actual.get(entry.getKey());
+			assertEquals(entry.getValue(), actualValue);
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.registry.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.mojang.serialization.Lifecycle;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.SimpleRegistry;
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.api.event.registry.RegistryIdRemapCallback;
+import net.fabricmc.fabric.impl.registry.sync.RegistrySyncManager;
+import net.fabricmc.fabric.impl.registry.sync.RemapException;
+import net.fabricmc.fabric.impl.registry.sync.RemappableRegistry;
+
+public class ParallelRegistryRemapTest {
+	@BeforeAll
+	static void beforeAll() {
+		SharedConstants.createGameVersion();
+		Bootstrap.initialize();
+	}
+
+	@Test
+	void callbacksRunInOrderAfterAllRemaps() throws RemapException {
+		List<String> events = Collections.synchronizedList(new ArrayList<>());
+		List<RegistrySyncManager.RegistryRemap> remaps = new ArrayList<>();
+
+		for (int i = 0; i < 8; i++) {
+			remaps.add(remap("registry" + i, new FakeRegistry("registry" + i, events, null)));
+		}
+
+		RegistrySyncManager.remapParallel(remaps, RemappableRegistry.RemapMode.AUTHORITATIVE);
+
+		assertEquals(16, events.size());
+
+		for (int i = 0; i < 8; i++) {
+			assertTrue(events.subList(0, 8).contains("remap registry" + i));
+			// The callbacks run on the calling thread, in registry order.
+			assertEquals("callback registry" + i + " on " + Thread.currentThread().getName(), events.get(8 + i));
+		}
+	}
+
+	@Test
+	void callbacksRunWhenRemapFails() {
+		List<String> events = Collections.synchronizedList(new ArrayList<>());
+		RemapException failure = new RemapException("first");
+		RemapException otherFailure = new RemapException("second");
+		List<RegistrySyncManager.RegistryRemap> remaps = List.of(
+				remap("valid0", new FakeRegistry("valid0", events, null)),
+				remap("failing0", new FakeRegistry("failing0", events, failure)),
+				remap("valid1", new FakeRegistry("valid1", events, null)),
+				remap("failing1", new FakeRegistry("failing1", events, otherFailure))
+		);
+
+		RemapException thrown = assertThrows(RemapException.class, () -> RegistrySyncManager.remapParallel(remaps, RemappableRegistry.RemapMode.AUTHORITATIVE));
+
+		// The first failure in registry order is thrown, with the others suppressed.
+		assertSame(failure, thrown);
+		assertEquals(1, thrown.getSuppressed().length);
+		assertSame(otherFailure, thrown.getSuppressed()[0]);
+
+		// The registries that were remapped still notify their listeners.
+		String thread = " on " + Thread.currentThread().getName();
+		assertEquals(List.of("callback valid0" + thread, "callback valid1" + thread), events.stream().filter(event -> event.startsWith("callback")).toList());
+	}
+
+	@Test
+	void remapWithoutCallbacksDefersCallback() throws RemapException {
+		RegistryKey<Registry<String>> key = RegistryKey.ofRegistry(Identifier.of("fabric", "parallel_remap_test"));
+		SimpleRegistry<String> registry = new SimpleRegistry<>(key, Lifecycle.stable());
+		Registry.register(registry, Identifier.of("fabric", "a"), "a");
+		Registry.register(registry, Identifier.of("fabric", "b"), "b");
+		Registry.register(registry, Identifier.of("fabric", "c"), "c");
+
+		AtomicBoolean remapped = new AtomicBoolean();
+		RegistryIdRemapCallback.event(registry).register(state -> {
+			// The registry is already remapped when the callback runs.
+			assertEquals(0, registry.getRawId("c"));
+			assertEquals("a", state.getIdFromOld(0).getPath());
+			remapped.set(true);
+		});
+
+		Object2IntMap<Identifier> remoteIds = new Object2IntOpenHashMap<>();
+		remoteIds.put(Identifier.of("fabric", "c"), 0);
+		remoteIds.put(Identifier.of("fabric", "b"), 1);
+		remoteIds.put(Identifier.of("fabric", "a"), 2);
+
+		Runnable callback = ((RemappableRegistry) registry).remapWithoutCallbacks(key.getValue().toString(), remoteIds, RemappableRegistry.RemapMode.AUTHORITATIVE);
+
+		assertFalse(remapped.get());
+		assertEquals(2, registry.getRawId("a"));
+		assertEquals("c", registry.get(0));
+
+		callback.run();
+
+		assertTrue(remapped.get());
+	}
+
+	private static RegistrySyncManager.RegistryRemap remap(String name, RemappableRegistry registry) {
+		return new RegistrySyncManager.RegistryRemap(name, registry, new Object2IntOpenHashMap<>());
+	}
+
+	private record FakeRegistry(String registryName, List<String> events, @Nullable RemapException failure) implements RemappableRegistry {
+		@Override
+		public void remap(String name, Object2IntMap<Identifier> remoteIndexedEntries, RemapMode mode) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Runnable remapWithoutCallbacks(String name, Object2IntMap<Identifier> remoteIndexedEntries, RemapMode mode) throws RemapException {
+			if (failure != null) {
+				throw failure;
+			}
+
+			events.add("remap " + registryName);
+			return () -> events.add("callback " + registryName + " on " + Thread.currentThread().getName());
+		}
+
+		@Override
+		public void unmap(String name) { }
+	}
+}
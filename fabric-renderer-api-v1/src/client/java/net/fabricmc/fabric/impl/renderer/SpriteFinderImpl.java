@@ -16,9 +16,14 @@
 
 package net.fabricmc.fabric.impl.renderer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
+import com.google.common.math.IntMath;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,30 +31,108 @@ import net.minecraft.client.texture.MissingSprite;
 import net.minecraft.client.texture.Sprite;
 import net.minecraft.client.texture.SpriteAtlasTexture;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.math.MathHelper;
 
 import net.fabricmc.fabric.api.renderer.v1.mesh.QuadView;
 import net.fabricmc.fabric.api.renderer.v1.model.SpriteFinder;
 
 /**
  * Indexes an atlas sprite to allow fast lookup of Sprites from
- * baked vertex coordinates.  Implementation is a straightforward
- * quad tree. Other options that were considered were linear search
- * (slow) and direct indexing of fixed-size cells. Direct indexing
- * would be fastest but would be memory-intensive for large atlases
- * and unsuitable for any atlas that isn't consistently aligned to
- * a fixed cell size.
+ * baked vertex coordinates.  Sprites of an atlas are usually aligned to a
+ * common cell size, in which case the atlas is directly indexed by a flat
+ * grid of fixed-size cells, which only costs a single array read per lookup.
+ * Atlases that aren't aligned to a cell size small enough to keep the grid
+ * compact fall back to a straightforward quad tree. Linear search was also
+ * considered but is too slow.
  */
 public class SpriteFinderImpl implements SpriteFinder {
 	private static final Logger LOGGER = LoggerFactory.getLogger(SpriteFinderImpl.class);
+	// Maximum number of cells of the grid index, larger grids use the quad tree instead.
+	private static final int MAX_GRID_CELLS = 1 << 20;
 
+	@Nullable
 	private final Node root;
 	private final SpriteAtlasTexture spriteAtlasTexture;
 	private int badSpriteCount = 0;
 
+	// Grid index, only set if the atlas is aligned to a cell size that keeps the grid small enough
+	@Nullable
+	private final Sprite[] gridSprites;
+	// Index in gridSprites plus one of the sprite in each cell, or 0 if the cell is empty
+	@Nullable
+	private final int[] grid;
+	private final int gridWidth;
+	private final int gridHeight;
+
 	public SpriteFinderImpl(Map<Identifier, Sprite> sprites, SpriteAtlasTexture spriteAtlasTexture) {
-		root = new Node(0.5f, 0.5f, 0.25f);
 		this.spriteAtlasTexture = spriteAtlasTexture;
-		sprites.values().forEach(root::add);
+		List<Sprite> validSprites = new ArrayList<>(sprites.size());
+
+		for (Sprite sprite : sprites.values()) {
+			if (hasValidBounds(sprite)) {
+				validSprites.add(sprite);
+			}
+		}
+
+		int cellSize = 0;
+		int atlasWidth = 0;
+		int atlasHeight = 0;
+
+		if (!validSprites.isEmpty()) {
+			Sprite first = validSprites.getFirst();
+			atlasWidth = Math.round(first.getContents().getWidth() / (first.getMaxU() - first.getMinU()));
+			atlasHeight = Math.round(first.getContents().getHeight() / (first.getMaxV() - first.getMinV()));
+			cellSize = IntMath.gcd(atlasWidth, atlasHeight);
+
+			for (Sprite sprite : validSprites) {
+				cellSize = IntMath.gcd(cellSize, sprite.getX());
+				cellSize = IntMath.gcd(cellSize, sprite.getY());
+				cellSize = IntMath.gcd(cellSize, sprite.getContents().getWidth());
+				cellSize = IntMath.gcd(cellSize, sprite.getContents().getHeight());
+			}
+		}
+
+		if (cellSize > 0 && (long) (atlasWidth / cellSize) * (atlasHeight / cellSize) <= MAX_GRID_CELLS) {
+			root = null;
+			gridWidth = atlasWidth / cellSize;
+			gridHeight = atlasHeight / cellSize;
+			gridSprites = validSprites.toArray(Sprite[]::new);
+			grid = new int[gridWidth * gridHeight];
+
+			for (int i = 0; i < gridSprites.length; i++) {
+				Sprite sprite = gridSprites[i];
+				int minX = sprite.getX() / cellSize;
+				int minY = sprite.getY() / cellSize;
+				int maxX = Math.min(gridWidth, minX + sprite.getContents().getWidth() / cellSize);
+				int maxY = Math.min(gridHeight, minY + sprite.getContents().getHeight() / cellSize);
+
+				for (int y = minY; y < maxY; y++) {
+					Arrays.fill(grid, y * gridWidth + minX, y * gridWidth + maxX, i + 1);
+				}
+			}
+		} else {
+			root = new Node(0.5f, 0.5f, 0.25f);
+			gridSprites = null;
+			grid = null;
+			gridWidth = 0;
+			gridHeight = 0;
+			validSprites.forEach(root::add);
+		}
+	}
+
+	private boolean hasValidBounds(Sprite sprite) {
+		if (sprite.getMinU() < 0 - Node.EPS || sprite.getMaxU() > 1 + Node.EPS || sprite.getMinV() < 0 - Node.EPS || sprite.getMaxV() > 1 + Node.EPS) {
+			// Sprite has broken bounds. This SHOULD NOT happen, but in the past some mods have broken this.
+			// Prefer failing with a log warning rather than risking a stack overflow.
+			if (badSpriteCount++ < 5) {
+				String errorMessage = "SpriteFinderImpl: Skipping sprite {} with broken bounds [{}, {}]x[{}, {}]. Sprite bounds should be between 0 and 1.";
+				LOGGER.error(errorMessage, sprite.getContents().getId(), sprite.getMinU(), sprite.getMaxU(), sprite.getMinV(), sprite.getMaxV());
+			}
+
+			return false;
+		}
+
+		return true;
 	}
 
 	@Override
@@ -67,7 +150,18 @@ public class SpriteFinderImpl implements SpriteFinder {
 
 	@Override
 	public Sprite find(float u, float v) {
-		return root.find(u, v);
+		if (grid == null) {
+			return root.find(u, v);
+		}
+
+		int x = MathHelper.clamp((int) (u * gridWidth), 0, gridWidth - 1);
+		int y = MathHelper.clamp((int) (v * gridHeight), 0, gridHeight - 1);
+		int index = grid[y * gridWidth + x];
+		return index == 0 ? missingSprite() : gridSprites[index - 1];
+	}
+
+	private Sprite missingSprite() {
+		return spriteAtlasTexture.getSprite(MissingSprite.getMissingSpriteId());
 	}
 
 	private class Node {
@@ -88,17 +182,6 @@ public class SpriteFinderImpl implements SpriteFinder {
 		static final float EPS = 0.00001f;
 
 		void add(Sprite sprite) {
-			if (sprite.getMinU() < 0 - EPS || sprite.getMaxU() > 1 + EPS || sprite.getMinV() < 0 - EPS || sprite.getMaxV() > 1 + EPS) {
-				// Sprite has broken bounds. This SHOULD NOT happen, but in the past some mods have broken this.
-				// Prefer failing with a log warning rather than risking a stack overflow.
-				if (badSpriteCount++ < 5) {
-					String errorMessage = "SpriteFinderImpl: Skipping sprite {} with broken bounds [{}, {}]x[{}, {}]. Sprite bounds should be between 0 and 1.";
-					LOGGER.error(errorMessage, sprite.getContents().getId(), sprite.getMinU(), sprite.getMaxU(), sprite.getMinV(), sprite.getMaxV());
-				}
-
-				return;
-			}
-
 			final boolean lowU = sprite.getMinU() < midU - EPS;
 			final boolean highU = sprite.getMaxU() > midU + EPS;
 			final boolean lowV = sprite.getMinV() < midV - EPS;
@@ -152,7 +235,7 @@ public class SpriteFinderImpl implements SpriteFinder {
 			} else if (quadrant instanceof Node) {
 				return ((Node) quadrant).find(u, v);
 			} else {
-				return spriteAtlasTexture.getSprite(MissingSprite.getMissingSpriteId());
+				return missingSprite();
 			}
 		}
 	}
@@ -17,6 +17,7 @@
 package net.fabricmc.fabric.mixin.renderer.client;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
@@ -29,6 +30,7 @@ import net.minecraft.client.texture.Sprite;
 import net.minecraft.client.texture.SpriteAtlasTexture;
 import net.minecraft.client.texture.SpriteLoader;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
 
 import net.fabricmc.fabric.impl.renderer.SpriteFinderImpl;
 
@@ -38,22 +40,24 @@ public class SpriteAtlasTextureMixin implements SpriteFinderImpl.SpriteFinderAcc
 	@Shadow
 	private Map<Identifier, Sprite> sprites;
 
-	private SpriteFinderImpl fabric_spriteFinder = null;
+	private CompletableFuture<SpriteFinderImpl> fabric_spriteFinder = null;
 
 	@Inject(at = @At("RETURN"), method = "upload")
 	private void uploadHook(SpriteLoader.StitchResult arg, CallbackInfo ci) {
-		fabric_spriteFinder = null;
+		// Index the new sprites in the background, so that the first lookup doesn't have to.
+		Map<Identifier, Sprite> sprites = Map.copyOf(this.sprites);
+		fabric_spriteFinder = CompletableFuture.supplyAsync(() -> new SpriteFinderImpl(sprites, (SpriteAtlasTexture) (Object) this), Util.getMainWorkerExecutor());
 	}
 
 	@Override
 	public SpriteFinderImpl fabric_spriteFinder() {
-		SpriteFinderImpl result = fabric_spriteFinder;
+		CompletableFuture<SpriteFinderImpl> result = fabric_spriteFinder;
 
 		if (result == null) {
-			result = new SpriteFinderImpl(sprites, (SpriteAtlasTexture) (Object) this);
+			result = CompletableFuture.completedFuture(new SpriteFinderImpl(sprites, (SpriteAtlasTexture) (Object) this));
 			fabric_spriteFinder = result;
 		}
 
-		return result;
+		return result.join();
 	}
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.renderer;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.client.texture.MissingSprite;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.client.texture.SpriteAtlasTexture;
+import net.minecraft.client.texture.SpriteContents;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
+
+import net.fabricmc.fabric.api.renderer.v1.mesh.QuadView;
+import net.fabricmc.fabric.impl.renderer.SpriteFinderImpl;
+
+public class SpriteFinderImplTest {
+	private SpriteAtlasTexture atlas;
+	private Sprite missingSprite;
+
+	@BeforeEach
+	void setUp() {
+		atlas = mock(SpriteAtlasTexture.class);
+		missingSprite = mock(Sprite.class);
+		when(atlas.getSprite(MissingSprite.getMissingSpriteId())).thenReturn(missingSprite);
+	}
+
+	@Test
+	void alignedAtlasUsesGrid() {
+		Map<Identifier, Sprite> sprites = new LinkedHashMap<>();
+		Sprite small = addSprite(sprites, "small", 64, 64, 0, 0, 16, 16);
+		Sprite large = addSprite(sprites, "large", 64, 64, 16, 0, 32, 32);
+		SpriteFinderImpl finder = new SpriteFinderImpl(sprites, atlas);
+
+		assertSame(small, finder.find(0.1f, 0.1f));
+		assertSame(large, finder.find(0.3f, 0.1f));
+		assertSame(large, finder.find(0.7f, 0.45f));
+		assertSame(missingSprite, finder.find(0.1f, 0.3f));
+		assertSame(missingSprite, finder.find(0.9f, 0.9f));
+	}
+
+	@Test
+	void unalignedAtlasFallsBackToQuadTree() {
+		// The sprites are only aligned to single texels, which would need a grid of 4096 * 4096 cells.
+		Map<Identifier, Sprite> sprites = new LinkedHashMap<>();
+		Sprite first = addSprite(sprites, "first", 4096, 4096, 1, 1, 16, 16);
+		Sprite second = addSprite(sprites, "second", 4096, 4096, 2049, 2049, 16, 16);
+		SpriteFinderImpl finder = new SpriteFinderImpl(sprites, atlas);
+
+		assertSame(first, finder.find(9 / 4096f, 9 / 4096f));
+		assertSame(second, finder.find(2057 / 4096f, 2057 / 4096f));
+		assertSame(missingSprite, finder.find(0.25f, 0.75f));
+	}
+
+	@Test
+	void spritesWithBrokenBoundsAreSkipped() {
+		Map<Identifier, Sprite> sprites = new LinkedHashMap<>();
+		Sprite broken = addSprite(sprites, "broken", 64, 64, 0, 0, 16, 16);
+		when(broken.getMaxU()).thenReturn(1.5f);
+		Sprite valid = addSprite(sprites, "valid", 64, 64, 16, 0, 16, 16);
+		SpriteFinderImpl finder = new SpriteFinderImpl(sprites, atlas);
+
+		assertSame(missingSprite, finder.find(0.1f, 0.1f));
+		assertSame(valid, finder.find(0.3f, 0.1f));
+	}
+
+	@Test
+	void findQuadUsesVertexCenter() {
+		Map<Identifier, Sprite> sprites = new LinkedHashMap<>();
+		addSprite(sprites, "left", 64, 64, 0, 0, 32, 64);
+		Sprite right = addSprite(sprites, "right", 64, 64, 32, 0, 32, 64);
+		SpriteFinderImpl finder = new SpriteFinderImpl(sprites, atlas);
+		QuadView quad = mock(QuadView.class);
+
+		// The quad touches the left sprite, but is centered in the right sprite.
+		float[] u = {0.5f, 0.5f, 1.0f, 1.0f};
+
+		for (int i = 0; i < 4; i++) {
+			when(quad.u(i)).thenReturn(u[i]);
+			when(quad.v(i)).thenReturn(i < 2 ? 0.0f : 1.0f);
+		}
+
+		assertSame(right, finder.find(quad));
+	}
+
+	@Test
+	void finderBuiltOnWorkerThread() {
+		// The atlas mixin builds the finder on the main worker executor once the atlas is uploaded.
+		Map<Identifier, Sprite> sprites = new LinkedHashMap<>();
+		Sprite sprite = addSprite(sprites, "sprite", 64, 64, 16, 16, 16, 16);
+		SpriteFinderImpl finder = CompletableFuture.supplyAsync(() -> new SpriteFinderImpl(Map.copyOf(sprites), atlas), Util.getMainWorkerExecutor()).join();
+
+		assertSame(sprite, finder.find(0.3f, 0.3f));
+		assertSame(missingSprite, finder.find(0.1f, 0.1f));
+	}
+
+	private static Sprite addSprite(Map<Identifier, Sprite> sprites, String name, int atlasWidth, int atlasHeight, int x, int y, int width, int height) {
+		Identifier id = Identifier.of("fabric", name);
+		SpriteContents contents = mock(SpriteContents.class);
+		when(contents.getId()).thenReturn(id);
+		when(contents.getWidth()).thenReturn(width);
+		when(contents.getHeight()).thenReturn(height);
+
+		Sprite sprite = mock(Sprite.class);
+		when(sprite.getContents()).thenReturn(contents);
+		when(sprite.getX()).thenReturn(x);
+		when(sprite.getY()).thenReturn(y);
+		when(sprite.getMinU()).thenReturn((float) x / atlasWidth);
+		when(sprite.getMaxU()).thenReturn((float) (x + width) / atlasWidth);
+		when(sprite.getMinV()).thenReturn((float) y / atlasHeight);
+		when(sprite.getMaxV()).thenReturn((float) (y + height) / atlasHeight);
+
+		sprites.put(id, sprite);
+		return sprite;
+	}
+}
@@ -48,6 +48,8 @@ public class Indigo implements ClientModInitializer {
 	public static final boolean FIX_EMISSIVE_LIGHTING;
 	public static final boolean FIX_EXTERIOR_VERTEX_LIGHTING;
 	public static final boolean FIX_LUMINOUS_AO_SHADE;
+	/** Merges and removes redundant quads when building meshes, see {@code MeshOptimizer}. */
+	public static final boolean OPTIMIZE_MESHES;
 
 	public static final Logger LOGGER = LoggerFactory.getLogger(Indigo.class);
 
@@ -125,6 +127,7 @@ public class Indigo implements ClientModInitializer {
 		FIX_EMISSIVE_LIGHTING = FIX_MEAN_LIGHT_CALCULATION;
 		FIX_EXTERIOR_VERTEX_LIGHTING = asBoolean((String) properties.computeIfAbsent("fix-exterior-vertex-lighting", (a) -> "auto"), true);
 		FIX_LUMINOUS_AO_SHADE = asBoolean((String) properties.computeIfAbsent("fix-luminous-block-ambient-occlusion", (a) -> "auto"), false);
+		OPTIMIZE_MESHES = asBoolean((String) properties.computeIfAbsent("optimize-meshes", (a) -> "auto"), false);
 
 		try (FileOutputStream stream = new FileOutputStream(configFile)) {
 			properties.store(stream, "Indigo properties file");
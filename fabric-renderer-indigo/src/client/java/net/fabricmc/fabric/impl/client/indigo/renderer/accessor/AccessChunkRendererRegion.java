@@ -17,6 +17,7 @@
 package net.fabricmc.fabric.impl.client.indigo.renderer.accessor;
 
 import net.fabricmc.fabric.impl.client.indigo.renderer.render.TerrainRenderContext;
+import net.fabricmc.fabric.impl.client.indigo.renderer.render.WorldLightCache;
 
 /**
  * Used to stash block renderer reference in local scope during
@@ -26,4 +27,11 @@ public interface AccessChunkRendererRegion {
 	TerrainRenderContext fabric_getRenderer();
 
 	void fabric_setRenderer(TerrainRenderContext renderer);
+
+	WorldLightCache fabric_getLightCache();
+
+	/**
+	 * @return the {@linkplain WorldLightCache#currentEpoch() light cache epoch} when the region was created
+	 */
+	long fabric_getLightCacheEpoch();
 }
@@ -44,6 +44,12 @@ public abstract class EncodingFormat {
 	static final int HEADER_TAG = 3;
 	public static final int HEADER_STRIDE = 4;
 
+	/*
+	 * Vertex data follows the header and uses the layout of POSITION_COLOR_TEXTURE_LIGHT_NORMAL,
+	 * one int per element except for the two texture coordinates: x, y, z, color (ARGB), u, v, packed lightmap
+	 * and packed normal. Colors are stored as ARGB while vanilla quad vertex data stores them in native byte
+	 * order, so they must be converted with ColorHelper when copying to and from vanilla quads.
+	 */
 	static final int VERTEX_X;
 	static final int VERTEX_Y;
 	static final int VERTEX_Z;
@@ -19,6 +19,7 @@ package net.fabricmc.fabric.impl.client.indigo.renderer.mesh;
 import net.fabricmc.fabric.api.renderer.v1.mesh.Mesh;
 import net.fabricmc.fabric.api.renderer.v1.mesh.MeshBuilder;
 import net.fabricmc.fabric.api.renderer.v1.mesh.QuadEmitter;
+import net.fabricmc.fabric.impl.client.indigo.Indigo;
 
 /**
  * Our implementation of {@link MeshBuilder}, used for static mesh creation and baking.
@@ -58,8 +59,9 @@ public class MeshBuilderImpl implements MeshBuilder {
 
 	@Override
 	public Mesh build() {
-		final int[] packed = new int[index];
-		System.arraycopy(data, 0, packed, 0, index);
+		final int length = Indigo.OPTIMIZE_MESHES ? MeshOptimizer.optimize(data, index) : index;
+		final int[] packed = new int[length];
+		System.arraycopy(data, 0, packed, 0, length);
 		index = 0;
 		maker.baseIndex = index;
 		maker.clear();
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.client.indigo.renderer.mesh;
+
+import static net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat.HEADER_BITS;
+import static net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat.HEADER_COLOR_INDEX;
+import static net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat.HEADER_FACE_NORMAL;
+import static net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat.HEADER_TAG;
+import static net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat.TOTAL_STRIDE;
+import static net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat.VERTEX_COLOR;
+import static net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat.VERTEX_LIGHTMAP;
+import static net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat.VERTEX_NORMAL;
+import static net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat.VERTEX_STRIDE;
+import static net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat.VERTEX_U;
+import static net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat.VERTEX_X;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+import net.fabricmc.fabric.api.renderer.v1.material.BlendMode;
+import net.fabricmc.fabric.impl.client.indigo.renderer.helper.NormalHelper;
+
+/**
+ * Optional optimization pass applied to static meshes when they are built.
+ *
+ * <ul><li>Degenerate quads, which have no area, are removed.
+ *
+ * <li>Exact duplicates of opaque or cutout quads are removed, since they are fully hidden by the first copy.
+ * Translucent quads (including those using the default blend mode, which may resolve to translucent)
+ * are kept because each copy contributes to blending.
+ *
+ * <li>Pairs of quads sharing an edge are merged when they have the same header, uniform color, lightmap
+ * and normals, and together form a parallelogram with affine texture coordinates.
+ * The merged quad then renders exactly like the two pairs of triangles it replaces.</ul>
+ *
+ * <p>Candidates are sorted by a hash of their contents, or of their plane and merge attributes,
+ * so that only quads in the same bucket are compared with each other. Merging is also limited to
+ * {@value #MAX_MERGE_PASSES} passes over each bucket, so the cost depends on the size of the largest bucket
+ * rather than on the size of the whole mesh.
+ *
+ * <p>Vertices are not shared between quads in the mesh encoding, so there is nothing to deduplicate beyond that.
+ */
+public final class MeshOptimizer {
+	private static final float EPSILON = 1.0E-5f;
+
+	/** Position x, y, z and texture u, v. */
+	private static final int COMPONENTS = 5;
+
+	/**
+	 * Plane distances are bucketed to a sixteenth of a block, which absorbs the imprecision of the packed face normal.
+	 * Coplanar quads that still land on either side of a bucket boundary are simply not merged.
+	 */
+	private static final float PLANE_RESOLUTION = 16.0f;
+
+	private static final int MAX_MERGE_PASSES = 8;
+
+	private MeshOptimizer() { }
+
+	/**
+	 * Optimizes the quads encoded in {@code data} in place.
+	 *
+	 * @return the length of the optimized data
+	 */
+	public static int optimize(int[] data, int length) {
+		final int quadCount = length / TOTAL_STRIDE;
+		final boolean[] removed = new boolean[quadCount];
+		final long[] keys = new long[quadCount];
+		int keyCount = 0;
+
+		for (int i = 0; i < quadCount; i++) {
+			final int base = i * TOTAL_STRIDE;
+
+			if (isDegenerate(data, base)) {
+				removed[i] = true;
+			} else if (canDeduplicate(data, base)) {
+				keys[keyCount++] = key(contentHash(data, base), i);
+			}
+		}
+
+		// Keys are ordered by index within a bucket, so the first copy of a quad is the one kept.
+		Arrays.sort(keys, 0, keyCount);
+
+		for (int start = 0, end; start < keyCount; start = end) {
+			end = bucketEnd(keys, start, keyCount);
+
+			for (int k = start; k < end; k++) {
+				final int i = index(keys[k]);
+
+				if (removed[i]) {
+					continue;
+				}
+
+				for (int l = k + 1; l < end; l++) {
+					final int j = index(keys[l]);
+
+					if (!removed[j] && Arrays.equals(data, i * TOTAL_STRIDE, (i + 1) * TOTAL_STRIDE, data, j * TOTAL_STRIDE, (j + 1) * TOTAL_STRIDE)) {
+						removed[j] = true;
+					}
+				}
+			}
+		}
+
+		keyCount = 0;
+
+		for (int i = 0; i < quadCount; i++) {
+			final int base = i * TOTAL_STRIDE;
+
+			if (!removed[i] && hasUniformVertexAttributes(data, base)) {
+				keys[keyCount++] = key(planeHash(data, base), i);
+			}
+		}
+
+		// Merging keeps a quad in its plane and preserves the attributes it is bucketed by.
+		Arrays.sort(keys, 0, keyCount);
+		final QuadViewImpl cursor = new QuadViewImpl();
+		cursor.data = data;
+
+		for (int start = 0, end; start < keyCount; start = end) {
+			end = bucketEnd(keys, start, keyCount);
+			boolean merged = true;
+
+			// Merged quads may be merged again, so repeat until nothing changes.
+			for (int pass = 0; merged && pass < MAX_MERGE_PASSES; pass++) {
+				merged = mergeBucket(data, keys, start, end, removed, cursor);
+			}
+		}
+
+		int newLength = 0;
+
+		for (int i = 0; i < quadCount; i++) {
+			if (!removed[i]) {
+				System.arraycopy(data, i * TOTAL_STRIDE, data, newLength, TOTAL_STRIDE);
+				newLength += TOTAL_STRIDE;
+			}
+		}
+
+		return newLength;
+	}
+
+	private static boolean mergeBucket(int[] data, long[] keys, int start, int end, boolean[] removed, QuadViewImpl cursor) {
+		boolean merged = false;
+
+		for (int k = start; k < end; k++) {
+			final int i = index(keys[k]);
+
+			if (removed[i]) {
+				continue;
+			}
+
+			for (int l = k + 1; l < end; l++) {
+				final int j = index(keys[l]);
+
+				if (!removed[j] && tryMerge(data, i * TOTAL_STRIDE, j * TOTAL_STRIDE)) {
+					removed[j] = true;
+					merged = true;
+
+					cursor.baseIndex = i * TOTAL_STRIDE;
+					cursor.isGeometryInvalid = true;
+					cursor.computeGeometry();
+				}
+			}
+		}
+
+		return merged;
+	}
+
+	private static long key(int hash, int index) {
+		return ((long) hash << 32) | index;
+	}
+
+	private static int index(long key) {
+		return (int) key;
+	}
+
+	private static int bucketEnd(long[] keys, int start, int keyCount) {
+		final int hash = (int) (keys[start] >> 32);
+		int end = start + 1;
+
+		while (end < keyCount && (int) (keys[end] >> 32) == hash) {
+			end++;
+		}
+
+		return end;
+	}
+
+	private static int contentHash(int[] data, int base) {
+		int hash = 0;
+
+		for (int i = base; i < base + TOTAL_STRIDE; i++) {
+			hash = 31 * hash + data[i];
+		}
+
+		return HashCommon.mix(hash);
+	}
+
+	/**
+	 * Hashes everything two quads must have in common to be merged: their header apart from the geometry flags,
+	 * their uniform vertex attributes and the plane they lie in.
+	 */
+	private static int planeHash(int[] data, int base) {
+		final int faceNormal = data[base + HEADER_FACE_NORMAL];
+		final float distance = NormalHelper.unpackNormalX(faceNormal) * component(data, base, 0, 0)
+				+ NormalHelper.unpackNormalY(faceNormal) * component(data, base, 0, 1)
+				+ NormalHelper.unpackNormalZ(faceNormal) * component(data, base, 0, 2);
+
+		int hash = EncodingFormat.geometryFlags(data[base + HEADER_BITS], 0);
+		hash = 31 * hash + faceNormal;
+		hash = 31 * hash + data[base + HEADER_COLOR_INDEX];
+		hash = 31 * hash + data[base + HEADER_TAG];
+		hash = 31 * hash + data[base + VERTEX_COLOR];
+		hash = 31 * hash + data[base + VERTEX_LIGHTMAP];
+		hash = 31 * hash + data[base + VERTEX_NORMAL];
+		hash = 31 * hash + Math.round(distance * PLANE_RESOLUTION);
+		return HashCommon.mix(hash);
+	}
+
+	private static boolean isDegenerate(int[] data, int base) {
+		// The cross product of the diagonals has twice the area of the quad as its length.
+		final float ax = component(data, base, 2, 0) - component(data, base, 0, 0);
+		final float ay = component(data, base, 2, 1) - component(data, base, 0, 1);
+		final float az = component(data, base, 2, 2) - component(data, base, 0, 2);
+		final float bx = component(data, base, 3, 0) - component(data, base, 1, 0);
+		final float by = component(data, base, 3, 1) - component(data, base, 1, 1);
+		final float bz = component(data, base, 3, 2) - component(data, base, 1, 2);
+		final float cx = ay * bz - az * by;
+		final float cy = az * bx - ax * bz;
+		final float cz = ax * by - ay * bx;
+		return cx * cx + cy * cy + cz * cz < EPSILON * EPSILON;
+	}
+
+	private static boolean canDeduplicate(int[] data, int base) {
+		final BlendMode blendMode = EncodingFormat.material(data[base + HEADER_BITS]).blendMode();
+		return blendMode == BlendMode.SOLID || blendMode == BlendMode.CUTOUT || blendMode == BlendMode.CUTOUT_MIPPED;
+	}
+
+	/**
+	 * Attempts to merge quad {@code b} into quad {@code a}.
+	 *
+	 * <p>The quads must share an edge, traversed in opposite directions since both are wound the same way.
+	 * Naming the quads {@code a0 a1 a2 a3} and {@code a2 a1 b2 b3} with {@code a1 a2} the shared edge,
+	 * the union {@code a0 a1 b2 b3 a2 a3} is the quad {@code a0 b2 b3 a3} when {@code a1} and {@code a2}
+	 * divide its sides {@code a0 b2} and {@code a3 b3} in the same ratio and it is a parallelogram.
+	 *
+	 * @return {@code true} if the quads were merged into {@code a}
+	 */
+	private static boolean tryMerge(int[] data, int a, int b) {
+		// Both quads are known to have uniform vertex attributes.
+		if (!hasCompatibleHeaders(data, a, b)) {
+			return false;
+		}
+
+		for (int i = 0; i < 4; i++) {
+			final int a1 = i;
+			final int a2 = (i + 1) & 3;
+
+			for (int j = 0; j < 4; j++) {
+				// b0 is a2 and b1 is a1.
+				if (!isSameVertex(data, a, a2, b, j) || !isSameVertex(data, a, a1, b, (j + 1) & 3)) {
+					continue;
+				}
+
+				final int a0 = (i + 3) & 3;
+				final int a3 = (i + 2) & 3;
+				final int b2 = (j + 2) & 3;
+				final int b3 = (j + 3) & 3;
+
+				if (!isParallelogram(data, a, a0, b, b2, b, b3, a, a3)) {
+					return false;
+				}
+
+				final float t = ratio(data, a, a0, b, b2, a, a1);
+
+				if (Float.isNaN(t) || t != ratio(data, a, a3, b, b3, a, a2)) {
+					return false;
+				}
+
+				// Vertex a1 becomes b2 and vertex a2 becomes b3, which keeps the winding and the other attributes.
+				copyPositionAndUv(data, b, b2, a, a1);
+				copyPositionAndUv(data, b, b3, a, a2);
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean hasCompatibleHeaders(int[] data, int a, int b) {
+		// Geometry flags are recomputed after merging.
+		return EncodingFormat.geometryFlags(data[a + HEADER_BITS], 0) == EncodingFormat.geometryFlags(data[b + HEADER_BITS], 0)
+				&& data[a + HEADER_FACE_NORMAL] == data[b + HEADER_FACE_NORMAL]
+				&& data[a + HEADER_COLOR_INDEX] == data[b + HEADER_COLOR_INDEX]
+				&& data[a + HEADER_TAG] == data[b + HEADER_TAG]
+				&& data[a + VERTEX_COLOR] == data[b + VERTEX_COLOR]
+				&& data[a + VERTEX_LIGHTMAP] == data[b + VERTEX_LIGHTMAP]
+				&& data[a + VERTEX_NORMAL] == data[b + VERTEX_NORMAL];
+	}
+
+	private static boolean hasUniformVertexAttributes(int[] data, int base) {
+		for (int i = 1; i < 4; i++) {
+			final int index = base + i * VERTEX_STRIDE;
+
+			if (data[index + VERTEX_COLOR] != data[base + VERTEX_COLOR]
+					|| data[index + VERTEX_LIGHTMAP] != data[base + VERTEX_LIGHTMAP]
+					|| data[index + VERTEX_NORMAL] != data[base + VERTEX_NORMAL]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean isSameVertex(int[] data, int a, int aVertex, int b, int bVertex) {
+		for (int c = 0; c < COMPONENTS; c++) {
+			if (Math.abs(component(data, a, aVertex, c) - component(data, b, bVertex, c)) > EPSILON) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks that the vertices {@code p q r s}, in order, form a parallelogram in both position and texture space.
+	 */
+	private static boolean isParallelogram(int[] data, int pQuad, int p, int qQuad, int q, int rQuad, int r, int sQuad, int s) {
+		for (int c = 0; c < COMPONENTS; c++) {
+			final float diagonal0 = component(data, pQuad, p, c) + component(data, rQuad, r, c);
+			final float diagonal1 = component(data, qQuad, q, c) + component(data, sQuad, s, c);
+
+			if (Math.abs(diagonal0 - diagonal1) > EPSILON) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return the ratio at which {@code m} divides the segment from {@code p} to {@code q},
+	 * or {@code NaN} if it is not strictly inside that segment
+	 */
+	private static float ratio(int[] data, int pQuad, int p, int qQuad, int q, int mQuad, int m) {
+		// Use the component with the largest extent to compute the ratio, and check it against the others.
+		int largest = 0;
+		float largestExtent = 0;
+
+		for (int c = 0; c < COMPONENTS; c++) {
+			final float extent = Math.abs(component(data, qQuad, q, c) - component(data, pQuad, p, c));
+
+			if (extent > largestExtent) {
+				largest = c;
+				largestExtent = extent;
+			}
+		}
+
+		if (largestExtent < EPSILON) {
+			return Float.NaN;
+		}
+
+		final float p0 = component(data, pQuad, p, largest);
+		final float t = (component(data, mQuad, m, largest) - p0) / (component(data, qQuad, q, largest) - p0);
+
+		if (t < EPSILON || t > 1 - EPSILON) {
+			return Float.NaN;
+		}
+
+		for (int c = 0; c < COMPONENTS; c++) {
+			final float start = component(data, pQuad, p, c);
+			final float expected = start + t * (component(data, qQuad, q, c) - start);
+
+			if (Math.abs(component(data, mQuad, m, c) - expected) > EPSILON) {
+				return Float.NaN;
+			}
+		}
+
+		// Snap the ratio so that both sides of the merged quad can be compared exactly.
+		return Math.round(t / EPSILON) * EPSILON;
+	}
+
+	private static void copyPositionAndUv(int[] data, int fromQuad, int fromVertex, int toQuad, int toVertex) {
+		final int from = fromQuad + fromVertex * VERTEX_STRIDE;
+		final int to = toQuad + toVertex * VERTEX_STRIDE;
+		System.arraycopy(data, from + VERTEX_X, data, to + VERTEX_X, 3);
+		System.arraycopy(data, from + VERTEX_U, data, to + VERTEX_U, 2);
+	}
+
+	/**
+	 * Position components come first, followed by texture coordinates.
+	 */
+	private static float component(int[] data, int quad, int vertex, int component) {
+		final int index = quad + vertex * VERTEX_STRIDE + (component < 3 ? VERTEX_X + component : VERTEX_U + component - 3);
+		return Float.intBitsToFloat(data[index]);
+	}
+}
@@ -18,17 +18,16 @@ package net.fabricmc.fabric.impl.client.indigo.renderer.render;
 
 import java.util.function.Function;
 
-import it.unimi.dsi.fastutil.longs.Long2FloatOpenHashMap;
-import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
-
 import net.minecraft.block.BlockState;
 import net.minecraft.client.render.BufferBuilder;
 import net.minecraft.client.render.RenderLayer;
 import net.minecraft.client.render.WorldRenderer;
 import net.minecraft.client.render.chunk.ChunkRendererRegion;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.BlockRenderView;
 
+import net.fabricmc.fabric.impl.client.indigo.renderer.accessor.AccessChunkRendererRegion;
 import net.fabricmc.fabric.impl.client.indigo.renderer.aocalc.AoCalculator;
 import net.fabricmc.fabric.impl.client.indigo.renderer.aocalc.AoLuminanceFix;
 
@@ -44,48 +43,43 @@ public class ChunkRenderInfo {
 	 * Serves same function as brightness cache in Mojang's AO calculator,
 	 * with some differences as follows...
 	 *
-	 * <ul><li>Mojang uses Object2Int.  This uses Long2Int for performance and to avoid
-	 * creating new immutable BlockPos references.  But will break if someone
-	 * wants to expand Y limit or world borders.  If we want to support that may
-	 * need to switch or make configurable.
-	 *
-	 * <li>Mojang overrides the map methods to limit the cache to 50 values.
-	 * However, a render chunk only has 18^3 blocks in it, and the cache is cleared every chunk.
-	 * For performance and simplicity, we just let map grow to the size of the render chunk.
+	 * <ul><li>Mojang uses a thread local Object2Int map limited to 50 values. This uses
+	 * a {@link WorldLightCache} shared by all chunk builder threads,
+	 * so that the values around the border of a section are reused when rebuilding its neighbors.
 	 *
 	 * <li>Mojang only uses the cache for Ao.  Here it is used for all brightness
-	 * lookups, including flat lighting.
+	 * lookups, including flat lighting.</ul>
 	 *
-	 * <li>The Mojang cache is a separate threadlocal with a threadlocal boolean to
-	 * enable disable. Cache clearing happens with the disable. There's no use case for
-	 * us when the cache needs to be disabled (and no apparent case in Mojang's code either)
-	 * so we simply clear the cache at the start of each new chunk. It is also
-	 * not a threadlocal because it's held within a threadlocal BlockRenderer.</ul>
+	 * <p>The last section used is remembered, since consecutive lookups are almost always in the same section.
 	 */
-	private final Long2IntOpenHashMap brightnessCache;
-	private final Long2FloatOpenHashMap aoLevelCache;
+	private WorldLightCache lightCache;
+	private long lightCacheEpoch;
+	private long sectionKey;
+	private WorldLightCache.Section section;
+	private long hits;
+	private long misses;
 
 	private Function<RenderLayer, BufferBuilder> bufferFunc;
 	BlockRenderView blockView;
 
-	ChunkRenderInfo() {
-		brightnessCache = new Long2IntOpenHashMap();
-		brightnessCache.defaultReturnValue(Integer.MAX_VALUE);
-		aoLevelCache = new Long2FloatOpenHashMap();
-		aoLevelCache.defaultReturnValue(Float.MAX_VALUE);
-	}
-
 	void prepare(ChunkRendererRegion blockView, Function<RenderLayer, BufferBuilder> bufferFunc) {
 		this.blockView = blockView;
 		this.bufferFunc = bufferFunc;
 
-		brightnessCache.clear();
-		aoLevelCache.clear();
+		lightCache = ((AccessChunkRendererRegion) blockView).fabric_getLightCache();
+		lightCacheEpoch = ((AccessChunkRendererRegion) blockView).fabric_getLightCacheEpoch();
+		section = null;
 	}
 
 	void release() {
 		blockView = null;
 		bufferFunc = null;
+
+		lightCache = null;
+		section = null;
+		WorldLightCache.recordLookups(hits, misses);
+		hits = 0;
+		misses = 0;
 	}
 
 	BufferBuilder getBuffer(RenderLayer layer) {
@@ -94,29 +88,54 @@ public class ChunkRenderInfo {
 
 	/**
 	 * Cached values for {@link WorldRenderer#getLightmapCoordinates(BlockRenderView, BlockState, BlockPos)}.
-	 * See also the comments for {@link #brightnessCache}.
+	 * See also the comments for {@link #lightCache}.
 	 */
 	int cachedBrightness(BlockPos pos, BlockState state) {
-		long key = pos.asLong();
-		int result = brightnessCache.get(key);
+		final WorldLightCache.Section section = getSection(pos);
+		final int index = WorldLightCache.index(pos);
+		int result = section.brightness[index];
 
 		if (result == Integer.MAX_VALUE) {
+			misses++;
 			result = AoCalculator.getLightmapCoordinates(blockView, state, pos);
-			brightnessCache.put(key, result);
+
+			if (section.isWritableFrom(lightCacheEpoch)) {
+				section.brightness[index] = result;
+			}
+		} else {
+			hits++;
 		}
 
 		return result;
 	}
 
 	float cachedAoLevel(BlockPos pos, BlockState state) {
-		long key = pos.asLong();
-		float result = aoLevelCache.get(key);
+		final WorldLightCache.Section section = getSection(pos);
+		final int index = WorldLightCache.index(pos);
+		float result = section.aoLevel[index];
 
 		if (result == Float.MAX_VALUE) {
+			misses++;
 			result = AoLuminanceFix.INSTANCE.apply(blockView, pos, state);
-			aoLevelCache.put(key, result);
+
+			if (section.isWritableFrom(lightCacheEpoch)) {
+				section.aoLevel[index] = result;
+			}
+		} else {
+			hits++;
 		}
 
 		return result;
 	}
+
+	private WorldLightCache.Section getSection(BlockPos pos) {
+		final long key = ChunkSectionPos.toLong(pos);
+
+		if (section == null || sectionKey != key) {
+			section = lightCache.getSection(key);
+			sectionKey = key;
+		}
+
+		return section;
+	}
 }
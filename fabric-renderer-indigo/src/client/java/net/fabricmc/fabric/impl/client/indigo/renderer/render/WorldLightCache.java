@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.client.indigo.renderer.render;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import it.unimi.dsi.fastutil.longs.Long2LongLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+
+import net.fabricmc.fabric.impl.client.indigo.Indigo;
+
+/**
+ * Brightness and AO level cache shared by all chunk builder threads of a world.
+ *
+ * <p>Values are stored per chunk section in primitive arrays, so that the border lookups
+ * done by the rebuild of a section can be reused by the rebuilds of its neighbors.
+ * Only the most recently used sections are kept.
+ *
+ * <p>A section is invalidated whenever it is scheduled for rebuild, which vanilla does for
+ * light and block updates. Light is read from the live world while block states come from the
+ * snapshot taken when the rebuild task was created, so every invalidation also increments an epoch,
+ * and the epoch of the last invalidation of each section is remembered: a rebuild only stores values
+ * in sections that were not invalidated after its snapshot, to avoid caching values computed from
+ * outdated block states.
+ */
+public final class WorldLightCache {
+	private static final int MAX_SECTIONS = 256;
+	private static final int SECTION_SIZE = 16 * 16 * 16;
+	private static final int MAX_INVALIDATIONS = 4096;
+
+	private static final AtomicLong EPOCH = new AtomicLong();
+	private static final LongAdder HITS = new LongAdder();
+	private static final LongAdder MISSES = new LongAdder();
+
+	@Nullable
+	private static volatile WorldLightCache current;
+
+	private final WeakReference<World> world;
+	private final Long2ObjectLinkedOpenHashMap<Section> sections = new Long2ObjectLinkedOpenHashMap<>();
+	/** The epoch of the last invalidation of the most recently invalidated sections. */
+	private final Long2LongLinkedOpenHashMap invalidations = new Long2LongLinkedOpenHashMap();
+	/** Used for sections missing from {@link #invalidations}, they may have been invalidated up to this epoch. */
+	private long evictedInvalidationEpoch;
+
+	private WorldLightCache(World world) {
+		this.world = new WeakReference<>(world);
+		// Sections may have been invalidated before the cache was created.
+		this.evictedInvalidationEpoch = EPOCH.get();
+	}
+
+	/**
+	 * Returns the cache of the given world, replacing the cache of the previous world if needed.
+	 */
+	public static WorldLightCache get(World world) {
+		WorldLightCache cache = current;
+
+		if (cache == null || cache.world.get() != world) {
+			synchronized (WorldLightCache.class) {
+				cache = current;
+
+				if (cache == null || cache.world.get() != world) {
+					logStatistics();
+					cache = new WorldLightCache(world);
+					current = cache;
+				}
+			}
+		}
+
+		return cache;
+	}
+
+	/**
+	 * @return the epoch to associate with a snapshot of the world taken now
+	 */
+	public static long currentEpoch() {
+		return EPOCH.get();
+	}
+
+	/**
+	 * Drops the cached values of a chunk section, called when the section is scheduled for rebuild.
+	 */
+	public static void invalidateSection(int sectionX, int sectionY, int sectionZ) {
+		long epoch = EPOCH.incrementAndGet();
+		WorldLightCache cache = current;
+
+		if (cache != null) {
+			long key = ChunkSectionPos.asLong(sectionX, sectionY, sectionZ);
+
+			synchronized (cache) {
+				cache.sections.remove(key);
+				cache.invalidations.putAndMoveToLast(key, epoch);
+
+				if (cache.invalidations.size() > MAX_INVALIDATIONS) {
+					cache.evictedInvalidationEpoch = Math.max(cache.evictedInvalidationEpoch, cache.invalidations.removeFirstLong());
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the ratio of lookups that were answered from the cache, or {@code NaN} if there were none
+	 */
+	public static double getHitRate() {
+		long hits = HITS.sum();
+		long total = hits + MISSES.sum();
+		return total == 0 ? Double.NaN : (double) hits / total;
+	}
+
+	static void recordLookups(long hits, long misses) {
+		HITS.add(hits);
+		MISSES.add(misses);
+	}
+
+	private static void logStatistics() {
+		long hits = HITS.sumThenReset();
+		long misses = MISSES.sumThenReset();
+
+		if (hits + misses > 0) {
+			Indigo.LOGGER.debug("[Indigo] Light cache answered {} of {} lookups ({}%)", hits, hits + misses, String.format(Locale.ROOT, "%.1f", hits * 100.0 / (hits + misses)));
+		}
+	}
+
+	static int index(BlockPos pos) {
+		return (pos.getY() & 15) << 8 | (pos.getZ() & 15) << 4 | (pos.getX() & 15);
+	}
+
+	/**
+	 * Returns the cached values of a chunk section, creating them if needed.
+	 *
+	 * @param key the {@linkplain ChunkSectionPos#asLong(int, int, int) packed position} of the section
+	 */
+	public synchronized Section getSection(long key) {
+		Section section = sections.getAndMoveToLast(key);
+
+		if (section == null) {
+			section = new Section(invalidations.getOrDefault(key, evictedInvalidationEpoch));
+			sections.putAndMoveToLast(key, section);
+
+			if (sections.size() > MAX_SECTIONS) {
+				sections.removeFirst();
+			}
+		}
+
+		return section;
+	}
+
+	public static final class Section {
+		/** The epoch of the last invalidation of the section, rebuilds with an older snapshot must not write to it. */
+		final long epoch;
+		final int[] brightness = new int[SECTION_SIZE];
+		final float[] aoLevel = new float[SECTION_SIZE];
+
+		private Section(long epoch) {
+			this.epoch = epoch;
+			Arrays.fill(brightness, Integer.MAX_VALUE);
+			Arrays.fill(aoLevel, Float.MAX_VALUE);
+		}
+
+		/**
+		 * @param snapshotEpoch the {@linkplain #currentEpoch() epoch} of the snapshot used to compute the values
+		 * @return whether values computed from the snapshot may be stored in this section
+		 */
+		public boolean isWritableFrom(long snapshotEpoch) {
+			return epoch <= snapshotEpoch;
+		}
+	}
+}
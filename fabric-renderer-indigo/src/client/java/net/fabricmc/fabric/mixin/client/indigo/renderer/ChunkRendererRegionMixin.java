@@ -16,18 +16,43 @@
 
 package net.fabricmc.fabric.mixin.client.indigo.renderer;
 
+import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import net.minecraft.client.render.chunk.ChunkRendererRegion;
+import net.minecraft.world.World;
 
 import net.fabricmc.fabric.impl.client.indigo.renderer.accessor.AccessChunkRendererRegion;
 import net.fabricmc.fabric.impl.client.indigo.renderer.render.TerrainRenderContext;
+import net.fabricmc.fabric.impl.client.indigo.renderer.render.WorldLightCache;
 
 @Mixin(ChunkRendererRegion.class)
 public abstract class ChunkRendererRegionMixin implements AccessChunkRendererRegion {
+	@Shadow
+	@Final
+	protected World world;
+
 	@Unique
 	private TerrainRenderContext fabric_renderer;
+	@Unique
+	private WorldLightCache fabric_lightCache;
+	@Unique
+	private long fabric_lightCacheEpoch;
+
+	/**
+	 * Regions are created on the main thread when the rebuild task is scheduled,
+	 * which is when the block states are copied.
+	 */
+	@Inject(method = "<init>", at = @At("RETURN"))
+	private void onInit(CallbackInfo ci) {
+		fabric_lightCache = WorldLightCache.get(world);
+		fabric_lightCacheEpoch = WorldLightCache.currentEpoch();
+	}
 
 	@Override
 	public TerrainRenderContext fabric_getRenderer() {
@@ -38,4 +63,14 @@ public abstract class ChunkRendererRegionMixin implements AccessChunkRendererReg
 	public void fabric_setRenderer(TerrainRenderContext renderer) {
 		fabric_renderer = renderer;
 	}
+
+	@Override
+	public WorldLightCache fabric_getLightCache() {
+		return fabric_lightCache;
+	}
+
+	@Override
+	public long fabric_getLightCacheEpoch() {
+		return fabric_lightCacheEpoch;
+	}
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.mixin.client.indigo.renderer;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import net.minecraft.client.render.WorldRenderer;
+
+import net.fabricmc.fabric.impl.client.indigo.renderer.render.WorldLightCache;
+
+@Mixin(WorldRenderer.class)
+public abstract class WorldRendererMixin {
+	/**
+	 * Every light or block update that affects a chunk section schedules it for rebuild,
+	 * so this is where cached light values of the section become outdated.
+	 */
+	@Inject(method = "scheduleChunkRender(IIIZ)V", at = @At("HEAD"))
+	private void onScheduleChunkRender(int x, int y, int z, boolean important, CallbackInfo ci) {
+		WorldLightCache.invalidateSection(x, y, z);
+	}
+}
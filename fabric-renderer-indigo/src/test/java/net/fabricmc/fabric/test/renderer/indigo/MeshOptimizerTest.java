@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.renderer.indigo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.fabric.api.renderer.v1.material.BlendMode;
+import net.fabricmc.fabric.api.renderer.v1.material.RenderMaterial;
+import net.fabricmc.fabric.impl.client.indigo.renderer.material.MaterialFinderImpl;
+import net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat;
+import net.fabricmc.fabric.impl.client.indigo.renderer.mesh.MeshOptimizer;
+import net.fabricmc.fabric.impl.client.indigo.renderer.mesh.MutableQuadViewImpl;
+import net.fabricmc.fabric.impl.client.indigo.renderer.mesh.QuadViewImpl;
+
+public class MeshOptimizerTest {
+	private static final float DELTA = 1.0E-5f;
+
+	private static final RenderMaterial SOLID = new MaterialFinderImpl().blendMode(BlendMode.SOLID).find();
+	private static final RenderMaterial TRANSLUCENT = new MaterialFinderImpl().blendMode(BlendMode.TRANSLUCENT).find();
+
+	@Test
+	void removesDegenerateQuads() {
+		QuadWriter writer = new QuadWriter();
+		// All vertices on one line.
+		writer.pos(0, 0, 0, 0).pos(1, 1, 0, 0).pos(2, 2, 0, 0).pos(3, 3, 0, 0).material(SOLID).emit();
+		// All vertices at the same point.
+		writer.pos(0, 1, 1, 1).pos(1, 1, 1, 1).pos(2, 1, 1, 1).pos(3, 1, 1, 1).material(SOLID).emit();
+		square(writer, 0, 1, 0, 0.5f, SOLID);
+
+		assertEquals(1, writer.optimize());
+		assertSquare(writer, 0, 0, 1, 0.5f);
+	}
+
+	@Test
+	void removesOpaqueDuplicates() {
+		QuadWriter writer = new QuadWriter();
+		square(writer, 0, 1, 0, 0.5f, SOLID);
+		square(writer, 5, 6, 0, 0.5f, SOLID);
+		square(writer, 0, 1, 0, 0.5f, SOLID);
+
+		assertEquals(2, writer.optimize());
+		assertSquare(writer, 0, 0, 1, 0.5f);
+		assertBounds(writer, 1, 5, 6, 0, 1);
+	}
+
+	@Test
+	void keepsTranslucentDuplicates() {
+		QuadWriter writer = new QuadWriter();
+		square(writer, 0, 1, 0, 0.5f, TRANSLUCENT);
+		square(writer, 0, 1, 0, 0.5f, TRANSLUCENT);
+
+		assertEquals(2, writer.optimize());
+	}
+
+	@Test
+	void mergesQuadsSharingAnEdge() {
+		QuadWriter writer = new QuadWriter();
+		square(writer, 0, 1, 0, 0.5f, SOLID);
+		square(writer, 1, 2, 0.5f, 1, SOLID);
+		Vector3f faceNormal = writer.faceNormal(0);
+
+		assertEquals(1, writer.optimize());
+		assertSquare(writer, 0, 0, 2, 1);
+		// The merged quad must keep the winding of the quads it replaces.
+		assertEquals(faceNormal, writer.faceNormal(0));
+	}
+
+	@Test
+	void mergesRowsAndColumnsIntoOneQuad() {
+		QuadWriter writer = new QuadWriter();
+
+		for (int z = 0; z < 4; z++) {
+			for (int x = 0; x < 4; x++) {
+				quad(writer, x, x + 1, z, z + 1, x / 4.0f, (x + 1) / 4.0f, z / 4.0f, (z + 1) / 4.0f, SOLID, -1);
+			}
+		}
+
+		assertEquals(1, writer.optimize());
+		assertBounds(writer, 0, 0, 4, 0, 4);
+	}
+
+	@Test
+	void doesNotMergeOppositeWinding() {
+		QuadWriter writer = new QuadWriter();
+		square(writer, 0, 1, 0, 0.5f, SOLID);
+		// Same square, listed in the reverse order so that it faces down.
+		writer.pos(0, 1, 0, 0).uv(0, 0.5f, 0)
+				.pos(1, 2, 0, 0).uv(1, 1, 0)
+				.pos(2, 2, 0, 1).uv(2, 1, 1)
+				.pos(3, 1, 0, 1).uv(3, 0.5f, 1)
+				.color(0, -1).color(1, -1).color(2, -1).color(3, -1)
+				.material(SOLID)
+				.emit();
+
+		assertEquals(2, writer.optimize());
+	}
+
+	@Test
+	void doesNotMergeDiscontinuousUvs() {
+		QuadWriter writer = new QuadWriter();
+		square(writer, 0, 1, 0, 0.5f, SOLID);
+		// The shared edge is at u = 0.5 in the first quad but u = 0.6 in the second.
+		square(writer, 1, 2, 0.6f, 1, SOLID);
+
+		assertEquals(2, writer.optimize());
+	}
+
+	@Test
+	void doesNotMergeNonAffineUvs() {
+		QuadWriter writer = new QuadWriter();
+		square(writer, 0, 1, 0, 0.5f, SOLID);
+		// Twice as wide but covering the same texture width, so the union would stretch the texture differently.
+		quad(writer, 1, 3, 0, 1, 0.5f, 1, 0, 1, SOLID, -1);
+
+		assertEquals(2, writer.optimize());
+	}
+
+	@Test
+	void doesNotMergeDifferentColors() {
+		QuadWriter writer = new QuadWriter();
+		square(writer, 0, 1, 0, 0.5f, SOLID);
+		quad(writer, 1, 2, 0, 1, 0.5f, 1, 0, 1, SOLID, 0xFFFF0000);
+
+		assertEquals(2, writer.optimize());
+	}
+
+	@Test
+	void doesNotMergeParallelPlanes() {
+		QuadWriter writer = new QuadWriter();
+		square(writer, 0, 1, 0, 0.5f, SOLID);
+		// Shares the edge in x and z, but one block higher.
+		writer.pos(0, 1, 1, 0).uv(0, 0.5f, 0)
+				.pos(1, 1, 1, 1).uv(1, 0.5f, 1)
+				.pos(2, 2, 1, 1).uv(2, 1, 1)
+				.pos(3, 2, 1, 0).uv(3, 1, 0)
+				.color(0, -1).color(1, -1).color(2, -1).color(3, -1)
+				.material(SOLID)
+				.emit();
+
+		assertEquals(2, writer.optimize());
+	}
+
+	/**
+	 * Emits a unit square facing up at {@code 0 <= z <= 1}, with u spanning {@code u0} to {@code u1} along x.
+	 */
+	private static void square(QuadWriter writer, float x0, float x1, float u0, float u1, RenderMaterial material) {
+		quad(writer, x0, x1, 0, 1, u0, u1, 0, 1, material, -1);
+	}
+
+	private static void quad(QuadWriter writer, float x0, float x1, float z0, float z1, float u0, float u1, float v0, float v1, RenderMaterial material, int color) {
+		writer.pos(0, x0, 0, z0).uv(0, u0, v0)
+				.pos(1, x0, 0, z1).uv(1, u0, v1)
+				.pos(2, x1, 0, z1).uv(2, u1, v1)
+				.pos(3, x1, 0, z0).uv(3, u1, v0)
+				.color(0, color).color(1, color).color(2, color).color(3, color)
+				.material(material)
+				.emit();
+	}
+
+	/**
+	 * Checks that a quad spans {@code x0} to {@code x1} along x and 0 to 1 along z, with texture coordinates
+	 * continuing those of a unit square mapped to half of the texture width.
+	 */
+	private static void assertSquare(QuadWriter writer, int quad, float x0, float x1, float u1) {
+		assertBounds(writer, quad, x0, x1, 0, 1);
+		QuadViewImpl view = writer.view(quad);
+
+		for (int i = 0; i < 4; i++) {
+			assertEquals(view.x(i) * u1 / x1, view.u(i), DELTA);
+			assertEquals(view.z(i), view.v(i), DELTA);
+		}
+	}
+
+	private static void assertBounds(QuadWriter writer, int quad, float x0, float x1, float z0, float z1) {
+		QuadViewImpl view = writer.view(quad);
+		float[] xs = new float[4];
+		float[] zs = new float[4];
+
+		for (int i = 0; i < 4; i++) {
+			xs[i] = view.x(i);
+			zs[i] = view.z(i);
+			assertEquals(0.0f, view.y(i), DELTA);
+		}
+
+		Arrays.sort(xs);
+		Arrays.sort(zs);
+		assertEquals(x0, xs[0], DELTA);
+		assertEquals(x0, xs[1], DELTA);
+		assertEquals(x1, xs[2], DELTA);
+		assertEquals(x1, xs[3], DELTA);
+		assertEquals(z0, zs[0], DELTA);
+		assertEquals(z0, zs[1], DELTA);
+		assertEquals(z1, zs[2], DELTA);
+		assertEquals(z1, zs[3], DELTA);
+	}
+
+	/**
+	 * Encodes quads like {@link net.fabricmc.fabric.impl.client.indigo.renderer.mesh.MeshBuilderImpl}, without optimizing them
+	 * when the mesh is built.
+	 */
+	private static class QuadWriter extends MutableQuadViewImpl {
+		private int length = 0;
+
+		QuadWriter() {
+			data = new int[EncodingFormat.TOTAL_STRIDE * 4];
+			clear();
+		}
+
+		@Override
+		public void emitDirectly() {
+			computeGeometry();
+			length += EncodingFormat.TOTAL_STRIDE;
+
+			if (length + EncodingFormat.TOTAL_STRIDE > data.length) {
+				data = Arrays.copyOf(data, data.length * 2);
+			}
+
+			baseIndex = length;
+		}
+
+		int optimize() {
+			length = MeshOptimizer.optimize(data, length);
+			return length / EncodingFormat.TOTAL_STRIDE;
+		}
+
+		/**
+		 * Moves this view to an encoded quad, only to be used once all quads were emitted.
+		 */
+		QuadViewImpl view(int quad) {
+			baseIndex = quad * EncodingFormat.TOTAL_STRIDE;
+			load();
+			return this;
+		}
+
+		Vector3f faceNormal(int quad) {
+			return new Vector3f(view(quad).faceNormal());
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.renderer.indigo;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+
+import net.fabricmc.fabric.impl.client.indigo.renderer.render.WorldLightCache;
+
+public class WorldLightCacheTest {
+	private static final long SECTION = ChunkSectionPos.asLong(1, 2, 3);
+	private static final long OTHER_SECTION = ChunkSectionPos.asLong(-1, 2, 3);
+
+	private World world;
+	private WorldLightCache cache;
+
+	@BeforeAll
+	static void beforeAll() {
+		SharedConstants.createGameVersion();
+		Bootstrap.initialize();
+	}
+
+	@BeforeEach
+	void setUp() {
+		// A new world replaces the cache of the previous one.
+		world = mock(World.class);
+		cache = WorldLightCache.get(world);
+	}
+
+	@Test
+	void cacheIsSharedByWorld() {
+		assertSame(cache, WorldLightCache.get(world));
+		assertNotSame(cache, WorldLightCache.get(mock(World.class)));
+	}
+
+	@Test
+	void invalidationDropsSection() {
+		WorldLightCache.Section section = cache.getSection(SECTION);
+		WorldLightCache.Section otherSection = cache.getSection(OTHER_SECTION);
+
+		assertSame(section, cache.getSection(SECTION));
+
+		WorldLightCache.invalidateSection(1, 2, 3);
+
+		assertNotSame(section, cache.getSection(SECTION));
+		assertSame(otherSection, cache.getSection(OTHER_SECTION));
+	}
+
+	@Test
+	void snapshotBeforeInvalidationCannotWrite() {
+		long snapshotEpoch = WorldLightCache.currentEpoch();
+
+		WorldLightCache.invalidateSection(1, 2, 3);
+
+		assertFalse(cache.getSection(SECTION).isWritableFrom(snapshotEpoch));
+		assertTrue(cache.getSection(SECTION).isWritableFrom(WorldLightCache.currentEpoch()));
+		assertTrue(cache.getSection(OTHER_SECTION).isWritableFrom(snapshotEpoch));
+	}
+
+	@Test
+	void snapshotBeforeEvictedInvalidationCannotWrite() {
+		long snapshotEpoch = WorldLightCache.currentEpoch();
+
+		// Invalidate enough sections for the first invalidation to be forgotten.
+		for (int i = 0; i <= 4096; i++) {
+			WorldLightCache.invalidateSection(i, 0, 0);
+		}
+
+		assertFalse(cache.getSection(ChunkSectionPos.asLong(0, 0, 0)).isWritableFrom(snapshotEpoch));
+		assertFalse(cache.getSection(ChunkSectionPos.asLong(4096, 0, 0)).isWritableFrom(snapshotEpoch));
+		// Sections without a remembered invalidation may have been invalidated too.
+		assertFalse(cache.getSection(SECTION).isWritableFrom(snapshotEpoch));
+		assertTrue(cache.getSection(SECTION).isWritableFrom(WorldLightCache.currentEpoch()));
+	}
+}
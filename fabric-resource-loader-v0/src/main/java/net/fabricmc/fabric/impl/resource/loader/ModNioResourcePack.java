@@ -66,6 +66,10 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 	private final String id;
 	private final ModContainer mod;
 	private final List<Path> basePaths;
+	/**
+	 * The indexes of the base paths, with {@code null} for the base paths that are not indexed.
+	 */
+	private final ModResourcePackIndex[] indexes;
 	private final ResourceType type;
 	private final ResourcePackActivationType activationType;
 	private final Map<ResourceType, Set<String>> namespaces;
@@ -118,6 +122,12 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 		this.id = id;
 		this.mod = mod;
 		this.basePaths = paths;
+		this.indexes = new ModResourcePackIndex[paths.size()];
+
+		for (int i = 0; i < paths.size(); i++) {
+			this.indexes[i] = ModResourcePackIndex.get(paths.get(i));
+		}
+
 		this.type = type;
 		this.activationType = activationType;
 		this.modBundled = modBundled;
@@ -176,7 +186,17 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 	private Path getPath(String filename) {
 		if (hasAbsentNs(filename)) return null;
 
-		for (Path basePath : basePaths) {
+		for (int i = 0; i < basePaths.size(); i++) {
+			Path basePath = basePaths.get(i);
+
+			if (indexes[i] != null) {
+				if (indexes[i].contains(filename)) {
+					return basePath.resolve(filename.replace("/", basePath.getFileSystem().getSeparator()));
+				}
+
+				continue;
+			}
+
 			Path childPath = basePath.resolve(filename.replace("/", basePath.getFileSystem().getSeparator())).toAbsolutePath().normalize();
 
 			if (childPath.startsWith(basePath) && exists(childPath)) {
@@ -245,9 +265,28 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 			return;
 		}
 
-		for (Path basePath : basePaths) {
+		for (int i = 0; i < basePaths.size(); i++) {
+			Path basePath = basePaths.get(i);
 			String separator = basePath.getFileSystem().getSeparator();
 			Path nsPath = basePath.resolve(type.getDirectory()).resolve(namespace);
+
+			if (indexes[i] != null) {
+				String nsDirectory = type.getDirectory() + "/" + namespace + "/";
+
+				indexes[i].forEachFile(nsDirectory + path, file -> {
+					String filename = file.substring(nsDirectory.length());
+					Identifier identifier = Identifier.tryParse(namespace, filename);
+
+					if (identifier == null) {
+						LOGGER.error("Invalid path in mod resource-pack {}: {}:{}, ignoring", id, namespace, filename);
+					} else {
+						visitor.accept(identifier, InputSupplier.create(nsPath.resolve(filename.replace("/", separator))));
+					}
+				});
+
+				continue;
+			}
+
 			Path searchPath = nsPath.resolve(path.replace("/", separator)).normalize();
 			if (!exists(searchPath)) continue;
 
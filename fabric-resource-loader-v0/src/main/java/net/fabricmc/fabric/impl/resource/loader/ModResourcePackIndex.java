@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.resource.loader;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+import net.fabricmc.loader.api.metadata.ModOrigin;
+
+/**
+ * A sorted index of the files of a mod resource pack root, so that {@link ModNioResourcePack} can answer
+ * {@code open} and {@code findResources} without querying the file system of the mod jar.
+ *
+ * <p>Only roots that are not on the default file system are indexed, as jars cannot change while the game is running,
+ * unlike the directories used in development environments. Indexes are kept for the whole lifetime of the game,
+ * so that resource reloads reuse them. The indexes of mod jars are also saved to the game directory,
+ * and reused on the next start as long as the size and modification time of the jar did not change.
+ *
+ * <p>Indexing can be disabled by setting the {@code fabric.resource.disableIndex} system property.
+ */
+public final class ModResourcePackIndex {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ModResourcePackIndex.class);
+	private static final boolean DISABLED = Boolean.getBoolean("fabric.resource.disableIndex");
+	private static final int FORMAT_VERSION = 1;
+	private static final Map<Path, CompletableFuture<ModResourcePackIndex>> INDEXES = new ConcurrentHashMap<>();
+
+	/**
+	 * The paths of all the files in the root, relative to it and separated with {@code /}, in sorted order.
+	 */
+	private final String[] files;
+
+	private ModResourcePackIndex(String[] files) {
+		this.files = files;
+	}
+
+	/**
+	 * Starts indexing the roots of the given mods in parallel, for later calls to {@link #get}.
+	 */
+	public static void prefetch(Collection<ModContainer> mods) {
+		if (DISABLED) return;
+
+		for (ModContainer mod : mods) {
+			if (mod.getMetadata().getType().equals("builtin")) {
+				continue;
+			}
+
+			for (Path root : mod.getRootPaths()) {
+				if (isIndexed(root)) {
+					INDEXES.computeIfAbsent(root, r -> CompletableFuture.supplyAsync(() -> loadOrScan(mod, r)));
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the index of the root, or {@code null} if it is not indexed or could not be indexed
+	 */
+	@Nullable
+	public static ModResourcePackIndex get(Path root) {
+		if (DISABLED || !isIndexed(root)) return null;
+
+		return INDEXES.computeIfAbsent(root, r -> CompletableFuture.completedFuture(scanOrNull(r))).join();
+	}
+
+	private static boolean isIndexed(Path root) {
+		return root.getFileSystem() != FileSystems.getDefault();
+	}
+
+	@Nullable
+	private static ModResourcePackIndex loadOrScan(ModContainer mod, Path root) {
+		Path jar = getJar(mod);
+
+		if (jar == null) {
+			return scanOrNull(root);
+		}
+
+		Path cacheFile = FabricLoader.getInstance().getGameDir().resolve(".fabric").resolve("resource_index")
+				.resolve(mod.getMetadata().getId() + "-" + Integer.toHexString(jar.toAbsolutePath().toString().hashCode()) + ".bin");
+
+		try {
+			long size = Files.size(jar);
+			long lastModified = Files.getLastModifiedTime(jar).toMillis();
+			ModResourcePackIndex index = read(cacheFile, size, lastModified);
+
+			if (index != null) {
+				return index;
+			}
+
+			index = scan(root);
+			index.write(cacheFile, size, lastModified);
+			return index;
+		} catch (IOException e) {
+			LOGGER.warn("Failed to use the cached resource index of mod {}", mod.getMetadata().getId(), e);
+			return scanOrNull(root);
+		}
+	}
+
+	/**
+	 * @return the jar of a mod with a single jar as its root, or {@code null} if there isn't one
+	 */
+	@Nullable
+	private static Path getJar(ModContainer mod) {
+		if (mod.getRootPaths().size() != 1 || mod.getOrigin().getKind() != ModOrigin.Kind.PATH) {
+			return null;
+		}
+
+		List<Path> paths = mod.getOrigin().getPaths();
+		return paths.size() == 1 && Files.isRegularFile(paths.get(0)) ? paths.get(0) : null;
+	}
+
+	@Nullable
+	private static ModResourcePackIndex scanOrNull(Path root) {
+		try {
+			return scan(root);
+		} catch (IOException e) {
+			LOGGER.warn("Failed to index resource pack root {}", root, e);
+			return null;
+		}
+	}
+
+	public static ModResourcePackIndex scan(Path root) throws IOException {
+		List<String> files = new ArrayList<>();
+		String separator = root.getFileSystem().getSeparator();
+
+		Files.walkFileTree(root, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if (attrs.isRegularFile()) {
+					files.add(root.relativize(file).toString().replace(separator, "/"));
+				}
+
+				return FileVisitResult.CONTINUE;
+			}
+		});
+
+		String[] sorted = files.toArray(new String[0]);
+		Arrays.sort(sorted);
+		return new ModResourcePackIndex(sorted);
+	}
+
+	/**
+	 * @return the index saved to the file, or {@code null} if there is none or it was created for another version of the jar
+	 */
+	@Nullable
+	public static ModResourcePackIndex read(Path file, long size, long lastModified) throws IOException {
+		try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != FORMAT_VERSION || in.readLong() != size || in.readLong() != lastModified) {
+				return null;
+			}
+
+			String[] files = new String[in.readInt()];
+
+			for (int i = 0; i < files.length; i++) {
+				files[i] = in.readUTF();
+			}
+
+			return new ModResourcePackIndex(files);
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+
+	public void write(Path file, long size, long lastModified) throws IOException {
+		Files.createDirectories(file.getParent());
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile)))) {
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(size);
+			out.writeLong(lastModified);
+			out.writeInt(files.length);
+
+			for (String path : files) {
+				out.writeUTF(path);
+			}
+		}
+
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @param path a path relative to the root, separated with {@code /}
+	 * @return {@code true} if the path is a file in the root
+	 */
+	public boolean contains(String path) {
+		return Arrays.binarySearch(files, path) >= 0;
+	}
+
+	/**
+	 * Visits the files in a directory of the root and its subdirectories, or the file itself if the path is a file.
+	 *
+	 * @param path a path relative to the root, separated with {@code /}
+	 * @param consumer the consumer receiving the paths of the files relative to the root, in sorted order
+	 */
+	public void forEachFile(String path, Consumer<String> consumer) {
+		while (path.endsWith("/")) {
+			path = path.substring(0, path.length() - 1);
+		}
+
+		int start = Arrays.binarySearch(files, path);
+
+		if (start < 0) {
+			start = -start - 1;
+		}
+
+		for (int i = start; i < files.length && files[i].startsWith(path); i++) {
+			String file = files[i];
+
+			// Skip siblings sharing a prefix, such as "path_other/file" for "path".
+			if (path.isEmpty() || file.length() == path.length() || file.charAt(path.length()) == '/') {
+				consumer.accept(file);
+			}
+		}
+	}
+}
@@ -76,6 +76,9 @@ public final class ModResourcePackUtil {
 	 * @param subPath the resource pack sub path directory in mods, may be {@code null}
 	 */
 	public static void appendModResourcePacks(List<ModResourcePack> packs, ResourceType type, @Nullable String subPath) {
+		// Index all the mods in parallel, instead of one by one when their pack is created.
+		ModResourcePackIndex.prefetch(FabricLoader.getInstance().getAllMods());
+
 		for (ModContainer container : FabricLoader.getInstance().getAllMods()) {
 			if (container.getMetadata().getType().equals("builtin")) {
 				continue;
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.resource.loader.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.fabric.impl.resource.loader.ModResourcePackIndex;
+
+public class ModResourcePackIndexTests {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void testIndex() throws IOException {
+		try (FileSystem jar = createJar("pack.mcmeta", "assets/mod/textures/block/a.png", "assets/mod/textures/block/b.png",
+				"assets/mod/textures/blocks_old/c.png", "assets/mod/textures/item/d.png", "data/mod/recipe/e.json")) {
+			ModResourcePackIndex index = ModResourcePackIndex.scan(jar.getPath("/"));
+
+			assertTrue(index.contains("pack.mcmeta"));
+			assertTrue(index.contains("assets/mod/textures/block/a.png"));
+			assertFalse(index.contains("assets/mod/textures/block"));
+			assertFalse(index.contains("assets/mod/textures/block/missing.png"));
+
+			assertEquals(List.of("assets/mod/textures/block/a.png", "assets/mod/textures/block/b.png"), collect(index, "assets/mod/textures/block"));
+			assertEquals(List.of("assets/mod/textures/block/a.png", "assets/mod/textures/block/b.png"), collect(index, "assets/mod/textures/block/"));
+			assertEquals(4, collect(index, "assets/mod/textures").size());
+			assertEquals(List.of("data/mod/recipe/e.json"), collect(index, "data/mod/recipe/e.json"));
+			assertEquals(List.of(), collect(index, "assets/other"));
+		}
+	}
+
+	@Test
+	void testPersistence() throws IOException {
+		Path file = tempDir.resolve("cache").resolve("mod.bin");
+
+		try (FileSystem jar = createJar("assets/mod/lang/en_us.json", "data/mod/tags/item/f.json")) {
+			ModResourcePackIndex index = ModResourcePackIndex.scan(jar.getPath("/"));
+			assertNull(ModResourcePackIndex.read(file, 10, 20));
+			index.write(file, 10, 20);
+		}
+
+		ModResourcePackIndex read = ModResourcePackIndex.read(file, 10, 20);
+		assertNotNull(read);
+		assertTrue(read.contains("assets/mod/lang/en_us.json"));
+		assertEquals(List.of("data/mod/tags/item/f.json"), collect(read, "data"));
+
+		// A different jar must not reuse the index
+		assertNull(ModResourcePackIndex.read(file, 10, 21));
+		assertNull(ModResourcePackIndex.read(file, 11, 20));
+	}
+
+	private FileSystem createJar(String... files) throws IOException {
+		FileSystem jar = FileSystems.newFileSystem(tempDir.resolve("mod.jar"), Map.of("create", "true"));
+
+		for (String file : files) {
+			Path path = jar.getPath(file);
+
+			if (path.getParent() != null) {
+				Files.createDirectories(path.getParent());
+			}
+
+			Files.writeString(path, file);
+		}
+
+		return jar;
+	}
+
+	private static List<String> collect(ModResourcePackIndex index, String path) {
+		List<String> files = new ArrayList<>();
+		index.forEachFile(path, files::add);
+		return files;
+	}
+}
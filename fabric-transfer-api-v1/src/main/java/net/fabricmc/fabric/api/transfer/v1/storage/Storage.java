@@ -17,6 +17,7 @@
 package net.fabricmc.fabric.api.transfer.v1.storage;
 
 import java.util.Iterator;
+import java.util.function.Predicate;
 
 import com.google.common.collect.Iterators;
 
@@ -40,6 +41,7 @@ import net.fabricmc.fabric.impl.transfer.TransferApiImpl;
  *     <li>{@link #insert} and {@link #extract} can be used to insert or extract resources from this storage.</li>
  *     <li>{@link #iterator} can be used to inspect the contents of this storage.</li>
  *     <li>{@link #getVersion()} can be used to quickly check if a storage has changed, without having to rescan its contents.</li>
+ *     <li>{@link #moveTo} can be used to move many resources to another storage at once.</li>
  * </ul>
  *
  * <p>Users that wish to implement this interface can use the helpers in the {@code base} package:
@@ -110,6 +112,52 @@ public interface Storage<T> extends Iterable<StorageView<T>> {
 	 */
 	long extract(T resource, long maxAmount, TransactionContext transaction);
 
+	/**
+	 * Move resources matching a filter from this storage to another storage, in a single pass over this storage.
+	 * {@link StorageUtil#move} delegates to this function.
+	 *
+	 * <p>The default implementation visits the {@linkplain #nonEmptyViews() non-empty views} of this storage,
+	 * and for each of them moves as much as possible in a nested transaction.
+	 * Storages that know exactly how much of a resource can be extracted from them, for example inventories,
+	 * are encouraged to override this function to avoid opening a nested transaction for every view.
+	 *
+	 * @param to The storage to move resources to.
+	 * @param filter The filter that decides which resources can be moved.
+	 * @param maxAmount The maximum total amount of resources that can be moved. May not be negative.
+	 * @param transaction The transaction this operation is part of.
+	 * @return A non-negative integer not greater than maxAmount: the total amount of resources that was moved.
+	 */
+	default long moveTo(Storage<T> to, Predicate<T> filter, long maxAmount, TransactionContext transaction) {
+		StoragePreconditions.notNegative(maxAmount);
+		long totalMoved = 0;
+
+		for (StorageView<T> view : nonEmptyViews()) {
+			if (totalMoved == maxAmount) {
+				// nothing can be moved anymore
+				break;
+			}
+
+			T resource = view.getResource();
+			if (!filter.test(resource)) continue;
+
+			// check how much can be extracted
+			long maxExtracted = StorageUtil.simulateExtract(view, resource, maxAmount - totalMoved, transaction);
+
+			try (Transaction transferTransaction = transaction.openNested()) {
+				// check how much can be inserted
+				long accepted = to.insert(resource, maxExtracted, transferTransaction);
+
+				// extract it, or rollback if the amounts don't match
+				if (view.extract(resource, accepted, transferTransaction) == accepted) {
+					totalMoved += accepted;
+					transferTransaction.commit();
+				}
+			}
+		}
+
+		return totalMoved;
+	}
+
 	/**
 	 * Iterate through the contents of this storage.
 	 * Every visited {@link StorageView} represents a stored resource and an amount.
@@ -45,6 +45,7 @@ public final class StorageUtil {
 
 	/**
 	 * Move resources between two storages, matching the passed filter, and return the amount that was successfully transferred.
+	 * The actual transfer is performed by {@link Storage#moveTo}, which some storages optimize.
 	 *
 	 * <p>Here is a usage example with fluid variant storages:
 	 * <pre>{@code
@@ -82,35 +83,10 @@ public final class StorageUtil {
 		Objects.requireNonNull(filter, "Filter may not be null");
 		if (from == null || to == null) return 0;
 
-		long totalMoved = 0;
-
 		try (Transaction iterationTransaction = Transaction.openNested(transaction)) {
-			for (StorageView<T> view : from.nonEmptyViews()) {
-				T resource = view.getResource();
-				if (!filter.test(resource)) continue;
-
-				// check how much can be extracted
-				long maxExtracted = simulateExtract(view, resource, maxAmount - totalMoved, iterationTransaction);
-
-				try (Transaction transferTransaction = iterationTransaction.openNested()) {
-					// check how much can be inserted
-					long accepted = to.insert(resource, maxExtracted, transferTransaction);
-
-					// extract it, or rollback if the amounts don't match
-					if (view.extract(resource, accepted, transferTransaction) == accepted) {
-						totalMoved += accepted;
-						transferTransaction.commit();
-					}
-				}
-
-				if (maxAmount == totalMoved) {
-					// early return if nothing can be moved anymore
-					iterationTransaction.commit();
-					return totalMoved;
-				}
-			}
-
+			long totalMoved = from.moveTo(to, filter, maxAmount, iterationTransaction);
 			iterationTransaction.commit();
+			return totalMoved;
 		} catch (Exception e) {
 			CrashReport report = CrashReport.create(e, "Moving resources between storages");
 			report.addElement("Move details")
@@ -121,8 +97,6 @@ public final class StorageUtil {
 					.add("Transaction", transaction);
 			throw new CrashException(report);
 		}
-
-		return totalMoved;
 	}
 
 	/**
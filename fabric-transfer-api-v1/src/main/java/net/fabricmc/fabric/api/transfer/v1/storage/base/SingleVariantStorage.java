@@ -20,6 +20,7 @@ import java.util.function.Supplier;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +52,13 @@ public abstract class SingleVariantStorage<T extends TransferVariant<?>> extends
 
 	public T variant = getBlankVariant();
 	public long amount = 0;
+	/**
+	 * The last snapshot that was created or read. Snapshots are immutable,
+	 * so it is reused if the state is the same when a new snapshot is needed,
+	 * which is the case for example when an insertion is simulated before it is performed.
+	 */
+	@Nullable
+	private ResourceAmount<T> lastSnapshot = null;
 
 	/**
 	 * Return the blank variant.
@@ -148,13 +156,20 @@ public abstract class SingleVariantStorage<T extends TransferVariant<?>> extends
 
 	@Override
 	protected ResourceAmount<T> createSnapshot() {
-		return new ResourceAmount<>(variant, amount);
+		ResourceAmount<T> snapshot = lastSnapshot;
+
+		if (snapshot == null || snapshot.resource() != variant || snapshot.amount() != amount) {
+			snapshot = lastSnapshot = new ResourceAmount<>(variant, amount);
+		}
+
+		return snapshot;
 	}
 
 	@Override
 	protected void readSnapshot(ResourceAmount<T> snapshot) {
 		variant = snapshot.resource();
 		amount = snapshot.amount();
+		lastSnapshot = snapshot;
 	}
 
 	@Override
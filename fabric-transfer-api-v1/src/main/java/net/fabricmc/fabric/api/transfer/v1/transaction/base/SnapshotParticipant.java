@@ -86,36 +86,39 @@ public abstract class SnapshotParticipant<T> implements Transaction.CloseCallbac
 	 * This function should be called every time the participant is about to change its internal state as part of a transaction.
 	 */
 	public void updateSnapshots(TransactionContext transaction) {
+		int nestingDepth = transaction.nestingDepth();
+
 		// Make sure we have enough storage for snapshots
-		while (snapshots.size() <= transaction.nestingDepth()) {
+		while (snapshots.size() <= nestingDepth) {
 			snapshots.add(null);
 		}
 
 		// If the snapshot is null, we need to create it, and we need to register a callback.
-		if (snapshots.get(transaction.nestingDepth()) == null) {
+		if (snapshots.get(nestingDepth) == null) {
 			T snapshot = createSnapshot();
 			Objects.requireNonNull(snapshot, "Snapshot may not be null!");
 
-			snapshots.set(transaction.nestingDepth(), snapshot);
+			snapshots.set(nestingDepth, snapshot);
 			transaction.addCloseCallback(this);
 		}
 	}
 
 	@Override
 	public void onClose(TransactionContext transaction, Transaction.Result result) {
+		int nestingDepth = transaction.nestingDepth();
 		// Get and remove the relevant snapshot.
-		T snapshot = snapshots.set(transaction.nestingDepth(), null);
+		T snapshot = snapshots.set(nestingDepth, null);
 
 		if (result.wasAborted()) {
 			// If the transaction was aborted, we just revert to the state of the snapshot.
 			readSnapshot(snapshot);
 			releaseSnapshot(snapshot);
-		} else if (transaction.nestingDepth() > 0) {
-			if (snapshots.get(transaction.nestingDepth() - 1) == null) {
+		} else if (nestingDepth > 0) {
+			if (snapshots.get(nestingDepth - 1) == null) {
 				// No snapshot yet, so move the snapshot one nesting level up.
-				snapshots.set(transaction.nestingDepth() - 1, snapshot);
+				snapshots.set(nestingDepth - 1, snapshot);
 				// This is the first snapshot at this level: we need to call addCloseCallback.
-				transaction.getOpenTransaction(transaction.nestingDepth() - 1).addCloseCallback(this);
+				transaction.getOpenTransaction(nestingDepth - 1).addCloseCallback(this);
 			} else {
 				// There is already an older snapshot at the nesting level above, just release the newer one.
 				releaseSnapshot(snapshot);
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import com.google.common.collect.MapMaker;
 import org.jetbrains.annotations.Nullable;
@@ -27,12 +28,17 @@ import org.jetbrains.annotations.Nullable;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.inventory.SidedInventory;
+import net.minecraft.item.ItemStack;
 import net.minecraft.util.math.Direction;
 
 import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
+import net.fabricmc.fabric.api.transfer.v1.storage.StoragePreconditions;
 import net.fabricmc.fabric.api.transfer.v1.storage.base.CombinedStorage;
 import net.fabricmc.fabric.api.transfer.v1.storage.base.SingleSlotStorage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
 import net.fabricmc.fabric.impl.transfer.DebugMessages;
 
@@ -113,6 +119,42 @@ public class InventoryStorageImpl extends CombinedStorage<ItemVariant, SingleSlo
 		}
 	}
 
+	/**
+	 * Extracting from a slot wrapper never fails if the slot contains the resource,
+	 * so the amount accepted by the target can always be extracted without opening a nested transaction for every slot.
+	 * Slots are read directly, and only the slots that are actually moved from take a snapshot.
+	 */
+	@Override
+	public long moveTo(Storage<ItemVariant> to, Predicate<ItemVariant> filter, long maxAmount, TransactionContext transaction) {
+		StoragePreconditions.notNegative(maxAmount);
+		long totalMoved = 0;
+
+		try (Transaction moveTransaction = transaction.openNested()) {
+			for (int slot = 0; slot < parts.size() && totalMoved < maxAmount; slot++) {
+				ItemStack stack = inventory.getStack(slot);
+				if (stack.isEmpty()) continue;
+
+				ItemVariant variant = ItemVariant.of(stack);
+				if (!filter.test(variant)) continue;
+
+				long accepted = to.insert(variant, Math.min(stack.getCount(), maxAmount - totalMoved), moveTransaction);
+				if (accepted == 0) continue;
+
+				if (backingList.get(slot).extract(variant, accepted, moveTransaction) != accepted) {
+					// The target must have modified this inventory, fall back to the safe implementation.
+					moveTransaction.abort();
+					return super.moveTo(to, filter, maxAmount, transaction);
+				}
+
+				totalMoved += accepted;
+			}
+
+			moveTransaction.commit();
+		}
+
+		return totalMoved;
+	}
+
 	@Override
 	public String toString() {
 		return "InventoryStorage[" + DebugMessages.forInventory(inventory) + "]";
@@ -102,6 +102,41 @@ public class BaseStorageTests extends AbstractTransferApiTest {
 		assertEquals(BUCKET, StorageUtil.simulateExtract(storage, lava, BUCKET, null));
 	}
 
+	/**
+	 * Snapshots of identical states are shared, make sure that rollbacks still restore the right state.
+	 */
+	@Test
+	public void testSharedSnapshots() {
+		SingleVariantStorage<FluidVariant> storage = SingleFluidStorage.withFixedCapacity(BUCKET * 4, () -> { });
+		FluidVariant water = FluidVariant.of(Fluids.WATER);
+
+		try (Transaction outer = Transaction.openOuter()) {
+			assertEquals(BUCKET, StorageUtil.simulateInsert(storage, water, BUCKET, outer));
+			assertEquals(BUCKET, storage.insert(water, BUCKET, outer));
+
+			try (Transaction nested = outer.openNested()) {
+				assertEquals(BUCKET, storage.extract(water, BUCKET, nested));
+				assertEquals(BUCKET, storage.insert(water, BUCKET, nested));
+				assertEquals(BUCKET * 2, storage.insert(water, BUCKET * 2, nested));
+			}
+
+			assertEquals(BUCKET, storage.amount);
+			assertEquals(BUCKET, storage.extract(water, BUCKET, outer));
+			assertEquals(true, storage.isResourceBlank());
+		}
+
+		assertEquals(0L, storage.amount);
+		assertEquals(true, storage.isResourceBlank());
+
+		try (Transaction tx = Transaction.openOuter()) {
+			assertEquals(BUCKET, StorageUtil.simulateInsert(storage, water, BUCKET, tx));
+			assertEquals(BUCKET, storage.insert(water, BUCKET, tx));
+			tx.commit();
+		}
+
+		assertEquals(BUCKET, storage.amount);
+	}
+
 	/**
 	 * Regression test for <a href="https://github.com/FabricMC/fabric/issues/3414">
 	 * {@code nonEmptyIterator} not handling views that become empty during iteration correctly</a>.
@@ -158,6 +158,34 @@ class ItemTests extends AbstractTransferApiTest {
 		}
 	}
 
+	@Test
+	public void testInventoryMoveTo() {
+		SimpleInventory source = new SimpleInventory(new ItemStack(Items.DIAMOND, 10), ItemStack.EMPTY, new ItemStack(Items.STONE, 64), new ItemStack(Items.DIAMOND, 5));
+		SimpleInventory target = new SimpleInventory(new ItemStack(Items.DIAMOND, 60), ItemStack.EMPTY);
+		InventoryStorage sourceWrapper = InventoryStorage.of(source, null);
+		InventoryStorage targetWrapper = InventoryStorage.of(target, null);
+
+		// Aborting should restore both inventories.
+		try (Transaction transaction = Transaction.openOuter()) {
+			assertEquals(15L, StorageUtil.move(sourceWrapper, targetWrapper, variant -> variant.isOf(Items.DIAMOND), Long.MAX_VALUE, transaction));
+		}
+
+		if (!stackEquals(source.getStack(0), Items.DIAMOND, 10)) throw new AssertionError("Slot 0 should have been restored.");
+		if (!stackEquals(target.getStack(0), Items.DIAMOND, 60)) throw new AssertionError("Target slot 0 should have been restored.");
+
+		// Only the filtered resources should be moved, up to the max amount.
+		assertEquals(12L, StorageUtil.move(sourceWrapper, targetWrapper, variant -> variant.isOf(Items.DIAMOND), 12, null));
+		if (!source.getStack(0).isEmpty()) throw new AssertionError("Slot 0 should have been emptied.");
+		if (!stackEquals(source.getStack(2), Items.STONE, 64)) throw new AssertionError("Stone should not have been moved.");
+		if (!stackEquals(source.getStack(3), Items.DIAMOND, 3)) throw new AssertionError("Slot 3 should have been partially moved.");
+		if (!stackEquals(target.getStack(0), Items.DIAMOND, 64)) throw new AssertionError("Target slot 0 should have been filled.");
+		if (!stackEquals(target.getStack(1), Items.DIAMOND, 8)) throw new AssertionError("Target slot 1 should have received the rest.");
+
+		// Moving within the same inventory should not duplicate anything.
+		assertEquals(3L, StorageUtil.move(sourceWrapper, sourceWrapper, variant -> variant.isOf(Items.DIAMOND), Long.MAX_VALUE, null));
+		assertEquals(3, source.count(Items.DIAMOND));
+	}
+
 	@Test
 	void testPacketCodec() {
 		ItemStack stack = new ItemStack(Items.DIAMOND_PICKAXE);